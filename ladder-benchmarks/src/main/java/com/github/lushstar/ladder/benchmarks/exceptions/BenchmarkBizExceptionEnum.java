@@ -0,0 +1,62 @@
+package com.github.lushstar.ladder.benchmarks.exceptions;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionAssert;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionCounter;
+import com.github.lushstar.ladder.commons.exceptions.BizMessageTemplate;
+import com.github.lushstar.ladder.commons.exceptions.ImmutableBizException;
+import lombok.Getter;
+
+/**
+ * <p>description : BenchmarkBizExceptionEnum，覆盖默认、无堆栈、预构建三种抛出方式
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/14 10:10
+ */
+@Getter
+public enum BenchmarkBizExceptionEnum implements BizExceptionAssert {
+
+    /**
+     * 默认方式, 每次创建并填充堆栈
+     */
+    DEFAULT(900000L, "参数不合法", false, false),
+
+    /**
+     * 带动态入参的异常信息
+     */
+    WITH_ARGS(900001L, "参数 {0} 不合法, 期望 {1}", false, false),
+
+    /**
+     * 每次创建但不填充堆栈
+     */
+    STACKLESS(900002L, "参数不合法", true, false),
+
+    /**
+     * 无动态入参时抛出预构建的异常
+     */
+    CACHED(900003L, "参数不合法", true, true);
+
+    private final Long code;
+
+    private final String message;
+
+    private final BizMessageTemplate messageTemplate;
+
+    private final boolean stackless;
+
+    private final BizException cachedException;
+
+    private final BizExceptionCounter counter = new BizExceptionCounter();
+
+    BenchmarkBizExceptionEnum(Long code, String message, boolean stackless, boolean cached) {
+        this.code = code;
+        this.message = message;
+        this.messageTemplate = BizMessageTemplate.of(message);
+        this.stackless = stackless;
+        this.cachedException = cached ? new ImmutableBizException(this, messageTemplate.format()) : null;
+    }
+
+}
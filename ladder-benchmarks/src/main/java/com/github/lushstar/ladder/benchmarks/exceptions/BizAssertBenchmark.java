@@ -0,0 +1,91 @@
+package com.github.lushstar.ladder.benchmarks.exceptions;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : BizAssertBenchmark，BizAssert 校验通过和校验失败两条路径的开销
+ * 配合 -prof gc 可以确认校验通过时没有内存分配
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/14 10:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BizAssertBenchmark {
+
+    @Param({"DEFAULT", "STACKLESS", "CACHED"})
+    public BenchmarkBizExceptionEnum bizExceptionEnum;
+
+    public Object present = new Object();
+
+    public Object absent = null;
+
+    public int value = 10;
+
+    public String name = "name";
+
+    @Benchmark
+    public void passNotNull() {
+        bizExceptionEnum.notNull(present);
+    }
+
+    @Benchmark
+    public void passNotNullOneArg() {
+        bizExceptionEnum.notNull(present, name);
+    }
+
+    @Benchmark
+    public void passNotNullVarargs() {
+        bizExceptionEnum.notNull(present, name, name, name);
+    }
+
+    @Benchmark
+    public void passNotNullSupplier() {
+        bizExceptionEnum.notNullLazy(present, () -> new Object[]{name});
+    }
+
+    @Benchmark
+    public void passIsBetween() {
+        bizExceptionEnum.isBetween(value, 1, 100);
+    }
+
+    @Benchmark
+    public BizException failNotNull() {
+        try {
+            bizExceptionEnum.notNull(absent);
+            return null;
+        } catch (BizException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public BizException failNotNullOneArg() {
+        try {
+            bizExceptionEnum.notNull(absent, name);
+            return null;
+        } catch (BizException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.github.lushstar.ladder.benchmarks.exceptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure.BizExceptionLogger;
+import com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure.LadderExceptionsControllerAdvice;
+import com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure.LadderExceptionsProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : ControllerAdviceBenchmark，LadderExceptionsControllerAdvice 生成响应体的开销, 关闭日志只看序列化部分
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/14 11:05
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerAdviceBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BizExceptionLogger bizExceptionLogger;
+
+    private LadderExceptionsControllerAdvice advice;
+
+    private BizException constantException;
+
+    private BizException argsException;
+
+    private NativeWebRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LadderExceptionsProperties properties = new LadderExceptionsProperties();
+        properties.setLogLevel(LogLevel.OFF);
+        bizExceptionLogger = new BizExceptionLogger(properties);
+        advice = new LadderExceptionsControllerAdvice(bizExceptionLogger);
+        constantException = BenchmarkBizExceptionEnum.CACHED.newException();
+        argsException = BenchmarkBizExceptionEnum.WITH_ARGS.newException("name", "not null");
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        servletRequest.addHeader(HttpHeaders.ACCEPT, "application/json, text/plain, */*");
+        request = new ServletWebRequest(servletRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bizExceptionLogger.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> constantMessage() {
+        return advice.bizExceptionHandler(constantException, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> argsMessage() {
+        return advice.bizExceptionHandler(argsException, request);
+    }
+
+    /**
+     * 改造前 HashMap + Jackson 的序列化方式, 作为对比基线
+     */
+    @Benchmark
+    public byte[] legacyJackson() throws Exception {
+        Map<String, Object> result = new HashMap<>(10);
+        result.put("code", argsException.getCode());
+        result.put("message", argsException.getMessage());
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+}
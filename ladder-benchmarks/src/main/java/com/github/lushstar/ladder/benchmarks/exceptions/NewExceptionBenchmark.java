@@ -0,0 +1,62 @@
+package com.github.lushstar.ladder.benchmarks.exceptions;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : NewExceptionBenchmark，newException 有无 MessageFormat 入参以及 message 是否被读取时的开销
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/14 10:35
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NewExceptionBenchmark {
+
+    public String arg1 = "name";
+
+    public String arg2 = "not null";
+
+    @Benchmark
+    public BizException newExceptionNoArgs() {
+        return BenchmarkBizExceptionEnum.STACKLESS.newException();
+    }
+
+    @Benchmark
+    public BizException newExceptionWithArgs() {
+        return BenchmarkBizExceptionEnum.WITH_ARGS.newException(arg1, arg2);
+    }
+
+    @Benchmark
+    public String newExceptionWithArgsAndMessage() {
+        return BenchmarkBizExceptionEnum.WITH_ARGS.newException(arg1, arg2).getMessage();
+    }
+
+    /**
+     * 改造前 newException 的实现, 作为对比基线
+     */
+    @Benchmark
+    public BizException legacyMessageFormat() {
+        String message = MessageFormat.format(BenchmarkBizExceptionEnum.WITH_ARGS.getMessage(), arg1, arg2);
+        return new BizException(BenchmarkBizExceptionEnum.WITH_ARGS.getCode(), message);
+    }
+
+}
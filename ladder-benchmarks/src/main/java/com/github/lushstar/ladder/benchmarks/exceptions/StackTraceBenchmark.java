@@ -0,0 +1,58 @@
+package com.github.lushstar.ladder.benchmarks.exceptions;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : StackTraceBenchmark，不同调用深度下填充堆栈的开销
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/14 10:50
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StackTraceBenchmark {
+
+    /**
+     * 额外的调用深度, 模拟 Web 容器中较深的调用栈
+     */
+    @Param({"0", "32", "128"})
+    public int depth;
+
+    @Benchmark
+    public BizException withStackTrace() {
+        return this.create(depth, true);
+    }
+
+    @Benchmark
+    public BizException withoutStackTrace() {
+        return this.create(depth, false);
+    }
+
+    private BizException create(int remaining, boolean writableStackTrace) {
+        if (remaining > 0) {
+            return this.create(remaining - 1, writableStackTrace);
+        }
+        return new BizException(BenchmarkBizExceptionEnum.DEFAULT.getCode(), BenchmarkBizExceptionEnum.DEFAULT.getMessage(),
+                writableStackTrace);
+    }
+
+}
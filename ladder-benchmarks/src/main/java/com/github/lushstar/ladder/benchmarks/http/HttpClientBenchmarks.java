@@ -0,0 +1,43 @@
+package com.github.lushstar.ladder.benchmarks.http;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>description : HttpClientBenchmarks，按不同并发度依次运行 {@link RestTemplateBenchmark}
+ * 每个并发度的结果单独输出到 jmh-http-t{threads}.json, 默认开启 GC profiler 统计内存分配速率
+ * java -cp ladder-benchmarks/target/benchmarks.jar com.github.lushstar.ladder.benchmarks.http.HttpClientBenchmarks [JMH options]
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/15 10:40
+ */
+public class HttpClientBenchmarks {
+
+    /**
+     * 并发度, 可以通过 -Dladder.benchmark.threads=1,8,32 覆盖
+     */
+    private static final String THREADS = System.getProperty("ladder.benchmark.threads", "1,16,64");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        for (String threads : THREADS.split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .include(RestTemplateBenchmark.class.getName())
+                    .threads(threadCount)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-http-t" + threadCount + ".json");
+            new Runner(builder.build()).run();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.github.lushstar.ladder.benchmarks.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>description : HttpStubServer，基于 JDK HttpServer 的本地桩服务, GET /payload/{size} 返回 size 字节的响应体
+ * HTTPS 使用 classpath 下 http/benchmark-server.jks 中 CN=localhost 的自签名证书, 客户端信任 http/benchmark-server.cer 即可
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/15 09:30
+ */
+public class HttpStubServer implements AutoCloseable {
+
+    static final String KEYSTORE = "http/benchmark-server.jks";
+
+    static final String CERTIFICATE = "http/benchmark-server.cer";
+
+    private static final char[] KEYSTORE_PASSWORD = "ladder-benchmark".toCharArray();
+
+    private static final String PAYLOAD_PATH = "/payload/";
+
+    static {
+        // JDK HttpServer 默认不开启 TCP_NODELAY, Nagle 与延迟 ACK 叠加会让每个请求多出几十毫秒
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final Map<Integer, byte[]> payloads = new ConcurrentHashMap<>();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final boolean ssl;
+
+    public HttpStubServer(boolean ssl) throws Exception {
+        this.ssl = ssl;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        if (ssl) {
+            HttpsServer httpsServer = HttpsServer.create(address, 1024);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(serverSslContext()));
+            this.server = httpsServer;
+        } else {
+            this.server = HttpServer.create(address, 1024);
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext(PAYLOAD_PATH, this::payload);
+        this.server.start();
+    }
+
+    /**
+     * @param size 响应体大小
+     * @return 访问地址, 使用 localhost 以便通过证书的主机名校验
+     */
+    public String url(int size) {
+        return (ssl ? "https" : "http") + "://localhost:" + server.getAddress().getPort() + PAYLOAD_PATH + size;
+    }
+
+    private void payload(HttpExchange exchange) throws IOException {
+        try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+            int size = Integer.parseInt(exchange.getRequestURI().getPath().substring(PAYLOAD_PATH.length()));
+            byte[] payload = payloads.computeIfAbsent(size, key -> {
+                byte[] bytes = new byte[key];
+                Arrays.fill(bytes, (byte) 'a');
+                return bytes;
+            });
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, payload.length);
+            out.write(payload);
+        }
+    }
+
+    private static SSLContext serverSslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = HttpStubServer.class.getClassLoader().getResourceAsStream(KEYSTORE)) {
+            keyStore.load(in, KEYSTORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
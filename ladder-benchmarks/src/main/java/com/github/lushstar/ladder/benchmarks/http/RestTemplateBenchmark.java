@@ -0,0 +1,121 @@
+package com.github.lushstar.ladder.benchmarks.http;
+
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.HttpClient5RestTemplateFactory;
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.HttpClientRestTemplateFactory;
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.KeyStoreProperties;
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.OkHttpRestTemplateFactory;
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.RestTemplateFactory;
+import com.github.lushstar.ladder.web.spring.boot.autoconfigure.RestTemplateProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : RestTemplateBenchmark，对比 HttpClient 和 OkHttp 两种 RestTemplateFactory
+ * 覆盖 Http/Https、不同响应体大小和连接池配置, 并发度通过 -t 或者 {@link HttpClientBenchmarks} 指定；
+ * Throughput 给出吞吐量, SampleTime 给出 p50/p99/p999 延时, 配合 -prof gc 给出内存分配速率
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/15 10:05
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestTemplateBenchmark {
+
+    @Param({"httpClient", "okHttp", "httpClient5"})
+    public String type;
+
+    @Param({"false", "true"})
+    public boolean ssl;
+
+    @Param({"256", "16384", "1048576"})
+    public int payloadSize;
+
+    @Param({"200"})
+    public int maxTotal;
+
+    @Param({"20", "200"})
+    public int defaultMaxPerRoute;
+
+    private HttpStubServer server;
+
+    private RestTemplateFactory restTemplateFactory;
+
+    private RestTemplate restTemplate;
+
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new HttpStubServer(ssl);
+        url = server.url(payloadSize);
+        RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+        restTemplateProperties.setMaxTotal(maxTotal);
+        restTemplateProperties.setDefaultMaxPerRoute(defaultMaxPerRoute);
+        KeyStoreProperties keyStoreProperties = new KeyStoreProperties();
+        keyStoreProperties.setTrustPath(extractCertificate().getAbsolutePath());
+        keyStoreProperties.setHostNames(new String[]{"localhost"});
+        if ("okHttp".equals(type)) {
+            restTemplateFactory = new OkHttpRestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        } else if ("httpClient5".equals(type)) {
+            restTemplateFactory = new HttpClient5RestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        } else {
+            restTemplateFactory = new HttpClientRestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        }
+        restTemplate = ssl ? restTemplateFactory.createSslRestTemplate() : restTemplateFactory.createRestTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (restTemplateFactory instanceof HttpClientRestTemplateFactory) {
+            ((HttpClientRestTemplateFactory) restTemplateFactory).close();
+        } else if (restTemplateFactory instanceof OkHttpRestTemplateFactory) {
+            ((OkHttpRestTemplateFactory) restTemplateFactory).close();
+        } else if (restTemplateFactory instanceof HttpClient5RestTemplateFactory) {
+            ((HttpClient5RestTemplateFactory) restTemplateFactory).close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return restTemplate.getForObject(url, byte[].class);
+    }
+
+    /**
+     * KeyStoreProperties 只支持文件路径, 把 classpath 中的证书复制到临时文件
+     */
+    private static File extractCertificate() throws Exception {
+        File certificate = File.createTempFile("benchmark-server", ".cer");
+        certificate.deleteOnExit();
+        try (InputStream in = RestTemplateBenchmark.class.getClassLoader().getResourceAsStream(HttpStubServer.CERTIFICATE)) {
+            Files.copy(in, certificate.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return certificate;
+    }
+
+}
@@ -1,9 +1,13 @@
 package com.github.lushstar.ladder.commons.exceptions;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * <p>description : BizAssert，此类用于判断是否为空，是否包含，字符串是否有值等等，所有的通用校验操作都应该在这里扩展
+ * 每个校验都提供了 0、1、2 个入参以及 {@link Supplier} 入参的重载, 校验通过时不会创建 varargs 数组,
+ * 入参需要计算或者装箱时建议使用 {@link Supplier} 重载, 只在校验失败时才会调用
  *
  * <p>blog : https://blog.csdn.net/masteryourself
  *
@@ -21,6 +25,52 @@ public interface BizAssert {
      */
     BizException newException(Object... args);
 
+    /**
+     * 抛出异常信息, 动态入参只在需要时才计算
+     *
+     * @param argsSupplier 动态入参提供者
+     * @return {@link BizException}
+     */
+    default BizException newExceptionLazy(Supplier<Object[]> argsSupplier) {
+        return newException(argsSupplier == null ? null : argsSupplier.get());
+    }
+
+    /**
+     * 判断一定为空
+     *
+     * @param obj 校验对象
+     */
+    default void isNull(Object obj) {
+        if (obj != null) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断一定为空
+     *
+     * @param obj 校验对象
+     * @param arg 用于格式化异常信息的动态入参 {0}
+     */
+    default void isNull(Object obj, Object arg) {
+        if (obj != null) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断一定为空
+     *
+     * @param obj  校验对象
+     * @param arg1 用于格式化异常信息的动态入参 {0}
+     * @param arg2 用于格式化异常信息的动态入参 {1}
+     */
+    default void isNull(Object obj, Object arg1, Object arg2) {
+        if (obj != null) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断一定为空
      *
@@ -33,6 +83,54 @@ public interface BizAssert {
         }
     }
 
+    /**
+     * 判断一定为空
+     *
+     * @param obj          校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isNullLazy(Object obj, Supplier<Object[]> argsSupplier) {
+        if (obj != null) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断一定不为空
+     *
+     * @param obj 校验对象
+     */
+    default void notNull(Object obj) {
+        if (obj == null) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断一定不为空
+     *
+     * @param obj 校验对象
+     * @param arg 用于格式化异常信息的动态入参 {0}
+     */
+    default void notNull(Object obj, Object arg) {
+        if (obj == null) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断一定不为空
+     *
+     * @param obj  校验对象
+     * @param arg1 用于格式化异常信息的动态入参 {0}
+     * @param arg2 用于格式化异常信息的动态入参 {1}
+     */
+    default void notNull(Object obj, Object arg1, Object arg2) {
+        if (obj == null) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断一定不为空
      *
@@ -45,6 +143,54 @@ public interface BizAssert {
         }
     }
 
+    /**
+     * 判断一定不为空
+     *
+     * @param obj          校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void notNullLazy(Object obj, Supplier<Object[]> argsSupplier) {
+        if (obj == null) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断为 true
+     *
+     * @param condition 校验表达式
+     */
+    default void isTrue(boolean condition) {
+        if (!condition) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断为 true
+     *
+     * @param condition 校验表达式
+     * @param arg       用于格式化异常信息的动态入参 {0}
+     */
+    default void isTrue(boolean condition, Object arg) {
+        if (!condition) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断为 true
+     *
+     * @param condition 校验表达式
+     * @param arg1      用于格式化异常信息的动态入参 {0}
+     * @param arg2      用于格式化异常信息的动态入参 {1}
+     */
+    default void isTrue(boolean condition, Object arg1, Object arg2) {
+        if (!condition) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断为 true
      *
@@ -57,6 +203,54 @@ public interface BizAssert {
         }
     }
 
+    /**
+     * 判断为 true
+     *
+     * @param condition    校验表达式
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isTrueLazy(boolean condition, Supplier<Object[]> argsSupplier) {
+        if (!condition) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断有长度
+     *
+     * @param text 校验对象
+     */
+    default void hasLength(String text) {
+        if (text == null || text.isEmpty()) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断有长度
+     *
+     * @param text 校验对象
+     * @param arg  用于格式化异常信息的动态入参 {0}
+     */
+    default void hasLength(String text, Object arg) {
+        if (text == null || text.isEmpty()) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断有长度
+     *
+     * @param text 校验对象
+     * @param arg1 用于格式化异常信息的动态入参 {0}
+     * @param arg2 用于格式化异常信息的动态入参 {1}
+     */
+    default void hasLength(String text, Object arg1, Object arg2) {
+        if (text == null || text.isEmpty()) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断有长度
      *
@@ -64,11 +258,74 @@ public interface BizAssert {
      * @param args 用于格式化异常信息的动态入参
      */
     default void hasLength(String text, Object... args) {
-        if (!(text != null && text.length() > 0)) {
+        if (text == null || text.isEmpty()) {
             throw newException(args);
         }
     }
 
+    /**
+     * 判断有长度
+     *
+     * @param text         校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void hasLengthLazy(String text, Supplier<Object[]> argsSupplier) {
+        if (text == null || text.isEmpty()) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断有内容，空内容会报错
+     *
+     * @param text 校验对象
+     */
+    default void hasText(String text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return;
+                }
+            }
+        }
+        throw newException();
+    }
+
+    /**
+     * 判断有内容，空内容会报错
+     *
+     * @param text 校验对象
+     * @param arg  用于格式化异常信息的动态入参 {0}
+     */
+    default void hasText(String text, Object arg) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return;
+                }
+            }
+        }
+        throw newException(arg);
+    }
+
+    /**
+     * 判断有内容，空内容会报错
+     *
+     * @param text 校验对象
+     * @param arg1 用于格式化异常信息的动态入参 {0}
+     * @param arg2 用于格式化异常信息的动态入参 {1}
+     */
+    default void hasText(String text, Object arg1, Object arg2) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return;
+                }
+            }
+        }
+        throw newException(arg1, arg2);
+    }
+
     /**
      * 判断有内容，空内容会报错
      *
@@ -76,16 +333,69 @@ public interface BizAssert {
      * @param args 用于格式化异常信息的动态入参
      */
     default void hasText(String text, Object... args) {
-        this.hasLength(text, args);
-        int strLen = text.length();
-        for (int i = 0; i < strLen; i++) {
-            if (!Character.isWhitespace(text.charAt(i))) {
-                return;
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return;
+                }
             }
         }
         throw newException(args);
     }
 
+    /**
+     * 判断有内容，空内容会报错
+     *
+     * @param text         校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void hasTextLazy(String text, Supplier<Object[]> argsSupplier) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return;
+                }
+            }
+        }
+        throw newExceptionLazy(argsSupplier);
+    }
+
+    /**
+     * 判断集合为空
+     *
+     * @param collection 校验对象
+     */
+    default void isEmpty(Collection<?> collection) {
+        if (!collection.isEmpty()) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断集合为空
+     *
+     * @param collection 校验对象
+     * @param arg        用于格式化异常信息的动态入参 {0}
+     */
+    default void isEmpty(Collection<?> collection, Object arg) {
+        if (!collection.isEmpty()) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断集合为空
+     *
+     * @param collection 校验对象
+     * @param arg1       用于格式化异常信息的动态入参 {0}
+     * @param arg2       用于格式化异常信息的动态入参 {1}
+     */
+    default void isEmpty(Collection<?> collection, Object arg1, Object arg2) {
+        if (!collection.isEmpty()) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断集合为空
      *
@@ -98,6 +408,54 @@ public interface BizAssert {
         }
     }
 
+    /**
+     * 判断集合为空
+     *
+     * @param collection   校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isEmptyLazy(Collection<?> collection, Supplier<Object[]> argsSupplier) {
+        if (!collection.isEmpty()) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断集合不为空
+     *
+     * @param collection 校验对象
+     */
+    default void notEmpty(Collection<?> collection) {
+        if (collection.isEmpty()) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断集合不为空
+     *
+     * @param collection 校验对象
+     * @param arg        用于格式化异常信息的动态入参 {0}
+     */
+    default void notEmpty(Collection<?> collection, Object arg) {
+        if (collection.isEmpty()) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断集合不为空
+     *
+     * @param collection 校验对象
+     * @param arg1       用于格式化异常信息的动态入参 {0}
+     * @param arg2       用于格式化异常信息的动态入参 {1}
+     */
+    default void notEmpty(Collection<?> collection, Object arg1, Object arg2) {
+        if (collection.isEmpty()) {
+            throw newException(arg1, arg2);
+        }
+    }
+
     /**
      * 判断集合不为空
      *
@@ -110,4 +468,396 @@ public interface BizAssert {
         }
     }
 
+    /**
+     * 判断集合不为空
+     *
+     * @param collection   校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void notEmptyLazy(Collection<?> collection, Supplier<Object[]> argsSupplier) {
+        if (collection.isEmpty()) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断 Map 不为空
+     *
+     * @param map 校验对象
+     */
+    default void notEmpty(Map<?, ?> map) {
+        if (map == null || map.isEmpty()) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断 Map 不为空
+     *
+     * @param map 校验对象
+     * @param arg 用于格式化异常信息的动态入参 {0}
+     */
+    default void notEmpty(Map<?, ?> map, Object arg) {
+        if (map == null || map.isEmpty()) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断 Map 不为空
+     *
+     * @param map  校验对象
+     * @param arg1 用于格式化异常信息的动态入参 {0}
+     * @param arg2 用于格式化异常信息的动态入参 {1}
+     */
+    default void notEmpty(Map<?, ?> map, Object arg1, Object arg2) {
+        if (map == null || map.isEmpty()) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断 Map 不为空
+     *
+     * @param map  校验对象
+     * @param args 用于格式化异常信息的动态入参
+     */
+    default void notEmpty(Map<?, ?> map, Object... args) {
+        if (map == null || map.isEmpty()) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断 Map 不为空
+     *
+     * @param map          校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void notEmptyLazy(Map<?, ?> map, Supplier<Object[]> argsSupplier) {
+        if (map == null || map.isEmpty()) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断数组不为空
+     *
+     * @param array 校验对象
+     */
+    default void notEmpty(Object[] array) {
+        if (array == null || array.length == 0) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断数组不为空
+     *
+     * @param array 校验对象
+     * @param arg   用于格式化异常信息的动态入参 {0}
+     */
+    default void notEmpty(Object[] array, Object arg) {
+        if (array == null || array.length == 0) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断数组不为空
+     *
+     * @param array 校验对象
+     * @param arg1  用于格式化异常信息的动态入参 {0}
+     * @param arg2  用于格式化异常信息的动态入参 {1}
+     */
+    default void notEmpty(Object[] array, Object arg1, Object arg2) {
+        if (array == null || array.length == 0) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断数组不为空
+     *
+     * @param array 校验对象
+     * @param args  用于格式化异常信息的动态入参
+     */
+    default void notEmpty(Object[] array, Object... args) {
+        if (array == null || array.length == 0) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断数组不为空
+     *
+     * @param array        校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void notEmptyLazy(Object[] array, Supplier<Object[]> argsSupplier) {
+        if (array == null || array.length == 0) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     */
+    default void isPositive(int value) {
+        if (value <= 0) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param arg   用于格式化异常信息的动态入参 {0}
+     */
+    default void isPositive(int value, Object arg) {
+        if (value <= 0) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param arg1  用于格式化异常信息的动态入参 {0}
+     * @param arg2  用于格式化异常信息的动态入参 {1}
+     */
+    default void isPositive(int value, Object arg1, Object arg2) {
+        if (value <= 0) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param args  用于格式化异常信息的动态入参
+     */
+    default void isPositive(int value, Object... args) {
+        if (value <= 0) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value        校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isPositiveLazy(int value, Supplier<Object[]> argsSupplier) {
+        if (value <= 0) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     */
+    default void isPositive(long value) {
+        if (value <= 0) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param arg   用于格式化异常信息的动态入参 {0}
+     */
+    default void isPositive(long value, Object arg) {
+        if (value <= 0) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param arg1  用于格式化异常信息的动态入参 {0}
+     * @param arg2  用于格式化异常信息的动态入参 {1}
+     */
+    default void isPositive(long value, Object arg1, Object arg2) {
+        if (value <= 0) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value 校验对象
+     * @param args  用于格式化异常信息的动态入参
+     */
+    default void isPositive(long value, Object... args) {
+        if (value <= 0) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断为正数
+     *
+     * @param value        校验对象
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isPositiveLazy(long value, Supplier<Object[]> argsSupplier) {
+        if (value <= 0) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     */
+    default void isBetween(int value, int min, int max) {
+        if (value < min || value > max) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param arg   用于格式化异常信息的动态入参 {0}
+     */
+    default void isBetween(int value, int min, int max, Object arg) {
+        if (value < min || value > max) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param arg1  用于格式化异常信息的动态入参 {0}
+     * @param arg2  用于格式化异常信息的动态入参 {1}
+     */
+    default void isBetween(int value, int min, int max, Object arg1, Object arg2) {
+        if (value < min || value > max) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param args  用于格式化异常信息的动态入参
+     */
+    default void isBetween(int value, int min, int max, Object... args) {
+        if (value < min || value > max) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value        校验对象
+     * @param min          最小值(包含)
+     * @param max          最大值(包含)
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isBetweenLazy(int value, int min, int max, Supplier<Object[]> argsSupplier) {
+        if (value < min || value > max) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     */
+    default void isBetween(long value, long min, long max) {
+        if (value < min || value > max) {
+            throw newException();
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param arg   用于格式化异常信息的动态入参 {0}
+     */
+    default void isBetween(long value, long min, long max, Object arg) {
+        if (value < min || value > max) {
+            throw newException(arg);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param arg1  用于格式化异常信息的动态入参 {0}
+     * @param arg2  用于格式化异常信息的动态入参 {1}
+     */
+    default void isBetween(long value, long min, long max, Object arg1, Object arg2) {
+        if (value < min || value > max) {
+            throw newException(arg1, arg2);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value 校验对象
+     * @param min   最小值(包含)
+     * @param max   最大值(包含)
+     * @param args  用于格式化异常信息的动态入参
+     */
+    default void isBetween(long value, long min, long max, Object... args) {
+        if (value < min || value > max) {
+            throw newException(args);
+        }
+    }
+
+    /**
+     * 判断在 [min, max] 区间内
+     *
+     * @param value        校验对象
+     * @param min          最小值(包含)
+     * @param max          最大值(包含)
+     * @param argsSupplier 动态入参提供者, 只在校验失败时调用
+     */
+    default void isBetweenLazy(long value, long min, long max, Supplier<Object[]> argsSupplier) {
+        if (value < min || value > max) {
+            throw newExceptionLazy(argsSupplier);
+        }
+    }
+
 }
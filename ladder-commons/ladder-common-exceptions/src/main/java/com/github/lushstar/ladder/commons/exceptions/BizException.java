@@ -1,6 +1,14 @@
 package com.github.lushstar.ladder.commons.exceptions;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 
 /**
  * <p>description : BizException，业务异常
@@ -14,20 +22,124 @@ import lombok.Data;
 @Data
 public class BizException extends RuntimeException {
 
+    /**
+     * 全局无堆栈模式, 开启后 {@link BizExceptionAssert#newException(Object...)} 不再为异常填充堆栈
+     * 可以通过 -Dladder.exceptions.stackless=true 或者 {@link #setGlobalStackless(boolean)} 开启
+     */
+    private static volatile boolean globalStackless = Boolean.getBoolean("ladder.exceptions.stackless");
+
     /**
      * 错误 code
      */
     private Long code;
 
     /**
-     * 错误 message
+     * 错误 message, 通过模板创建时在第一次读取时才会格式化
      */
     private String message;
 
+    /**
+     * 延迟格式化使用的模板
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient BizMessageTemplate template;
+
+    /**
+     * 用于格式化异常信息的动态入参
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient Object[] args;
+
+    /**
+     * 创建异常的 {@link BizExceptionAssert}, 直接 new 出来的异常为 null
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient BizExceptionAssert source;
+
     public BizException(Long code, String message) {
-        super(message);
+        this(code, message, true);
+    }
+
+    /**
+     * @param code               错误 code
+     * @param message            错误 message
+     * @param writableStackTrace 是否填充堆栈, 为 false 时省去 fillInStackTrace 的开销, 同时关闭 suppressed 异常
+     */
+    public BizException(Long code, String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
         this.code = code;
         this.message = message;
     }
 
+    /**
+     * @param source             创建异常的 {@link BizExceptionAssert}
+     * @param message            错误 message
+     * @param writableStackTrace 是否填充堆栈
+     */
+    public BizException(BizExceptionAssert source, String message, boolean writableStackTrace) {
+        this(source.getCode(), message, writableStackTrace);
+        this.source = source;
+    }
+
+    /**
+     * 延迟格式化 message 的异常, 只有调用 {@link #getMessage()} 时才会格式化
+     * 注意 args 会被异常持有, 读取 message 前修改 args 中的对象会影响格式化结果
+     *
+     * @param code               错误 code
+     * @param template           异常信息模板
+     * @param args               用于格式化异常信息的动态入参
+     * @param writableStackTrace 是否填充堆栈
+     */
+    public BizException(Long code, BizMessageTemplate template, Object[] args, boolean writableStackTrace) {
+        super(null, null, writableStackTrace, writableStackTrace);
+        this.code = code;
+        this.template = template;
+        this.args = args;
+    }
+
+    /**
+     * 由 {@link BizExceptionAssert#newException(Object...)} 创建的延迟格式化异常
+     *
+     * @param source             创建异常的 {@link BizExceptionAssert}
+     * @param template           异常信息模板
+     * @param args               用于格式化异常信息的动态入参
+     * @param writableStackTrace 是否填充堆栈
+     */
+    public BizException(BizExceptionAssert source, BizMessageTemplate template, Object[] args, boolean writableStackTrace) {
+        this(source.getCode(), template, args, writableStackTrace);
+        this.source = source;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null && template != null) {
+            // 并发读取时最多重复格式化一次, 结果相同
+            message = template.format(args);
+            this.message = message;
+        }
+        return message;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // template 和 args 不参与序列化, 序列化前先完成格式化
+        this.getMessage();
+        out.defaultWriteObject();
+    }
+
+    public static boolean isGlobalStackless() {
+        return globalStackless;
+    }
+
+    public static void setGlobalStackless(boolean globalStackless) {
+        BizException.globalStackless = globalStackless;
+    }
+
 }
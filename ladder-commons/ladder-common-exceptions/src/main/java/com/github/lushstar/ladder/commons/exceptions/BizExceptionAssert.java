@@ -1,7 +1,5 @@
 package com.github.lushstar.ladder.commons.exceptions;
 
-import java.text.MessageFormat;
-
 /**
  * <p>description : BizExceptionAssert，用于将枚举和异常结合使用
  *
@@ -27,6 +25,42 @@ public interface BizExceptionAssert extends BizAssert {
      */
     String getMessage();
 
+    /**
+     * 错误 message 对应的预编译模板, 默认按 message 全局缓存, 枚举中可以直接持有以省去查找
+     *
+     * @return {@link BizMessageTemplate}
+     */
+    default BizMessageTemplate getMessageTemplate() {
+        return BizMessageTemplate.of(this.getMessage());
+    }
+
+    /**
+     * 是否创建无堆栈的异常, 默认跟随全局配置 {@link BizException#isGlobalStackless()}
+     *
+     * @return true 表示不填充堆栈
+     */
+    default boolean isStackless() {
+        return BizException.isGlobalStackless();
+    }
+
+    /**
+     * 无动态入参时直接抛出的预构建异常, 返回 null 表示每次都创建新的异常
+     *
+     * @return {@link ImmutableBizException}
+     */
+    default BizException getCachedException() {
+        return null;
+    }
+
+    /**
+     * 该错误 code 的异常计数器, 枚举中可以直接持有以省去统计时按 code 查找, 返回 null 时按 code 查找
+     *
+     * @return {@link BizExceptionCounter}
+     */
+    default BizExceptionCounter getCounter() {
+        return null;
+    }
+
     /**
      * 抛出异常信息
      *
@@ -35,8 +69,13 @@ public interface BizExceptionAssert extends BizAssert {
      */
     @Override
     default BizException newException(Object... args) {
-        String msg = MessageFormat.format(this.getMessage(), args);
-        return new BizException(this.getCode(), msg);
+        if (args == null || args.length == 0) {
+            BizException cachedException = this.getCachedException();
+            if (cachedException != null) {
+                return cachedException;
+            }
+        }
+        return new BizException(this, this.getMessageTemplate(), args, !this.isStackless());
     }
 
 }
@@ -0,0 +1,29 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>description : BizExceptionCounter，枚举持有的业务异常计数器
+ * 记录最近一次绑定它的统计实例, 统计时比较一次引用就能确认已经绑定, 不需要再按 code 查找
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/13 10:05
+ */
+@Getter
+@Setter
+public class BizExceptionCounter extends LongAdder {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 绑定该计数器的统计实例
+     */
+    private transient volatile Object binder;
+
+}
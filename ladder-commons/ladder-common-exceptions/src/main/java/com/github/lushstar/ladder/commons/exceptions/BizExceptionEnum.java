@@ -1,6 +1,6 @@
 package com.github.lushstar.ladder.commons.exceptions;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
@@ -13,7 +13,6 @@ import lombok.Getter;
  * @date : 2020/6/22 18:42
  */
 @Getter
-@AllArgsConstructor
 public enum BizExceptionEnum implements BizExceptionAssert {
 
     /**
@@ -25,4 +24,48 @@ public enum BizExceptionEnum implements BizExceptionAssert {
 
     private final String message;
 
+    /**
+     * 预编译的 message 模板
+     */
+    private final BizMessageTemplate messageTemplate;
+
+    /**
+     * 是否不填充堆栈, 为 false 时跟随全局配置
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean stackless;
+
+    /**
+     * 无动态入参时复用的预构建异常
+     */
+    private final BizException cachedException;
+
+    /**
+     * 异常计数器, 开启统计时使用
+     */
+    private final BizExceptionCounter counter = new BizExceptionCounter();
+
+    BizExceptionEnum(Long code, String message) {
+        this(code, message, false, false);
+    }
+
+    /**
+     * @param code      错误 code
+     * @param message   错误 message
+     * @param stackless 是否不填充堆栈
+     * @param cached    无动态入参时是否抛出预构建的 {@link ImmutableBizException}
+     */
+    BizExceptionEnum(Long code, String message, boolean stackless, boolean cached) {
+        this.code = code;
+        this.message = message;
+        this.messageTemplate = BizMessageTemplate.of(message);
+        this.stackless = stackless;
+        this.cachedException = cached ? new ImmutableBizException(this, messageTemplate.format()) : null;
+    }
+
+    @Override
+    public boolean isStackless() {
+        return stackless || BizException.isGlobalStackless();
+    }
+
 }
@@ -0,0 +1,220 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>description : BizExceptionRegistry，以错误 code 为索引的 {@link BizExceptionAssert} 注册表
+ * 启动时注册所有的异常枚举, 注册时检查 code 是否重复, 之后按 code 查找不需要遍历枚举；
+ * 指定 ResourceBundle 后可以按 Locale 渲染异常信息, 资源文件的 key 为错误 code, 每个 Locale 下的模板只加载编译一次
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/10 10:05
+ */
+public class BizExceptionRegistry {
+
+    /**
+     * 不回退到系统默认 Locale, 找不到时直接使用枚举中定义的 message
+     */
+    private static final ResourceBundle.Control BUNDLE_CONTROL =
+            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT);
+
+    private final String basename;
+
+    private final ClassLoader classLoader;
+
+    private volatile LongObjectHashMap<BizExceptionAssert> asserts = new LongObjectHashMap<>();
+
+    private final List<BizExceptionAssert> registered = new ArrayList<>();
+
+    private final ConcurrentMap<Locale, LocaleTemplates> localeTemplates = new ConcurrentHashMap<>();
+
+    public BizExceptionRegistry() {
+        this(null, null);
+    }
+
+    /**
+     * @param basename    国际化资源文件, 如 i18n/biz_messages, 为 null 时不做国际化
+     * @param classLoader 加载资源文件的 {@link ClassLoader}
+     */
+    public BizExceptionRegistry(String basename, ClassLoader classLoader) {
+        this.basename = basename;
+        this.classLoader = classLoader == null ? BizExceptionRegistry.class.getClassLoader() : classLoader;
+    }
+
+    /**
+     * 注册一个异常枚举中的所有常量
+     *
+     * @param enumClass 实现了 {@link BizExceptionAssert} 的枚举
+     * @throws IllegalStateException code 重复时抛出
+     */
+    public void register(Class<? extends BizExceptionAssert> enumClass) {
+        BizExceptionAssert[] constants = enumClass.getEnumConstants();
+        if (constants == null) {
+            throw new IllegalArgumentException(enumClass.getName() + " is not an enum");
+        }
+        this.register(constants);
+    }
+
+    /**
+     * 注册异常定义
+     *
+     * @param bizExceptionAsserts {@link BizExceptionAssert}
+     * @throws IllegalStateException code 重复时抛出
+     */
+    public synchronized void register(BizExceptionAssert... bizExceptionAsserts) {
+        LongObjectHashMap<BizExceptionAssert> copy = asserts.copy();
+        List<BizExceptionAssert> added = new ArrayList<>();
+        for (BizExceptionAssert bizExceptionAssert : bizExceptionAsserts) {
+            Long code = bizExceptionAssert.getCode();
+            if (code == null) {
+                throw new IllegalArgumentException(describe(bizExceptionAssert) + " code can not be null");
+            }
+            BizExceptionAssert previous = copy.get(code);
+            if (previous == bizExceptionAssert) {
+                continue;
+            }
+            if (previous != null) {
+                throw new IllegalStateException("duplicate BizException code [" + code + "]: "
+                        + describe(previous) + " and " + describe(bizExceptionAssert));
+            }
+            copy.put(code, bizExceptionAssert);
+            added.add(bizExceptionAssert);
+        }
+        registered.addAll(added);
+        asserts = copy;
+    }
+
+    /**
+     * 按错误 code 查找
+     *
+     * @param code 错误 code
+     * @return 未注册时返回 null
+     */
+    public BizExceptionAssert get(long code) {
+        return asserts.get(code);
+    }
+
+    /**
+     * 是否配置了国际化资源文件
+     *
+     * @return true 表示需要按 Locale 渲染异常信息
+     */
+    public boolean isLocalized() {
+        return basename != null;
+    }
+
+    public int size() {
+        return asserts.size();
+    }
+
+    /**
+     * 所有已注册的异常定义, 按注册顺序排列, 可用于生成错误码文档
+     *
+     * @return {@link BizExceptionAssert}
+     */
+    public synchronized List<BizExceptionAssert> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(registered));
+    }
+
+    /**
+     * 获取指定 Locale 下编译好的模板
+     *
+     * @param code   错误 code
+     * @param locale {@link Locale}
+     * @return 未注册时返回 null
+     */
+    public BizMessageTemplate getMessageTemplate(long code, Locale locale) {
+        BizExceptionAssert bizExceptionAssert = asserts.get(code);
+        if (bizExceptionAssert == null) {
+            return null;
+        }
+        if (basename == null || locale == null) {
+            return bizExceptionAssert.getMessageTemplate();
+        }
+        LocaleTemplates templates = localeTemplates.get(locale);
+        if (templates == null) {
+            templates = new LocaleTemplates(locale);
+            LocaleTemplates previous = localeTemplates.putIfAbsent(locale, templates);
+            if (previous != null) {
+                templates = previous;
+            }
+        }
+        return templates.get(code, bizExceptionAssert);
+    }
+
+    /**
+     * 按 Locale 渲染异常信息, 未注册的异常直接返回 {@link BizException#getMessage()}
+     *
+     * @param bizException {@link BizException}
+     * @param locale       {@link Locale}
+     * @return 异常信息
+     */
+    public String getMessage(BizException bizException, Locale locale) {
+        Long code = bizException.getCode();
+        BizMessageTemplate template = code == null ? null : this.getMessageTemplate(code, locale);
+        if (template == null || bizException instanceof ImmutableBizException) {
+            return template == null ? bizException.getMessage() : template.format();
+        }
+        return template.format(bizException.getArgs());
+    }
+
+    private static String describe(BizExceptionAssert bizExceptionAssert) {
+        return bizExceptionAssert instanceof Enum
+                ? ((Enum<?>) bizExceptionAssert).getDeclaringClass().getName() + "." + ((Enum<?>) bizExceptionAssert).name()
+                : bizExceptionAssert.toString();
+    }
+
+    /**
+     * 单个 Locale 下的模板缓存, 写时复制
+     */
+    private class LocaleTemplates {
+
+        private final Locale locale;
+
+        private final ResourceBundle bundle;
+
+        private volatile LongObjectHashMap<BizMessageTemplate> templates = new LongObjectHashMap<>();
+
+        private LocaleTemplates(Locale locale) {
+            this.locale = locale;
+            ResourceBundle resourceBundle;
+            try {
+                resourceBundle = ResourceBundle.getBundle(basename, locale, classLoader, BUNDLE_CONTROL);
+            } catch (MissingResourceException e) {
+                resourceBundle = null;
+            }
+            this.bundle = resourceBundle;
+        }
+
+        private BizMessageTemplate get(long code, BizExceptionAssert bizExceptionAssert) {
+            BizMessageTemplate template = templates.get(code);
+            if (template != null) {
+                return template;
+            }
+            synchronized (this) {
+                template = templates.get(code);
+                if (template == null) {
+                    String key = Long.toString(code);
+                    String pattern = bundle != null && bundle.containsKey(key) ? bundle.getString(key) : bizExceptionAssert.getMessage();
+                    template = BizMessageTemplate.compile(pattern, locale);
+                    LongObjectHashMap<BizMessageTemplate> copy = templates.copy();
+                    copy.put(code, template);
+                    templates = copy;
+                }
+                return template;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>description : BizMessageTemplate，预编译的异常信息模板, 线程安全, 格式化结果与 {@link MessageFormat#format(String, Object...)} 一致
+ * 模板只在编译时解析一次：没有占位符时直接返回常量, 只有 {0} 这类简单占位符时直接拼接,
+ * 包含 {0,number} 等格式类型或者入参为数字、日期时才 clone 预先解析好的 {@link MessageFormat}
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/7 14:20
+ */
+public final class BizMessageTemplate {
+
+    private static final ConcurrentMap<String, BizMessageTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private final String pattern;
+
+    /**
+     * 预先解析好的 MessageFormat, 非线程安全, 只能 clone 后使用
+     */
+    private final MessageFormat prototype;
+
+    /**
+     * 是否只包含 {0} 这类简单占位符
+     */
+    private final boolean simple;
+
+    /**
+     * 简单模板拆分后的常量片段, 长度比 argumentIndexes 多 1
+     */
+    private final String[] literals;
+
+    /**
+     * 简单模板中占位符对应的入参下标
+     */
+    private final int[] argumentIndexes;
+
+    private BizMessageTemplate(String pattern, Locale locale) {
+        this.pattern = pattern;
+        // 借助 MessageFormat 校验模板, 不合法时和原来一样抛出 IllegalArgumentException
+        this.prototype = new MessageFormat(pattern, locale);
+        List<String> literalList = new ArrayList<>();
+        List<Integer> indexList = new ArrayList<>();
+        this.simple = parse(pattern, literalList, indexList);
+        this.literals = literalList.toArray(new String[0]);
+        this.argumentIndexes = new int[indexList.size()];
+        for (int i = 0; i < argumentIndexes.length; i++) {
+            argumentIndexes[i] = indexList.get(i);
+        }
+    }
+
+    /**
+     * 获取默认 Locale 下的模板, 同一个 pattern 只会编译一次
+     *
+     * @param pattern MessageFormat 格式的模板
+     * @return {@link BizMessageTemplate}
+     */
+    public static BizMessageTemplate of(String pattern) {
+        BizMessageTemplate template = CACHE.get(pattern);
+        if (template == null) {
+            template = compile(pattern, Locale.getDefault(Locale.Category.FORMAT));
+            BizMessageTemplate previous = CACHE.putIfAbsent(pattern, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * 编译指定 Locale 下的模板, 不做缓存
+     *
+     * @param pattern MessageFormat 格式的模板
+     * @param locale  格式化数字、日期时使用的 {@link Locale}
+     * @return {@link BizMessageTemplate}
+     */
+    public static BizMessageTemplate compile(String pattern, Locale locale) {
+        return new BizMessageTemplate(pattern, locale);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 是否不包含任何占位符
+     *
+     * @return true 表示格式化结果与入参无关
+     */
+    public boolean isConstant() {
+        return simple && argumentIndexes.length == 0;
+    }
+
+    /**
+     * 格式化异常信息
+     *
+     * @param args 用于格式化异常信息的动态入参
+     * @return 格式化后的异常信息
+     */
+    public String format(Object... args) {
+        if (args == null) {
+            args = EMPTY_ARGS;
+        }
+        if (!simple) {
+            return this.formatByPrototype(args);
+        }
+        if (argumentIndexes.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(pattern.length() + 16 * argumentIndexes.length);
+        for (int i = 0; i < argumentIndexes.length; i++) {
+            builder.append(literals[i]);
+            int index = argumentIndexes[i];
+            if (index >= args.length) {
+                // 与 MessageFormat 保持一致, 缺少的入参原样输出占位符
+                builder.append('{').append(index).append('}');
+                continue;
+            }
+            Object arg = args[index];
+            if (arg instanceof Number || arg instanceof Date) {
+                // 数字、日期需要按 Locale 格式化, 交给 MessageFormat 处理
+                return this.formatByPrototype(args);
+            }
+            builder.append(arg);
+        }
+        return builder.append(literals[argumentIndexes.length]).toString();
+    }
+
+    private String formatByPrototype(Object[] args) {
+        MessageFormat messageFormat = (MessageFormat) prototype.clone();
+        return messageFormat.format(args, new StringBuffer(), null).toString();
+    }
+
+    /**
+     * 按照 MessageFormat 的引号规则拆分模板
+     *
+     * @return true 表示只包含简单占位符
+     */
+    private static boolean parse(String pattern, List<String> literals, List<Integer> indexes) {
+        StringBuilder literal = new StringBuilder();
+        boolean inQuote = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                } else {
+                    inQuote = !inQuote;
+                }
+            } else if (ch == '{' && !inQuote) {
+                int end = pattern.indexOf('}', i);
+                String argument = end < 0 ? "" : pattern.substring(i + 1, end);
+                if (!isDigits(argument)) {
+                    return false;
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                indexes.add(Integer.parseInt(argument));
+                i = end;
+            } else {
+                literal.append(ch);
+            }
+        }
+        literals.add(literal.toString());
+        return true;
+    }
+
+    private static boolean isDigits(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
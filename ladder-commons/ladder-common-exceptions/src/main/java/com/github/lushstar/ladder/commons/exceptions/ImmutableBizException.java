@@ -0,0 +1,38 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+/**
+ * <p>description : ImmutableBizException，预先构建、可被多次抛出的不可变业务异常
+ * 没有堆栈信息, 也不允许修改 code、message、cause, 适用于无动态入参的高频校验失败场景
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/6 10:12
+ */
+public class ImmutableBizException extends BizException {
+
+    public ImmutableBizException(Long code, String message) {
+        super(code, message, false);
+    }
+
+    public ImmutableBizException(BizExceptionAssert source, String message) {
+        super(source, message, false);
+    }
+
+    @Override
+    public void setCode(Long code) {
+        throw new UnsupportedOperationException("ImmutableBizException code can not be modified");
+    }
+
+    @Override
+    public void setMessage(String message) {
+        throw new UnsupportedOperationException("ImmutableBizException message can not be modified");
+    }
+
+    @Override
+    public synchronized Throwable initCause(Throwable cause) {
+        throw new UnsupportedOperationException("ImmutableBizException cause can not be modified");
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+/**
+ * <p>description : LongObjectHashMap，以基本类型 long 为 key 的开放寻址哈希表, 查找时没有装箱和节点对象
+ * 非线程安全, 并发场景下应该按照写时复制的方式使用：复制、修改后再整体发布
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/10 09:40
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        // 负载因子 0.5, 保证线性探测足够短
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * 放入元素
+     *
+     * @param key   key
+     * @param value 不能为 null
+     * @return 原来的值
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectHashMap value can not be null");
+        }
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            Object previous = values[i];
+            if (previous == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size * 2 > keys.length) {
+                    this.resize();
+                }
+                return null;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) previous;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 复制一份, 用于写时复制
+     *
+     * @return {@link LongObjectHashMap}
+     */
+    public LongObjectHashMap<V> copy() {
+        LongObjectHashMap<V> copy = new LongObjectHashMap<>(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new Object[oldValues.length << 1];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                this.put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+}
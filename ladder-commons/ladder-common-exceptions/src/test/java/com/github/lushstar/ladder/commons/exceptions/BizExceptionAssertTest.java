@@ -0,0 +1,163 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import lombok.Getter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * <p>description : BizExceptionAssertTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/6 10:30
+ */
+public class BizExceptionAssertTest {
+
+    @Test
+    public void testDefaultExceptionHasStackTrace() {
+        BizException exception = BizExceptionEnum.SYSTEM_ERROR.newException();
+        Assert.assertTrue(exception.getStackTrace().length > 0);
+        Assert.assertNotSame(exception, BizExceptionEnum.SYSTEM_ERROR.newException());
+    }
+
+    @Test
+    public void testStacklessException() {
+        BizException exception = TestBizExceptionEnum.STACKLESS.newException("name");
+        Assert.assertEquals(0, exception.getStackTrace().length);
+        Assert.assertEquals("name 不能为空", exception.getMessage());
+    }
+
+    @Test
+    public void testGlobalStackless() {
+        BizException.setGlobalStackless(true);
+        try {
+            Assert.assertEquals(0, BizExceptionEnum.SYSTEM_ERROR.newException().getStackTrace().length);
+        } finally {
+            BizException.setGlobalStackless(false);
+        }
+    }
+
+    @Test
+    public void testCachedException() {
+        BizException exception = TestBizExceptionEnum.CACHED.newException();
+        Assert.assertSame(exception, TestBizExceptionEnum.CACHED.newException());
+        Assert.assertEquals(0, exception.getStackTrace().length);
+        Assert.assertEquals("参数不合法", exception.getMessage());
+        // 有动态入参时仍然创建新的异常
+        Assert.assertNotSame(exception, TestBizExceptionEnum.CACHED.newException("name"));
+    }
+
+    @Test
+    public void testExceptionSource() {
+        Assert.assertSame(TestBizExceptionEnum.STACKLESS, TestBizExceptionEnum.STACKLESS.newException("id").getSource());
+        Assert.assertSame(BizExceptionEnum.SYSTEM_ERROR, BizExceptionEnum.SYSTEM_ERROR.newException().getSource());
+        Assert.assertNotNull(BizExceptionEnum.SYSTEM_ERROR.getCounter());
+        Assert.assertNull(new BizException(1L, "message").getSource());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCachedExceptionImmutable() {
+        TestBizExceptionEnum.CACHED.newException().setMessage("changed");
+    }
+
+    @Test
+    public void testFixedArityArgs() {
+        BizExceptionEnum.SYSTEM_ERROR.notNull(new Object(), "a");
+        BizExceptionEnum.SYSTEM_ERROR.hasText(" a ", "a", "b");
+        try {
+            TestBizExceptionEnum.STACKLESS.hasText("  ", "name");
+            Assert.fail();
+        } catch (BizException e) {
+            Assert.assertEquals("name 不能为空", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSupplierArgsOnlyCalledOnFailure() {
+        TestBizExceptionEnum.STACKLESS.notNullLazy(new Object(), () -> {
+            throw new AssertionError("should not be called");
+        });
+        try {
+            TestBizExceptionEnum.STACKLESS.notNullLazy(null, () -> new Object[]{"id"});
+            Assert.fail();
+        } catch (BizException e) {
+            Assert.assertEquals("id 不能为空", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNullArgsNotAmbiguous() {
+        try {
+            TestBizExceptionEnum.STACKLESS.notNull(null, (Object) null);
+            Assert.fail();
+        } catch (BizException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+        try {
+            TestBizExceptionEnum.STACKLESS.notNull(null, (Object[]) null);
+            Assert.fail();
+        } catch (BizException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+        Assert.assertNotNull(TestBizExceptionEnum.STACKLESS.newException((Object[]) null));
+    }
+
+    @Test
+    public void testPrimitiveChecks() {
+        BizExceptionEnum.SYSTEM_ERROR.isPositive(1);
+        BizExceptionEnum.SYSTEM_ERROR.isPositive(1L);
+        BizExceptionEnum.SYSTEM_ERROR.isBetween(5, 1, 5);
+        BizExceptionEnum.SYSTEM_ERROR.isBetween(5L, 5L, 10L);
+        BizExceptionEnum.SYSTEM_ERROR.notEmpty(new String[]{"a"});
+        BizExceptionEnum.SYSTEM_ERROR.notEmpty(Collections.singletonMap("a", "b"));
+        assertThrows(() -> BizExceptionEnum.SYSTEM_ERROR.isPositive(0));
+        assertThrows(() -> BizExceptionEnum.SYSTEM_ERROR.isPositive(-1L));
+        assertThrows(() -> BizExceptionEnum.SYSTEM_ERROR.isBetween(6, 1, 5));
+        assertThrows(() -> BizExceptionEnum.SYSTEM_ERROR.notEmpty(new Object[0]));
+        assertThrows(() -> BizExceptionEnum.SYSTEM_ERROR.notEmpty(Collections.emptyMap()));
+    }
+
+    private void assertThrows(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail();
+        } catch (BizException e) {
+            Assert.assertEquals(BizExceptionEnum.SYSTEM_ERROR.getCode(), e.getCode());
+        }
+    }
+
+    @Getter
+    private enum TestBizExceptionEnum implements BizExceptionAssert {
+
+        STACKLESS(200000L, "{0} 不能为空") {
+            @Override
+            public boolean isStackless() {
+                return true;
+            }
+        },
+
+        CACHED(200001L, "参数不合法") {
+            private final BizException cachedException = new ImmutableBizException(200001L, "参数不合法");
+
+            @Override
+            public BizException getCachedException() {
+                return cachedException;
+            }
+        };
+
+        private final Long code;
+
+        private final String message;
+
+        TestBizExceptionEnum(Long code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Locale;
+
+/**
+ * <p>description : BizExceptionRegistryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/10 11:20
+ */
+public class BizExceptionRegistryTest {
+
+    @Test
+    public void testGetByCode() {
+        BizExceptionRegistry registry = new BizExceptionRegistry();
+        registry.register(BizExceptionEnum.class);
+        registry.register(BizExceptionEnum.class);
+        Assert.assertSame(BizExceptionEnum.SYSTEM_ERROR, registry.get(100000L));
+        Assert.assertNull(registry.get(1L));
+        Assert.assertEquals(1, registry.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateCode() {
+        BizExceptionRegistry registry = new BizExceptionRegistry();
+        registry.register(BizExceptionEnum.class);
+        registry.register(DuplicateBizExceptionEnum.class);
+    }
+
+    @Test
+    public void testLocaleMessage() {
+        BizExceptionRegistry registry = new BizExceptionRegistry("i18n/biz_messages", null);
+        registry.register(BizExceptionEnum.class);
+        BizException exception = BizExceptionEnum.SYSTEM_ERROR.newException("retry later");
+        Assert.assertEquals("System error, retry later", registry.getMessage(exception, Locale.ENGLISH));
+        Assert.assertEquals("系统内部异常", registry.getMessage(exception, Locale.CHINA));
+        Assert.assertSame(registry.getMessageTemplate(100000L, Locale.ENGLISH), registry.getMessageTemplate(100000L, Locale.ENGLISH));
+    }
+
+    @Test
+    public void testLongObjectHashMap() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long i = -1000; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+        Assert.assertEquals(2000, map.size());
+        for (long i = -1000; i < 1000; i++) {
+            Assert.assertEquals(Long.valueOf(i), map.get(i * 31));
+        }
+        Assert.assertNull(map.get(7));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private enum DuplicateBizExceptionEnum implements BizExceptionAssert {
+
+        DUPLICATE(100000L, "重复的错误码");
+
+        private final Long code;
+
+        private final String message;
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.github.lushstar.ladder.commons.exceptions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.MessageFormat;
+import java.util.Date;
+
+/**
+ * <p>description : BizMessageTemplateTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/7 15:02
+ */
+public class BizMessageTemplateTest {
+
+    @Test
+    public void testSameAsMessageFormat() {
+        assertSameAsMessageFormat("系统内部异常");
+        assertSameAsMessageFormat("{0} 不能为空", "name");
+        assertSameAsMessageFormat("{0} 和 {1} 不匹配, 期望 {0}", "a", null);
+        assertSameAsMessageFormat("缺少入参 {2}", "a");
+        assertSameAsMessageFormat("It''s '{0}' {0}", "x");
+        assertSameAsMessageFormat("数量 {0} 超过上限", 12345);
+        assertSameAsMessageFormat("时间 {0}", new Date(0));
+        assertSameAsMessageFormat("金额 {0,number,#.##}", 1.2345);
+        assertSameAsMessageFormat("{0} 不能为空");
+    }
+
+    @Test
+    public void testConstant() {
+        Assert.assertTrue(BizMessageTemplate.of("系统内部异常").isConstant());
+        Assert.assertFalse(BizMessageTemplate.of("{0} 不能为空").isConstant());
+        Assert.assertSame(BizMessageTemplate.of("系统内部异常"), BizMessageTemplate.of("系统内部异常"));
+    }
+
+    @Test
+    public void testLazyMessage() {
+        StringBuilder arg = new StringBuilder("before");
+        BizException exception = new BizException(1L, BizMessageTemplate.of("{0}"), new Object[]{arg}, false);
+        arg.append("-after");
+        Assert.assertEquals("before-after", exception.getMessage());
+        Assert.assertEquals(exception.getMessage(), exception.getLocalizedMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalPattern() {
+        BizMessageTemplate.of("{0 不能为空");
+    }
+
+    private void assertSameAsMessageFormat(String pattern, Object... args) {
+        Assert.assertEquals(MessageFormat.format(pattern, args), BizMessageTemplate.of(pattern).format(args));
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionAssert;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>description : BizExceptionAssertScanner，扫描指定包下实现了 {@link BizExceptionAssert} 的枚举
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/10 14:02
+ */
+public class BizExceptionAssertScanner extends ClassPathScanningCandidateComponentProvider {
+
+    private final ClassLoader classLoader;
+
+    public BizExceptionAssertScanner(ClassLoader classLoader) {
+        super(false);
+        this.classLoader = classLoader;
+        this.addIncludeFilter(new AssignableTypeFilter(BizExceptionAssert.class));
+    }
+
+    /**
+     * 扫描枚举
+     *
+     * @param basePackages 扫描的包
+     * @return 实现了 {@link BizExceptionAssert} 的枚举
+     */
+    @SuppressWarnings("unchecked")
+    public List<Class<? extends BizExceptionAssert>> scan(List<String> basePackages) {
+        List<Class<? extends BizExceptionAssert>> enumClasses = new ArrayList<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition beanDefinition : this.findCandidateComponents(basePackage)) {
+                Class<?> clazz = ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), classLoader);
+                if (clazz.isEnum()) {
+                    enumClasses.add((Class<? extends BizExceptionAssert>) clazz);
+                }
+            }
+        }
+        return enumClasses;
+    }
+
+    @Override
+    protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+        // 只要枚举本身, 带方法体的枚举常量会编译成匿名子类, 这里排除掉
+        return Enum.class.getName().equals(beanDefinition.getMetadata().getSuperClassName());
+    }
+
+}
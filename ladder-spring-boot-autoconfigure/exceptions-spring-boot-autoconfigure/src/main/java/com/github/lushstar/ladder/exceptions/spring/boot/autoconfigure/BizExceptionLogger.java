@@ -0,0 +1,212 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>description : BizExceptionLogger，按错误 code 控制业务异常的日志级别、堆栈以及采样
+ * 开启采样后, 同一个错误 code 在一个窗口内只完整打印前 permits 条, 剩余的在窗口结束后汇总成一条：
+ * code X occurred N times in the last window, 避免下游故障时日志刷盘成为瓶颈
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/8 10:20
+ */
+public class BizExceptionLogger implements Closeable {
+
+    /**
+     * 沿用 LadderExceptionsControllerAdvice 的 logger, 保持原有的日志配置生效
+     */
+    private static final Logger log = LoggerFactory.getLogger(LadderExceptionsControllerAdvice.class);
+
+    /**
+     * code 为空时使用的 key
+     */
+    private static final Long NULL_CODE = Long.MIN_VALUE;
+
+    private final LadderExceptionsProperties properties;
+
+    private final ConcurrentMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 当前时间 ms, 测试时替换成可控的时钟
+     */
+    private final LongSupplier clock;
+
+    public BizExceptionLogger(LadderExceptionsProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    BizExceptionLogger(LadderExceptionsProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        LadderExceptionsProperties.LogSample logSample = properties.getLogSample();
+        if (logSample.isEnabled()) {
+            // 没有新的异常时也要按时输出上一个窗口的汇总
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ladder-exceptions-log-sample");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::flush, logSample.getWindowMillis(),
+                    logSample.getWindowMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * 打印业务异常
+     *
+     * @param bizException {@link BizException}
+     */
+    public void log(BizException bizException) {
+        Long code = bizException.getCode();
+        LogLevel level = this.getLogLevel(code);
+        if (level == LogLevel.OFF || !isEnabled(level)) {
+            return;
+        }
+        if (scheduler != null && !this.acquire(code == null ? NULL_CODE : code, level)) {
+            return;
+        }
+        if (this.isPrintStackTrace(code)) {
+            write(level, bizException.getMessage(), bizException);
+        } else {
+            write(level, "code [" + code + "] " + bizException.getMessage(), null);
+        }
+    }
+
+    /**
+     * 输出所有已经结束的窗口的汇总
+     */
+    public void flush() {
+        long now = clock.getAsLong();
+        for (Map.Entry<Long, Window> entry : windows.entrySet()) {
+            entry.getValue().rollIfExpired(entry.getKey(), now);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            // 关闭前把还没有输出的汇总打印出来
+            for (Map.Entry<Long, Window> entry : windows.entrySet()) {
+                entry.getValue().roll(entry.getKey(), clock.getAsLong());
+            }
+        }
+    }
+
+    private boolean acquire(Long code, LogLevel level) {
+        Window window = windows.get(code);
+        if (window == null) {
+            window = new Window(level, clock.getAsLong());
+            Window previous = windows.putIfAbsent(code, window);
+            if (previous != null) {
+                window = previous;
+            }
+        }
+        window.rollIfExpired(code, clock.getAsLong());
+        // 只用一个计数器: 窗口内前 permits 次放行, 打印的条数就是 min(occurred, permits), 与窗口切换并发时也不会错位
+        return window.occurred.incrementAndGet() <= properties.getLogSample().getPermits();
+    }
+
+    private LogLevel getLogLevel(Long code) {
+        LogLevel level = code == null ? null : properties.getCodeLogLevels().get(code);
+        return level == null ? properties.getLogLevel() : level;
+    }
+
+    private boolean isPrintStackTrace(Long code) {
+        return properties.isPrintStackTrace() && (code == null || !properties.getStacklessCodes().contains(code));
+    }
+
+    private static boolean isEnabled(LogLevel level) {
+        switch (level) {
+            case TRACE:
+                return log.isTraceEnabled();
+            case DEBUG:
+                return log.isDebugEnabled();
+            case INFO:
+                return log.isInfoEnabled();
+            case WARN:
+                return log.isWarnEnabled();
+            default:
+                return log.isErrorEnabled();
+        }
+    }
+
+    private static void write(LogLevel level, String message, Throwable throwable) {
+        switch (level) {
+            case TRACE:
+                log.trace(message, throwable);
+                break;
+            case DEBUG:
+                log.debug(message, throwable);
+                break;
+            case INFO:
+                log.info(message, throwable);
+                break;
+            case WARN:
+                log.warn(message, throwable);
+                break;
+            default:
+                log.error(message, throwable);
+                break;
+        }
+    }
+
+    /**
+     * 单个错误 code 的统计窗口
+     */
+    private class Window {
+
+        private final LogLevel level;
+
+        private final AtomicLong occurred = new AtomicLong();
+
+        private volatile long start;
+
+        private Window(LogLevel level, long start) {
+            this.level = level;
+            this.start = start;
+        }
+
+        private void rollIfExpired(Long code, long now) {
+            if (now - start >= properties.getLogSample().getWindowMillis()) {
+                synchronized (this) {
+                    if (now - start >= properties.getLogSample().getWindowMillis()) {
+                        this.roll(code, now);
+                    }
+                }
+            }
+        }
+
+        private synchronized void roll(Long code, long now) {
+            long total = occurred.getAndSet(0);
+            long suppressed = total - Math.min(total, properties.getLogSample().getPermits());
+            if (suppressed > 0) {
+                write(level, "BizException code [" + (NULL_CODE.equals(code) ? null : code) + "] occurred " + total
+                        + " times in the last " + (now - start) + " ms, " + suppressed + " of them were not logged", null);
+            }
+            start = now;
+        }
+
+    }
+
+}
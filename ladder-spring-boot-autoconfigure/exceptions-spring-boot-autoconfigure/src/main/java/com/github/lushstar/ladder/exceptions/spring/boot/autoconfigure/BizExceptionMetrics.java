@@ -0,0 +1,24 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+
+/**
+ * <p>description : BizExceptionMetrics，业务异常统计, 由 {@link LadderExceptionsControllerAdvice} 在处理完每个异常后调用
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/13 10:10
+ */
+public interface BizExceptionMetrics {
+
+    /**
+     * 记录一次业务异常
+     *
+     * @param bizException {@link BizException}
+     * @param handlerNanos 异常处理器内的耗时, 从进入 ControllerAdvice 到响应体准备完成, 不包含异常创建到进入处理器以及写出响应的时间, 单位纳秒
+     */
+    void record(BizException bizException, long handlerNanos);
+
+}
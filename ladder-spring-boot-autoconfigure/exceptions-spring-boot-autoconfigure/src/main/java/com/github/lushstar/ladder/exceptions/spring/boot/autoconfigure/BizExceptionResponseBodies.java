@@ -0,0 +1,117 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>description : BizExceptionResponseBodies，业务异常响应体编码
+ * 直接编码成 {"code":xxx,"message":"xxx"} 的 UTF-8 字节, 不再经过 Map 和 Jackson 序列化；
+ * 每个错误 code 缓存第一次出现的 message 对应的字节, 之后 message 相同时直接复用
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/9 11:15
+ */
+public class BizExceptionResponseBodies {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ConcurrentMap<Long, CachedBody> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取响应体, 返回的字节数组是共享的, 调用方不能修改
+     *
+     * @param code    错误 code
+     * @param message 错误 message
+     * @return JSON 格式的 UTF-8 字节
+     */
+    public byte[] getBody(Long code, String message) {
+        if (code == null || message == null) {
+            return encode(code, message);
+        }
+        CachedBody cached = cache.get(code);
+        if (cached != null && cached.message.equals(message)) {
+            return cached.body;
+        }
+        byte[] body = encode(code, message);
+        if (cached == null) {
+            // 每个 code 只缓存一份, 带动态入参的 message 不会撑大缓存
+            cache.putIfAbsent(code, new CachedBody(message, body));
+        }
+        return body;
+    }
+
+    /**
+     * 编码响应体
+     *
+     * @param code    错误 code
+     * @param message 错误 message
+     * @return JSON 格式的 UTF-8 字节
+     */
+    public static byte[] encode(Long code, String message) {
+        StringBuilder builder = new StringBuilder(32 + (message == null ? 4 : message.length() + 8));
+        builder.append("{\"code\":").append(code).append(",\"message\":");
+        if (message == null) {
+            builder.append("null");
+        } else {
+            builder.append('"');
+            appendEscaped(builder, message);
+            builder.append('"');
+        }
+        builder.append('}');
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendEscaped(StringBuilder builder, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        builder.append("\\u00").append(HEX[ch >> 4]).append(HEX[ch & 0xF]);
+                    } else {
+                        builder.append(ch);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static class CachedBody {
+
+        private final String message;
+
+        private final byte[] body;
+
+        private CachedBody(String message, byte[] body) {
+            this.message = message;
+            this.body = body;
+        }
+
+    }
+
+}
@@ -1,7 +1,18 @@
 package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
 
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionAssert;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionEnum;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
 
 /**
  * <p>description : LadderExceptionsAutoConfiguration
@@ -13,11 +24,59 @@ import org.springframework.context.annotation.Configuration;
  * @date : 2020/6/22 19:38
  */
 @Configuration
+@EnableConfigurationProperties({LadderExceptionsProperties.class})
+@Slf4j
 public class LadderExceptionsAutoConfiguration {
 
+    @Configuration
+    @ConditionalOnClass({MeterRegistry.class})
+    @ConditionalOnProperty(prefix = "ladder.exceptions", name = "metrics-enabled", havingValue = "true", matchIfMissing = true)
+    public static class BizExceptionMetricsConfig {
+        /**
+         * 作为 MeterBinder 由 Spring Boot 绑定到容器中的 MeterRegistry
+         *
+         * @param bizExceptionRegistry {@link BizExceptionRegistry}
+         * @return {@link MicrometerBizExceptionMetrics}
+         */
+        @Bean
+        @ConditionalOnMissingBean(BizExceptionMetrics.class)
+        public MicrometerBizExceptionMetrics micrometerBizExceptionMetrics(ObjectProvider<BizExceptionRegistry> bizExceptionRegistry) {
+            return new MicrometerBizExceptionMetrics(bizExceptionRegistry.getIfAvailable());
+        }
+    }
+
+    /**
+     * 启动时注册所有的异常枚举, 错误 code 重复时启动失败
+     *
+     * @param ladderExceptionsProperties {@link LadderExceptionsProperties}
+     * @return {@link BizExceptionRegistry}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BizExceptionRegistry bizExceptionRegistry(LadderExceptionsProperties ladderExceptionsProperties) {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        BizExceptionRegistry registry = new BizExceptionRegistry(ladderExceptionsProperties.getMessageBasename(), classLoader);
+        registry.register(BizExceptionEnum.class);
+        for (Class<? extends BizExceptionAssert> enumClass : new BizExceptionAssertScanner(classLoader)
+                .scan(ladderExceptionsProperties.getScanPackages())) {
+            registry.register(enumClass);
+        }
+        log.info("BizExceptionRegistry has registered {} error codes", registry.size());
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BizExceptionLogger bizExceptionLogger(LadderExceptionsProperties ladderExceptionsProperties) {
+        return new BizExceptionLogger(ladderExceptionsProperties);
+    }
+
     @Bean
-    public LadderExceptionsControllerAdvice ladderExceptionsControllerAdvice(){
-        return new LadderExceptionsControllerAdvice();
+    public LadderExceptionsControllerAdvice ladderExceptionsControllerAdvice(BizExceptionLogger bizExceptionLogger,
+                                                                             ObjectProvider<BizExceptionRegistry> bizExceptionRegistry,
+                                                                             ObjectProvider<BizExceptionMetrics> bizExceptionMetrics) {
+        return new LadderExceptionsControllerAdvice(bizExceptionLogger, new BizExceptionResponseBodies(),
+                bizExceptionRegistry.getIfAvailable(), bizExceptionMetrics.getIfAvailable());
     }
 
 }
@@ -1,10 +1,16 @@
 package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
 
 import com.github.lushstar.ladder.commons.exceptions.BizException;
-import lombok.extern.slf4j.Slf4j;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionRegistry;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,17 +25,120 @@ import java.util.Map;
  * @date : 2020/6/22 19:42
  */
 @ControllerAdvice
-@Slf4j
 public class LadderExceptionsControllerAdvice {
 
+    /**
+     * 响应头是固定的, 所有响应共用一份只读的
+     */
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private final BizExceptionLogger bizExceptionLogger;
+
+    private final BizExceptionResponseBodies bizExceptionResponseBodies;
+
+    private final BizExceptionRegistry bizExceptionRegistry;
+
+    private final BizExceptionMetrics bizExceptionMetrics;
+
+    public LadderExceptionsControllerAdvice() {
+        this(new BizExceptionLogger(new LadderExceptionsProperties()));
+    }
+
+    public LadderExceptionsControllerAdvice(BizExceptionLogger bizExceptionLogger) {
+        this(bizExceptionLogger, new BizExceptionResponseBodies());
+    }
+
+    public LadderExceptionsControllerAdvice(BizExceptionLogger bizExceptionLogger,
+                                            BizExceptionResponseBodies bizExceptionResponseBodies) {
+        this(bizExceptionLogger, bizExceptionResponseBodies, null);
+    }
+
+    /**
+     * @param bizExceptionLogger         {@link BizExceptionLogger}
+     * @param bizExceptionResponseBodies {@link BizExceptionResponseBodies}
+     * @param bizExceptionRegistry       配置了国际化资源文件时按请求的 Locale 渲染 message, 可以为 null
+     */
+    public LadderExceptionsControllerAdvice(BizExceptionLogger bizExceptionLogger,
+                                            BizExceptionResponseBodies bizExceptionResponseBodies,
+                                            BizExceptionRegistry bizExceptionRegistry) {
+        this(bizExceptionLogger, bizExceptionResponseBodies, bizExceptionRegistry, null);
+    }
+
+    /**
+     * @param bizExceptionLogger         {@link BizExceptionLogger}
+     * @param bizExceptionResponseBodies {@link BizExceptionResponseBodies}
+     * @param bizExceptionRegistry       配置了国际化资源文件时按请求的 Locale 渲染 message, 可以为 null
+     * @param bizExceptionMetrics        业务异常统计, 可以为 null
+     */
+    public LadderExceptionsControllerAdvice(BizExceptionLogger bizExceptionLogger,
+                                            BizExceptionResponseBodies bizExceptionResponseBodies,
+                                            BizExceptionRegistry bizExceptionRegistry,
+                                            BizExceptionMetrics bizExceptionMetrics) {
+        this.bizExceptionLogger = bizExceptionLogger;
+        this.bizExceptionResponseBodies = bizExceptionResponseBodies;
+        this.bizExceptionRegistry = bizExceptionRegistry;
+        this.bizExceptionMetrics = bizExceptionMetrics;
+    }
+
+    /**
+     * 响应体为 {"code":xxx,"message":"xxx"}, 接受 JSON 时由 ByteArrayHttpMessageConverter 直接写出,
+     * 否则返回 Map, 按 Accept 交给 HttpMessageConverter 协商
+     *
+     * @param bizException {@link BizException}
+     * @param request      {@link NativeWebRequest}
+     * @return {@link ResponseEntity}
+     */
     @ExceptionHandler(BizException.class)
-    @ResponseBody
-    public Map<String, Object> bizExceptionHandler(BizException bizException) {
-        log.error(bizException.getMessage(), bizException);
-        Map<String, Object> result = new HashMap<>(10);
-        result.put("code", bizException.getCode());
-        result.put("message", bizException.getMessage());
-        return result;
+    public ResponseEntity<?> bizExceptionHandler(BizException bizException, NativeWebRequest request) {
+        // 只统计处理器内的耗时(日志、message、响应体), 只有开启统计时才读取时间
+        long start = bizExceptionMetrics != null ? System.nanoTime() : 0L;
+        bizExceptionLogger.log(bizException);
+        String message = bizExceptionRegistry != null && bizExceptionRegistry.isLocalized()
+                ? bizExceptionRegistry.getMessage(bizException, LocaleContextHolder.getLocale())
+                : bizException.getMessage();
+        ResponseEntity<?> response;
+        if (acceptsJson(request.getHeaderValues(HttpHeaders.ACCEPT))) {
+            byte[] body = bizExceptionResponseBodies.getBody(bizException.getCode(), message);
+            response = new ResponseEntity<>(body, JSON_HEADERS, HttpStatus.OK);
+        } else {
+            Map<String, Object> result = new HashMap<>(4);
+            result.put("code", bizException.getCode());
+            result.put("message", message);
+            response = new ResponseEntity<>(result, HttpStatus.OK);
+        }
+        if (bizExceptionMetrics != null) {
+            bizExceptionMetrics.record(bizException, System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    /**
+     * @param accepts 请求头中的 Accept
+     * @return 没有 Accept 或者 Accept 包含 application/json 时返回 true
+     */
+    private static boolean acceptsJson(String[] accepts) {
+        if (accepts == null || accepts.length == 0) {
+            return true;
+        }
+        try {
+            for (String accept : accepts) {
+                for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                    if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // 无法解析时和原来一样直接返回 JSON
+            return true;
+        }
+        return false;
     }
 
 }
@@ -0,0 +1,87 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.logging.LogLevel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>description : LadderExceptionsProperties
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/8 10:05
+ */
+@ConfigurationProperties(prefix = "ladder.exceptions")
+@Data
+public class LadderExceptionsProperties {
+
+    /**
+     * 业务异常默认的日志级别
+     */
+    private LogLevel logLevel = LogLevel.ERROR;
+
+    /**
+     * 按错误 code 指定日志级别, 如 ladder.exceptions.code-log-levels.100000=warn, 设置为 off 表示不打印
+     */
+    private Map<Long, LogLevel> codeLogLevels = new HashMap<>();
+
+    /**
+     * 是否打印异常堆栈
+     */
+    private boolean printStackTrace = true;
+
+    /**
+     * 不打印异常堆栈的错误 code, 适用于参数校验等预期内的异常
+     */
+    private Set<Long> stacklessCodes = new HashSet<>();
+
+    /**
+     * 扫描 BizExceptionAssert 枚举的包, 启动时注册到 BizExceptionRegistry 并检查错误 code 是否重复
+     */
+    private List<String> scanPackages = new ArrayList<>();
+
+    /**
+     * 异常信息国际化资源文件, 如 i18n/biz_messages, 资源文件的 key 为错误 code, 为空时不做国际化
+     */
+    private String messageBasename;
+
+    /**
+     * 是否开启业务异常统计, 需要引入 micrometer
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * 日志采样配置
+     */
+    private LogSample logSample = new LogSample();
+
+    @Data
+    public static class LogSample {
+
+        /**
+         * 是否开启日志采样, 开启后同一个错误 code 在一个窗口内只打印前 permits 条日志, 其余的在窗口结束后汇总打印一条
+         */
+        private boolean enabled = false;
+
+        /**
+         * 统计窗口 60s
+         */
+        private long windowMillis = 60000;
+
+        /**
+         * 每个错误 code 在一个窗口内完整打印的日志条数
+         */
+        private int permits = 10;
+
+    }
+
+}
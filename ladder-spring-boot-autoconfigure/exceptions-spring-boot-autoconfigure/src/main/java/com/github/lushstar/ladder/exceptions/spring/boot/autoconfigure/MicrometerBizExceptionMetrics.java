@@ -0,0 +1,159 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionAssert;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionCounter;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionRegistry;
+import com.github.lushstar.ladder.commons.exceptions.LongObjectHashMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>description : MicrometerBizExceptionMetrics，基于 Micrometer 的业务异常统计
+ * 每个错误 code 对应一个 FunctionCounter, 计数为该 code 下所有计数器之和：枚举持有的 {@link BizExceptionAssert#getCounter()}
+ * 以及按 code 查找时使用的 {@link LongAdder}; {@link BizExceptionRegistry} 中的枚举在启动时绑定,
+ * 之后由枚举创建的异常只比较一次 {@link BizExceptionCounter#getBinder()} 就直接自增, 不需要查找,
+ * 其余异常按基本类型 long 查找, 都不会创建 Tag 也不会查询 MeterRegistry
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/13 10:25
+ */
+public class MicrometerBizExceptionMetrics implements BizExceptionMetrics, MeterBinder {
+
+    private static final String COUNTER_NAME = "ladder.biz.exceptions";
+
+    private static final String TIMER_NAME = "ladder.biz.exceptions.handler";
+
+    /**
+     * code 为空的异常单独计数
+     */
+    private final CodeCounter nullCodeCounter = new CodeCounter();
+
+    private final List<MeterRegistry> meterRegistries = new ArrayList<>();
+
+    /**
+     * 已经创建计数器的 code, 用于绑定 MeterRegistry
+     */
+    private final List<Long> codes = new ArrayList<>();
+
+    private volatile LongObjectHashMap<CodeCounter> counters = new LongObjectHashMap<>();
+
+    private volatile Timer timer;
+
+    public MicrometerBizExceptionMetrics(BizExceptionRegistry bizExceptionRegistry) {
+        if (bizExceptionRegistry != null) {
+            for (BizExceptionAssert bizExceptionAssert : bizExceptionRegistry.getAll()) {
+                this.bindCounter(bizExceptionAssert.getCode(), bizExceptionAssert.getCounter());
+            }
+        }
+    }
+
+    @Override
+    public void record(BizException bizException, long handlerNanos) {
+        Long code = bizException.getCode();
+        BizExceptionAssert source = bizException.getSource();
+        BizExceptionCounter sourceCounter = source != null && code != null && code.equals(source.getCode()) ? source.getCounter() : null;
+        if (sourceCounter != null) {
+            // 没有注册的枚举第一次出现时绑定, 之后只比较引用
+            if (sourceCounter.getBinder() != this) {
+                this.bindCounter(code, sourceCounter);
+            }
+            sourceCounter.increment();
+        } else if (code == null) {
+            nullCodeCounter.counter.increment();
+        } else {
+            CodeCounter codeCounter = counters.get(code);
+            if (codeCounter == null) {
+                codeCounter = this.bindCounter(code, null);
+            }
+            codeCounter.counter.increment();
+        }
+        Timer timer = this.timer;
+        if (timer != null) {
+            timer.record(handlerNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        meterRegistries.add(registry);
+        bindCounter(registry, "null", nullCodeCounter);
+        LongObjectHashMap<CodeCounter> current = counters;
+        for (Long code : codes) {
+            bindCounter(registry, code.toString(), current.get(code));
+        }
+        // 多个 MeterRegistry 时只有最后一个会记录耗时, Spring Boot 默认只有一个 CompositeMeterRegistry
+        this.timer = Timer.builder(TIMER_NAME)
+                .description("time spent in the BizException handler logging the exception and preparing the response body, "
+                        + "excluding the time before the handler is invoked and writing the response")
+                .register(registry);
+    }
+
+    /**
+     * 返回 code 对应的计数器, 第一次出现的 code 创建计数器并绑定到已有的 MeterRegistry
+     *
+     * @param code          错误 code
+     * @param sourceCounter 枚举持有的计数器, 加入该 code 的计数, 可以为 null
+     * @return 该 code 对应的计数器
+     */
+    private synchronized CodeCounter bindCounter(long code, BizExceptionCounter sourceCounter) {
+        CodeCounter codeCounter = counters.get(code);
+        if (codeCounter == null) {
+            codeCounter = new CodeCounter();
+            LongObjectHashMap<CodeCounter> copy = counters.copy();
+            copy.put(code, codeCounter);
+            codes.add(code);
+            for (MeterRegistry registry : meterRegistries) {
+                bindCounter(registry, Long.toString(code), codeCounter);
+            }
+            counters = copy;
+        }
+        if (sourceCounter != null) {
+            // code 重复的多个枚举都计入同一个 code
+            codeCounter.sourceCounters.addIfAbsent(sourceCounter);
+            sourceCounter.setBinder(this);
+        }
+        return codeCounter;
+    }
+
+    private static void bindCounter(MeterRegistry registry, String code, CodeCounter codeCounter) {
+        FunctionCounter.builder(COUNTER_NAME, codeCounter, CodeCounter::count)
+                .description("number of BizException handled")
+                .tag("code", code)
+                .register(registry);
+    }
+
+    /**
+     * 单个错误 code 的计数, 只在 MeterRegistry 读取时求和
+     */
+    private static class CodeCounter {
+
+        /**
+         * 没有枚举计数器的异常按 code 查找后使用
+         */
+        private final LongAdder counter = new LongAdder();
+
+        private final CopyOnWriteArrayList<BizExceptionCounter> sourceCounters = new CopyOnWriteArrayList<>();
+
+        private double count() {
+            long count = counter.sum();
+            for (BizExceptionCounter sourceCounter : sourceCounters) {
+                count += sourceCounter.sum();
+            }
+            return count;
+        }
+
+    }
+
+}
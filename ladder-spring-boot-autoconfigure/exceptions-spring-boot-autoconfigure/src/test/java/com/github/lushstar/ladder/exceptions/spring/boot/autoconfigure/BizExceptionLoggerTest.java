@@ -0,0 +1,236 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>description : BizExceptionLoggerTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/8 15:30
+ */
+public class BizExceptionLoggerTest {
+
+    private static final long WINDOW = 60000;
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private final LadderExceptionsProperties properties = new LadderExceptionsProperties();
+
+    private Logger logger;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private BizExceptionLogger bizExceptionLogger;
+
+    @Before
+    public void setUp() {
+        logger = (Logger) LoggerFactory.getLogger(LadderExceptionsControllerAdvice.class);
+        logger.setLevel(Level.TRACE);
+        logger.setAdditive(false);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() {
+        if (bizExceptionLogger != null) {
+            bizExceptionLogger.close();
+        }
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+        logger.setAdditive(true);
+    }
+
+    @Test
+    public void testCodeLogLevels() {
+        properties.getCodeLogLevels().put(1L, LogLevel.WARN);
+        properties.getCodeLogLevels().put(2L, LogLevel.OFF);
+        BizExceptionLogger bizExceptionLogger = this.create();
+        bizExceptionLogger.log(new BizException(1L, "warn"));
+        bizExceptionLogger.log(new BizException(2L, "off"));
+        bizExceptionLogger.log(new BizException(3L, "default"));
+        bizExceptionLogger.log(new BizException(null, "null code"));
+        Assert.assertEquals(3, appender.list.size());
+        Assert.assertEquals(Level.WARN, appender.list.get(0).getLevel());
+        Assert.assertEquals(Level.ERROR, appender.list.get(1).getLevel());
+        Assert.assertEquals(Level.ERROR, appender.list.get(2).getLevel());
+    }
+
+    @Test
+    public void testDisabledLevelNotLogged() {
+        properties.getCodeLogLevels().put(1L, LogLevel.DEBUG);
+        logger.setLevel(Level.INFO);
+        this.create().log(new BizException(1L, "debug"));
+        Assert.assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    public void testStacklessCodes() {
+        properties.getStacklessCodes().add(1L);
+        BizExceptionLogger bizExceptionLogger = this.create();
+        bizExceptionLogger.log(new BizException(1L, "stackless"));
+        bizExceptionLogger.log(new BizException(2L, "with stack"));
+        Assert.assertEquals("code [1] stackless", appender.list.get(0).getFormattedMessage());
+        Assert.assertNull(appender.list.get(0).getThrowableProxy());
+        Assert.assertEquals("with stack", appender.list.get(1).getFormattedMessage());
+        Assert.assertNotNull(appender.list.get(1).getThrowableProxy());
+    }
+
+    @Test
+    public void testPrintStackTraceDisabled() {
+        properties.setPrintStackTrace(false);
+        this.create().log(new BizException(2L, "no stack"));
+        Assert.assertEquals("code [2] no stack", appender.list.get(0).getFormattedMessage());
+        Assert.assertNull(appender.list.get(0).getThrowableProxy());
+    }
+
+    @Test
+    public void testSampling() {
+        BizExceptionLogger bizExceptionLogger = this.sampling(2);
+        for (int i = 0; i < 5; i++) {
+            bizExceptionLogger.log(new BizException(1L, "sampled"));
+        }
+        bizExceptionLogger.log(new BizException(2L, "other code"));
+        Assert.assertEquals(3, appender.list.size());
+
+        // 窗口还没有结束
+        clock.addAndGet(WINDOW - 1);
+        bizExceptionLogger.flush();
+        Assert.assertEquals(3, appender.list.size());
+
+        clock.addAndGet(1);
+        bizExceptionLogger.flush();
+        Assert.assertEquals(Collections.singletonList("BizException code [1] occurred 5 times in the last 60000 ms, 3 of them were not logged"),
+                this.summaries());
+
+        // 新窗口重新放行 permits 条, 没有被丢弃的日志时不输出汇总
+        appender.list.clear();
+        bizExceptionLogger.log(new BizException(1L, "sampled"));
+        bizExceptionLogger.log(new BizException(1L, "sampled"));
+        clock.addAndGet(WINDOW);
+        bizExceptionLogger.flush();
+        Assert.assertEquals(2, appender.list.size());
+        Assert.assertTrue(this.summaries().isEmpty());
+    }
+
+    @Test
+    public void testWindowRolledByNextException() {
+        BizExceptionLogger bizExceptionLogger = this.sampling(1);
+        bizExceptionLogger.log(new BizException(1L, "first"));
+        bizExceptionLogger.log(new BizException(1L, "second"));
+        clock.addAndGet(WINDOW + 500);
+        bizExceptionLogger.log(new BizException(1L, "third"));
+        List<String> messages = this.messages();
+        Assert.assertEquals(3, messages.size());
+        Assert.assertEquals("first", messages.get(0));
+        Assert.assertEquals("BizException code [1] occurred 2 times in the last 60500 ms, 1 of them were not logged", messages.get(1));
+        Assert.assertEquals("third", messages.get(2));
+    }
+
+    @Test
+    public void testSummaryUsesCodeLogLevel() {
+        properties.getCodeLogLevels().put(1L, LogLevel.WARN);
+        BizExceptionLogger bizExceptionLogger = this.sampling(1);
+        bizExceptionLogger.log(new BizException(1L, "first"));
+        bizExceptionLogger.log(new BizException(1L, "second"));
+        clock.addAndGet(WINDOW);
+        bizExceptionLogger.flush();
+        Assert.assertEquals(Level.WARN, appender.list.get(1).getLevel());
+    }
+
+    @Test
+    public void testCloseFlushesPendingSummary() {
+        BizExceptionLogger bizExceptionLogger = this.sampling(1);
+        bizExceptionLogger.log(new BizException(null, "first"));
+        bizExceptionLogger.log(new BizException(null, "second"));
+        clock.addAndGet(10);
+        bizExceptionLogger.close();
+        Assert.assertEquals(Collections.singletonList("BizException code [null] occurred 2 times in the last 10 ms, 1 of them were not logged"),
+                this.summaries());
+    }
+
+    @Test
+    public void testConcurrentSampling() throws InterruptedException {
+        int threads = 8;
+        int times = 1000;
+        BizExceptionLogger bizExceptionLogger = this.sampling(10);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < times; j++) {
+                    bizExceptionLogger.log(new BizException(1L, "concurrent"));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertEquals(10, appender.list.size());
+        clock.addAndGet(WINDOW);
+        bizExceptionLogger.flush();
+        Assert.assertEquals(Collections.singletonList("BizException code [1] occurred " + threads * times
+                + " times in the last 60000 ms, " + (threads * times - 10) + " of them were not logged"), this.summaries());
+    }
+
+    private BizExceptionLogger sampling(int permits) {
+        properties.setPrintStackTrace(false);
+        properties.getLogSample().setEnabled(true);
+        properties.getLogSample().setWindowMillis(WINDOW);
+        properties.getLogSample().setPermits(permits);
+        return this.create();
+    }
+
+    private BizExceptionLogger create() {
+        bizExceptionLogger = new BizExceptionLogger(properties, clock::get);
+        return bizExceptionLogger;
+    }
+
+    private List<String> messages() {
+        List<String> messages = new ArrayList<>();
+        for (ILoggingEvent event : appender.list) {
+            messages.add(event.getFormattedMessage().replaceFirst("^code \\[\\w+] ", ""));
+        }
+        return messages;
+    }
+
+    private List<String> summaries() {
+        List<String> summaries = new ArrayList<>();
+        for (String message : this.messages()) {
+            if (message.startsWith("BizException code")) {
+                summaries.add(message);
+            }
+        }
+        return summaries;
+    }
+
+}
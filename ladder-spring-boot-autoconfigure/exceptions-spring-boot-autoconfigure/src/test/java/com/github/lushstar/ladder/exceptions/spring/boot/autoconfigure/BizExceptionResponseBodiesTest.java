@@ -0,0 +1,67 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>description : BizExceptionResponseBodiesTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/9 15:00
+ */
+public class BizExceptionResponseBodiesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BizExceptionResponseBodies bodies = new BizExceptionResponseBodies();
+
+    @Test
+    public void testEncode() {
+        Assert.assertEquals("{\"code\":100,\"message\":\"参数错误\"}",
+                new String(BizExceptionResponseBodies.encode(100L, "参数错误"), StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"code\":null,\"message\":null}",
+                new String(BizExceptionResponseBodies.encode(null, null), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEscape() throws IOException {
+        String message = "quote \" backslash \\ slash / newline \n return \r tab \t backspace \b formfeed \f control \u0001\u001f 中文 😀";
+        JsonNode node = objectMapper.readTree(BizExceptionResponseBodies.encode(100L, message));
+        Assert.assertEquals(100L, node.get("code").asLong());
+        Assert.assertEquals(message, node.get("message").asText());
+        Assert.assertTrue(new String(BizExceptionResponseBodies.encode(100L, "\u0001"), StandardCharsets.UTF_8).contains("\\u0001"));
+    }
+
+    @Test
+    public void testCachedPerCode() {
+        byte[] body = bodies.getBody(100L, "参数错误");
+        Assert.assertSame(body, bodies.getBody(100L, "参数错误"));
+        Assert.assertNotSame(body, bodies.getBody(200L, "参数错误"));
+    }
+
+    @Test
+    public void testDynamicMessageNotCached() throws IOException {
+        byte[] first = bodies.getBody(100L, "id 1 不存在");
+        byte[] second = bodies.getBody(100L, "id 2 不存在");
+        Assert.assertEquals("id 2 不存在", objectMapper.readTree(second).get("message").asText());
+        Assert.assertNotSame(second, bodies.getBody(100L, "id 2 不存在"));
+        // 只缓存第一次出现的 message
+        Assert.assertSame(first, bodies.getBody(100L, "id 1 不存在"));
+    }
+
+    @Test
+    public void testNullNotCached() {
+        Assert.assertNotSame(bodies.getBody(null, "message"), bodies.getBody(null, "message"));
+        Assert.assertNotSame(bodies.getBody(100L, null), bodies.getBody(100L, null));
+        Assert.assertEquals("{\"code\":100,\"message\":null}", new String(bodies.getBody(100L, null), StandardCharsets.UTF_8));
+    }
+
+}
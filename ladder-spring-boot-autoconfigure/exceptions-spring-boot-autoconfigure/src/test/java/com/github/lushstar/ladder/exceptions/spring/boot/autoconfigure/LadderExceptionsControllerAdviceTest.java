@@ -0,0 +1,77 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * <p>description : LadderExceptionsControllerAdviceTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/9 15:20
+ */
+public class LadderExceptionsControllerAdviceTest {
+
+    private final BizExceptionResponseBodies bodies = new BizExceptionResponseBodies();
+
+    private final LadderExceptionsControllerAdvice advice;
+
+    public LadderExceptionsControllerAdviceTest() {
+        LadderExceptionsProperties properties = new LadderExceptionsProperties();
+        properties.setLogLevel(LogLevel.OFF);
+        advice = new LadderExceptionsControllerAdvice(new BizExceptionLogger(properties), bodies);
+    }
+
+    @Test
+    public void testJsonWithoutAccept() {
+        ResponseEntity<?> response = this.handle(null);
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assert.assertEquals("{\"code\":100,\"message\":\"参数错误\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        // 相同 code 和 message 复用同一份字节
+        Assert.assertSame(response.getBody(), this.handle(null).getBody());
+        Assert.assertSame(response.getBody(), bodies.getBody(100L, "参数错误"));
+    }
+
+    @Test
+    public void testJsonWhenAcceptIncludesJson() {
+        Assert.assertTrue(this.handle("application/json").getBody() instanceof byte[]);
+        Assert.assertTrue(this.handle("text/html, */*;q=0.8").getBody() instanceof byte[]);
+        Assert.assertTrue(this.handle("application/*").getBody() instanceof byte[]);
+        // 无法解析的 Accept 和原来一样返回 JSON
+        Assert.assertTrue(this.handle("not a media type").getBody() instanceof byte[]);
+    }
+
+    @Test
+    public void testMapWhenAcceptExcludesJson() {
+        ResponseEntity<?> response = this.handle("application/xml");
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertNull(response.getHeaders().getContentType());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        Assert.assertEquals(100L, body.get("code"));
+        Assert.assertEquals("参数错误", body.get("message"));
+        Assert.assertTrue(this.handle("text/plain").getBody() instanceof Map);
+    }
+
+    private ResponseEntity<?> handle(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/biz");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return advice.bizExceptionHandler(new BizException(100L, "参数错误"), new ServletWebRequest(request));
+    }
+
+}
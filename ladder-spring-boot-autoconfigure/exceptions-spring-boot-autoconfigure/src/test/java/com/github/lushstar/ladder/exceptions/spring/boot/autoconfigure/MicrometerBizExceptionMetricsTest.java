@@ -0,0 +1,158 @@
+package com.github.lushstar.ladder.exceptions.spring.boot.autoconfigure;
+
+import com.github.lushstar.ladder.commons.exceptions.BizException;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionAssert;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionCounter;
+import com.github.lushstar.ladder.commons.exceptions.BizExceptionRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : MicrometerBizExceptionMetricsTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/13 15:00
+ */
+public class MicrometerBizExceptionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void testRegisteredCountersBoundEagerly() {
+        BizExceptionRegistry bizExceptionRegistry = new BizExceptionRegistry();
+        bizExceptionRegistry.register(RegisteredEnum.class);
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(bizExceptionRegistry);
+        Assert.assertSame(metrics, RegisteredEnum.FIRST.getCounter().getBinder());
+        Assert.assertSame(metrics, RegisteredEnum.SECOND.getCounter().getBinder());
+        long before = RegisteredEnum.FIRST.getCounter().sum();
+        metrics.bindTo(registry);
+        // 还没有出现过的 code 也已经绑定
+        Assert.assertEquals(before, this.count("300000"), 0D);
+        Assert.assertEquals(RegisteredEnum.SECOND.getCounter().sum(), this.count("300001"), 0D);
+
+        metrics.record(RegisteredEnum.FIRST.newException(), 0L);
+        metrics.record(RegisteredEnum.FIRST.newException(), 0L);
+        Assert.assertEquals(before + 2, RegisteredEnum.FIRST.getCounter().sum());
+        Assert.assertEquals(before + 2, this.count("300000"), 0D);
+    }
+
+    @Test
+    public void testUnregisteredCounterBoundOnFirstException() {
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(null);
+        metrics.bindTo(registry);
+        Assert.assertNull(registry.find("ladder.biz.exceptions").tag("code", "300002").functionCounter());
+        long before = UnregisteredEnum.THIRD.getCounter().sum();
+        metrics.record(UnregisteredEnum.THIRD.newException(), 0L);
+        Assert.assertSame(metrics, UnregisteredEnum.THIRD.getCounter().getBinder());
+        metrics.record(UnregisteredEnum.THIRD.newException(), 0L);
+        Assert.assertEquals(before + 2, this.count("300002"), 0D);
+    }
+
+    @Test
+    public void testDuplicateCodeCountedOnce() {
+        BizExceptionRegistry bizExceptionRegistry = new BizExceptionRegistry();
+        bizExceptionRegistry.register(RegisteredEnum.class);
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(bizExceptionRegistry);
+        metrics.bindTo(registry);
+        double before = this.count("300000") + UnregisteredEnum.DUPLICATE.getCounter().sum();
+        metrics.record(RegisteredEnum.FIRST.newException(), 0L);
+        for (int i = 0; i < 3; i++) {
+            metrics.record(UnregisteredEnum.DUPLICATE.newException(), 0L);
+        }
+        // code 重复的枚举绑定后也走快速路径, 计入同一个 code
+        Assert.assertSame(metrics, UnregisteredEnum.DUPLICATE.getCounter().getBinder());
+        Assert.assertEquals(before + 4, this.count("300000"), 0D);
+        Assert.assertEquals(1, registry.find("ladder.biz.exceptions").tag("code", "300000").functionCounters().size());
+    }
+
+    @Test
+    public void testCodeLookup() {
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(null);
+        metrics.record(new BizException(400000L, "no source"), 0L);
+        metrics.record(new BizException(null, "null code"), 0L);
+        // 先记录再绑定 MeterRegistry 时保留之前的计数
+        metrics.bindTo(registry);
+        metrics.record(new BizException(400000L, "no source"), 0L);
+        Assert.assertEquals(2D, this.count("400000"), 0D);
+        Assert.assertEquals(1D, this.count("null"), 0D);
+    }
+
+    @Test
+    public void testSourceWithDifferentCodeUsesCode() {
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(null);
+        metrics.bindTo(registry);
+        long before = RegisteredEnum.SECOND.getCounter().sum();
+        metrics.record(new BizException(RegisteredEnum.SECOND, "other code", false) {
+            @Override
+            public Long getCode() {
+                return 400001L;
+            }
+        }, 0L);
+        Assert.assertEquals(before, RegisteredEnum.SECOND.getCounter().sum());
+        Assert.assertEquals(1D, this.count("400001"), 0D);
+    }
+
+    @Test
+    public void testHandlerTimer() {
+        MicrometerBizExceptionMetrics metrics = new MicrometerBizExceptionMetrics(null);
+        metrics.bindTo(registry);
+        metrics.record(new BizException(400002L, "timed"), TimeUnit.MILLISECONDS.toNanos(5));
+        Assert.assertEquals(1L, registry.get("ladder.biz.exceptions.handler").timer().count());
+        Assert.assertEquals(5D, registry.get("ladder.biz.exceptions.handler").timer().totalTime(TimeUnit.MILLISECONDS), 0D);
+    }
+
+    private double count(String code) {
+        FunctionCounter counter = registry.find("ladder.biz.exceptions").tag("code", code).functionCounter();
+        Assert.assertNotNull(counter);
+        return counter.count();
+    }
+
+    @Getter
+    private enum RegisteredEnum implements BizExceptionAssert {
+
+        FIRST(300000L, "first"),
+
+        SECOND(300001L, "second");
+
+        private final Long code;
+
+        private final String message;
+
+        private final BizExceptionCounter counter = new BizExceptionCounter();
+
+        RegisteredEnum(Long code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+    }
+
+    @Getter
+    private enum UnregisteredEnum implements BizExceptionAssert {
+
+        THIRD(300002L, "third"),
+
+        DUPLICATE(300000L, "duplicate");
+
+        private final Long code;
+
+        private final String message;
+
+        private final BizExceptionCounter counter = new BizExceptionCounter();
+
+        UnregisteredEnum(Long code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import ma.glasnost.orika.BoundMapperFacade;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>description : BoundMapperFacadeCache，按 (源类型, 目标类型) 缓存 BoundMapperFacade
+ * {@link MapperFacade#map(Object, Class)} 每次调用都要解析类型、查找 Mapper 和 ObjectFactory,
+ * BoundMapperFacade 在创建时完成这些查找, 缓存后热点路径上只剩一次 Map 查找
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/17 14:20
+ */
+public class BoundMapperFacadeCache {
+
+    private final MapperFactory mapperFactory;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, BoundMapperFacade<?, ?>>> facades = new ConcurrentHashMap<>();
+
+    public BoundMapperFacadeCache(MapperFactory mapperFactory) {
+        this.mapperFactory = mapperFactory;
+    }
+
+    /**
+     * 获取 BoundMapperFacade, 线程安全
+     *
+     * @param sourceClass      源类型
+     * @param destinationClass 目标类型
+     * @param <S>              源类型
+     * @param <D>              目标类型
+     * @return {@link BoundMapperFacade}
+     */
+    @SuppressWarnings("unchecked")
+    public <S, D> BoundMapperFacade<S, D> getMapperFacade(Class<S> sourceClass, Class<D> destinationClass) {
+        // 先 get 再 computeIfAbsent, JDK8 的 computeIfAbsent 在 key 已存在时也会加锁
+        ConcurrentMap<Class<?>, BoundMapperFacade<?, ?>> destinationFacades = facades.get(sourceClass);
+        if (destinationFacades == null) {
+            destinationFacades = facades.computeIfAbsent(sourceClass, key -> new ConcurrentHashMap<>());
+        }
+        BoundMapperFacade<?, ?> facade = destinationFacades.get(destinationClass);
+        if (facade == null) {
+            facade = destinationFacades.computeIfAbsent(destinationClass,
+                    key -> mapperFactory.getMapperFacade(sourceClass, destinationClass));
+        }
+        return (BoundMapperFacade<S, D>) facade;
+    }
+
+    /**
+     * 按源对象的运行时类型映射
+     *
+     * @param source           源对象
+     * @param destinationClass 目标类型
+     * @param <S>              源类型
+     * @param <D>              目标类型
+     * @return 目标对象, source 为 null 时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <S, D> D map(S source, Class<D> destinationClass) {
+        if (source == null) {
+            return null;
+        }
+        return this.getMapperFacade((Class<S>) source.getClass(), destinationClass).map(source);
+    }
+
+}
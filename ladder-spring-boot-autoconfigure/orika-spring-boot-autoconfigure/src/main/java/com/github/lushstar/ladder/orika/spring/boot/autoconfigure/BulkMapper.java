@@ -0,0 +1,229 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import ma.glasnost.orika.BoundMapperFacade;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>description : BulkMapper，批量映射
+ * 1. {@link #mapAsList} 集合较大时按 chunkSize 拆分到独立的 ForkJoinPool 并行映射, 不占用公共池
+ * 2. {@link #mapAsIterator} 和 {@link #mapAsStream} 每次只预取并映射 chunkSize 个元素, 内存占用与集合大小无关
+ * 同一个分片使用同一个 MappingContext, 与 MapperFacade.mapAsList 一样, 分片内相同的源对象会映射为同一个目标对象；
+ * MappingContext 用完后归还到池中 reset 复用
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/20 15:10
+ */
+public class BulkMapper implements Closeable {
+
+    private final BoundMapperFacadeCache boundMapperFacadeCache;
+
+    /**
+     * 与 MapperFactory 共用, 才能带上 mapNulls 等全局配置
+     */
+    private final MappingContextFactory mappingContextFactory;
+
+    private final ForkJoinPool forkJoinPool;
+
+    private final int chunkSize;
+
+    private final int parallelThreshold;
+
+    /**
+     * @param boundMapperFacadeCache {@link BoundMapperFacadeCache}
+     * @param mappingContextFactory  创建 MapperFactory 时使用的 {@link MappingContextFactory}
+     * @param bulk                   {@link LadderOrikaProperties.Bulk}
+     */
+    public BulkMapper(BoundMapperFacadeCache boundMapperFacadeCache, MappingContextFactory mappingContextFactory,
+                      LadderOrikaProperties.Bulk bulk) {
+        this.boundMapperFacadeCache = boundMapperFacadeCache;
+        this.mappingContextFactory = mappingContextFactory;
+        this.chunkSize = Math.max(1, bulk.getChunkSize());
+        this.parallelThreshold = bulk.getParallelThreshold();
+        this.forkJoinPool = new ForkJoinPool(Math.max(1, bulk.getParallelism()), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ladder-orika-bulk-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 映射集合, 集合大小超过 parallelThreshold 时并行映射, 结果顺序与源集合一致
+     *
+     * @param sources          源集合
+     * @param sourceClass      源类型
+     * @param destinationClass 目标类型
+     * @param <S>              源类型
+     * @param <D>              目标类型
+     * @return 目标集合
+     */
+    @SuppressWarnings("unchecked")
+    public <S, D> List<D> mapAsList(Collection<? extends S> sources, Class<S> sourceClass, Class<D> destinationClass) {
+        if (sources == null) {
+            return new ArrayList<>();
+        }
+        BoundMapperFacade<S, D> facade = boundMapperFacadeCache.getMapperFacade(sourceClass, destinationClass);
+        Object[] elements = sources.toArray();
+        Object[] results = new Object[elements.length];
+        MapChunkAction<S, D> action = new MapChunkAction<>(facade, elements, results, 0, elements.length);
+        if (elements.length > parallelThreshold) {
+            forkJoinPool.invoke(action);
+        } else {
+            action.mapChunk();
+        }
+        return new ArrayList<>((List<D>) Arrays.asList(results));
+    }
+
+    /**
+     * 按分片惰性映射, 每次 next 用完当前分片后才从 sources 读取并映射下一个分片
+     *
+     * @param sources          源迭代器
+     * @param sourceClass      源类型
+     * @param destinationClass 目标类型
+     * @param <S>              源类型
+     * @param <D>              目标类型
+     * @return 目标迭代器
+     */
+    public <S, D> Iterator<D> mapAsIterator(Iterator<? extends S> sources, Class<S> sourceClass, Class<D> destinationClass) {
+        return new ChunkedMappingIterator<>(boundMapperFacadeCache.getMapperFacade(sourceClass, destinationClass), sources);
+    }
+
+    /**
+     * 按分片惰性映射, 关闭返回的 Stream 时会关闭 sources
+     *
+     * @param sources          源 Stream
+     * @param sourceClass      源类型
+     * @param destinationClass 目标类型
+     * @param <S>              源类型
+     * @param <D>              目标类型
+     * @return 目标 Stream
+     */
+    public <S, D> Stream<D> mapAsStream(Stream<? extends S> sources, Class<S> sourceClass, Class<D> destinationClass) {
+        Iterator<D> iterator = this.mapAsIterator(sources.iterator(), sourceClass, destinationClass);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(sources::close);
+    }
+
+    @Override
+    public void close() {
+        forkJoinPool.shutdown();
+    }
+
+    private class MapChunkAction<S, D> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BoundMapperFacade<S, D> facade;
+
+        private final Object[] sources;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        MapChunkAction(BoundMapperFacade<S, D> facade, Object[] sources, Object[] results, int from, int to) {
+            this.facade = facade;
+            this.sources = sources;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                this.mapChunk();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MapChunkAction<>(facade, sources, results, from, middle),
+                    new MapChunkAction<>(facade, sources, results, middle, to));
+        }
+
+        @SuppressWarnings("unchecked")
+        void mapChunk() {
+            MappingContext context = mappingContextFactory.getContext();
+            try {
+                for (int i = from; i < to; i++) {
+                    results[i] = sources[i] == null ? null : facade.map((S) sources[i], context);
+                }
+            } finally {
+                mappingContextFactory.release(context);
+            }
+        }
+
+    }
+
+    private class ChunkedMappingIterator<S, D> implements Iterator<D> {
+
+        private final BoundMapperFacade<S, D> facade;
+
+        private final Iterator<? extends S> sources;
+
+        private final List<D> chunk = new ArrayList<>(chunkSize);
+
+        private int position;
+
+        ChunkedMappingIterator(BoundMapperFacade<S, D> facade, Iterator<? extends S> sources) {
+            this.facade = facade;
+            this.sources = sources;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < chunk.size()) {
+                return true;
+            }
+            this.nextChunk();
+            return !chunk.isEmpty();
+        }
+
+        @Override
+        public D next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.get(position++);
+        }
+
+        private void nextChunk() {
+            chunk.clear();
+            position = 0;
+            if (!sources.hasNext()) {
+                return;
+            }
+            MappingContext context = mappingContextFactory.getContext();
+            try {
+                while (chunk.size() < chunkSize && sources.hasNext()) {
+                    S source = sources.next();
+                    chunk.add(source == null ? null : facade.map(source, context));
+                }
+            } finally {
+                mappingContextFactory.release(context);
+            }
+        }
+
+    }
+
+}
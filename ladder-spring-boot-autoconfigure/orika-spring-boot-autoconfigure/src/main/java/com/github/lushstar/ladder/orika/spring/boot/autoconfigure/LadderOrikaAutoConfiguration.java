@@ -2,11 +2,23 @@ package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
 
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
 import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.generator.CompilerStrategy;
+import ma.glasnost.orika.impl.generator.EclipseJdtCompilerStrategy;
+import ma.glasnost.orika.impl.generator.JavassistCompilerStrategy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
 
 /**
  * <p>description : LadderOrikaAutoConfiguration
@@ -19,18 +31,100 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ConditionalOnClass({MapperFactory.class})
+@EnableConfigurationProperties({LadderOrikaProperties.class})
 public class LadderOrikaAutoConfiguration {
 
+    /**
+     * MapperFactory 和 BulkMapper 共用, 创建 MapperFactory 时会写入 mapNulls、captureFieldContext 等全局配置
+     * 自定义 MapperFactory 时需要通过 {@link DefaultMapperFactory.Builder#mappingContextFactory} 使用此 bean
+     *
+     * @return {@link MappingContextFactory}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingContextFactory mappingContextFactory() {
+        return new MappingContext.Factory();
+    }
+
+    /**
+     * 启动时注册并预热所有的映射, 映射有问题时启动失败；编译期生成的映射先于容器中的 MapperFactoryCustomizer 注册
+     *
+     * @param ladderOrikaProperties {@link LadderOrikaProperties}
+     * @param mappingContextFactory {@link MappingContextFactory}
+     * @param customizers           {@link MapperFactoryCustomizer}
+     * @return {@link MapperFactory}
+     */
     @Bean
     @ConditionalOnMissingBean(MapperFactory.class)
-    public MapperFactory getFactory() {
-        return new DefaultMapperFactory.Builder().build();
+    public MapperFactory getFactory(LadderOrikaProperties ladderOrikaProperties, MappingContextFactory mappingContextFactory,
+                                    ObjectProvider<MapperFactoryCustomizer> customizers) {
+        DefaultMapperFactory.Builder builder = new DefaultMapperFactory.Builder().mappingContextFactory(mappingContextFactory);
+        // 只设置显式配置的选项, 其余沿用 Orika 的默认值以及 -Dma.glasnost.orika.* 系统属性
+        if (ladderOrikaProperties.getCompilerStrategy() != null) {
+            builder.compilerStrategy(this.createCompilerStrategy(ladderOrikaProperties.getCompilerStrategy()));
+        }
+        if (ladderOrikaProperties.getUseAutoMapping() != null) {
+            builder.useAutoMapping(ladderOrikaProperties.getUseAutoMapping());
+        }
+        if (ladderOrikaProperties.getMapNulls() != null) {
+            builder.mapNulls(ladderOrikaProperties.getMapNulls());
+        }
+        if (ladderOrikaProperties.getUseBuiltinConverters() != null) {
+            builder.useBuiltinConverters(ladderOrikaProperties.getUseBuiltinConverters());
+        }
+        if (ladderOrikaProperties.getDumpStateOnException() != null) {
+            builder.dumpStateOnException(ladderOrikaProperties.getDumpStateOnException());
+        }
+        MapperFactory mapperFactory = builder.build();
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        List<MapperFactoryCustomizer> mapperFactoryCustomizers = new ArrayList<>();
+        if (ladderOrikaProperties.isUseGeneratedMappers()) {
+            ServiceLoader.load(MapperFactoryCustomizer.class, classLoader).forEach(mapperFactoryCustomizers::add);
+        }
+        customizers.orderedStream().forEach(mapperFactoryCustomizers::add);
+        new MapperFactoryInitializer(ladderOrikaProperties).initialize(mapperFactory, mapperFactoryCustomizers,
+                new OrikaMappingScanner(classLoader).scan(ladderOrikaProperties.getScanPackages()));
+        return mapperFactory;
     }
 
     @Bean
     @ConditionalOnMissingBean(MapperFacade.class)
-    public MapperFacade mapperFacade() {
-        return getFactory().getMapperFacade();
+    public MapperFacade mapperFacade(MapperFactory mapperFactory) {
+        return mapperFactory.getMapperFacade();
+    }
+
+    /**
+     * 按类型对缓存 BoundMapperFacade, 热点路径上用来代替 {@link MapperFacade}
+     *
+     * @param mapperFactory {@link MapperFactory}
+     * @return {@link BoundMapperFacadeCache}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BoundMapperFacadeCache boundMapperFacadeCache(MapperFactory mapperFactory) {
+        return new BoundMapperFacadeCache(mapperFactory);
+    }
+
+    /**
+     * 批量映射, 大集合拆分到独立的 ForkJoinPool 并行映射, 也支持按分片流式映射
+     *
+     * @param boundMapperFacadeCache {@link BoundMapperFacadeCache}
+     * @param mappingContextFactory  {@link MappingContextFactory}
+     * @param ladderOrikaProperties  {@link LadderOrikaProperties}
+     * @return {@link BulkMapper}
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public BulkMapper bulkMapper(BoundMapperFacadeCache boundMapperFacadeCache, MappingContextFactory mappingContextFactory,
+                                 LadderOrikaProperties ladderOrikaProperties) {
+        return new BulkMapper(boundMapperFacadeCache, mappingContextFactory, ladderOrikaProperties.getBulk());
+    }
+
+    private CompilerStrategy createCompilerStrategy(LadderOrikaProperties.CompilerType compilerType) {
+        if (compilerType == LadderOrikaProperties.CompilerType.ECLIPSE_JDT) {
+            return new EclipseJdtCompilerStrategy();
+        }
+        return new JavassistCompilerStrategy();
     }
 
 }
@@ -0,0 +1,112 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>description : LadderOrikaProperties，compilerStrategy、mapNulls 等 MapperFactory 选项没有配置时不设置,
+ * 沿用 Orika 的默认值以及 -Dma.glasnost.orika.* 系统属性
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/16 10:30
+ */
+@ConfigurationProperties(prefix = "ladder.orika")
+@Data
+public class LadderOrikaProperties {
+
+    /**
+     * 扫描 {@link OrikaMapping} 的包
+     */
+    private List<String> scanPackages = new ArrayList<>();
+
+    /**
+     * 是否在启动时生成所有已注册的映射, 关闭后映射代码在第一次 map 调用时生成
+     */
+    private boolean warmUp = true;
+
+    /**
+     * 是否并行解析和预热映射, 映射较多时可以缩短启动时间
+     */
+    private boolean parallelWarmUp = false;
+
+    /**
+     * 映射注册或者生成失败、以及两个类型之间没有任何可映射的字段时是否启动失败, 关闭后只打印告警日志
+     */
+    private boolean failFast = true;
+
+    /**
+     * 是否通过 ServiceLoader 加载 orika-spring-boot-processor 在编译期生成的映射, 生成的映射运行时不再用 Javassist 生成代码
+     */
+    private boolean useGeneratedMappers = true;
+
+    /**
+     * 映射代码的编译方式, ECLIPSE_JDT 需要额外引入 orika-eclipse-tools, Orika 默认为 JAVASSIST
+     */
+    private CompilerType compilerStrategy;
+
+    /**
+     * 是否自动生成未注册的类型对之间的映射, 关闭后只能映射已注册的 ClassMap, Orika 默认为 true
+     */
+    private Boolean useAutoMapping;
+
+    /**
+     * 源字段为 null 时是否把目标字段也设置为 null, Orika 默认为 true
+     */
+    private Boolean mapNulls;
+
+    /**
+     * 是否注册 Orika 内置的 Converter, Orika 默认为 true
+     */
+    private Boolean useBuiltinConverters;
+
+    /**
+     * 映射异常时是否在异常信息中输出 MapperFactory 的完整状态, 信息量很大, Orika 默认为 true, 生产环境建议关闭
+     */
+    private Boolean dumpStateOnException;
+
+    /**
+     * 批量映射配置
+     */
+    private Bulk bulk = new Bulk();
+
+    @Data
+    public static class Bulk {
+
+        /**
+         * 批量映射线程池的并行度, 默认为 CPU 核数
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 每个分片的大小, 一个分片在一个线程里使用同一个 MappingContext 映射, 流式映射时也是每次预取的个数
+         */
+        private int chunkSize = 1024;
+
+        /**
+         * 集合大小超过该值时才拆分到线程池并行映射
+         */
+        private int parallelThreshold = 8192;
+
+    }
+
+    public enum CompilerType {
+
+        /**
+         * JavassistCompilerStrategy
+         */
+        JAVASSIST,
+
+        /**
+         * EclipseJdtCompilerStrategy
+         */
+        ECLIPSE_JDT
+
+    }
+
+}
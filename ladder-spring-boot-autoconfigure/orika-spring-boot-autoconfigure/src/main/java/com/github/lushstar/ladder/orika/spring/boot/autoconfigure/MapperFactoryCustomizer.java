@@ -0,0 +1,25 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import ma.glasnost.orika.MapperFactory;
+
+/**
+ * <p>description : MapperFactoryCustomizer，在 MapperFactory 预热之前注册 ClassMap、Converter 等
+ * 在这里注册的映射会在启动时一起生成, 不会推迟到第一次 map 调用
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/16 10:20
+ */
+@FunctionalInterface
+public interface MapperFactoryCustomizer {
+
+    /**
+     * 定制 MapperFactory
+     *
+     * @param mapperFactory {@link MapperFactory}
+     */
+    void customize(MapperFactory mapperFactory);
+
+}
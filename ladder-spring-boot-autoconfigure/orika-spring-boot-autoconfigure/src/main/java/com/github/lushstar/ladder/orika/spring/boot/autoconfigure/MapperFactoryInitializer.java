@@ -0,0 +1,118 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.metadata.ClassMap;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <p>description : MapperFactoryInitializer，启动时注册并生成映射, 避免 Javassist 生成代码落到上线后的第一批请求上
+ * 1. 依次执行 {@link MapperFactoryCustomizer}, 包括编译期生成的映射
+ * 2. 按字段名解析 {@link OrikaMapping} 声明的、还没有 Mapper 的类型对并注册到 MapperFactory
+ * 3. build MapperFactory 生成所有已注册的映射, 再对每个类型对获取一次 BoundMapperFacade, 生成 ObjectFactory 等剩余的代码
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/16 11:05
+ */
+@Slf4j
+public class MapperFactoryInitializer {
+
+    private final LadderOrikaProperties ladderOrikaProperties;
+
+    public MapperFactoryInitializer(LadderOrikaProperties ladderOrikaProperties) {
+        this.ladderOrikaProperties = ladderOrikaProperties;
+    }
+
+    /**
+     * 初始化 MapperFactory
+     *
+     * @param mapperFactory  {@link MapperFactory}
+     * @param customizers    {@link MapperFactoryCustomizer}
+     * @param mappingClasses 标注了 {@link OrikaMapping} 的类
+     */
+    public void initialize(MapperFactory mapperFactory, List<MapperFactoryCustomizer> customizers, List<Class<?>> mappingClasses) {
+        long start = System.nanoTime();
+        for (MapperFactoryCustomizer customizer : customizers) {
+            customizer.customize(mapperFactory);
+        }
+        List<ClassMap<?, ?>> classMaps = this.resolveClassMaps(mapperFactory, mappingClasses);
+        for (ClassMap<?, ?> classMap : classMaps) {
+            mapperFactory.registerClassMap(classMap);
+        }
+        if (!ladderOrikaProperties.isWarmUp()) {
+            return;
+        }
+        try {
+            // getMapperFacade 会在第一次调用时完成 build
+            mapperFactory.getMapperFacade();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Orika MapperFactory build failed", e);
+        }
+        this.stream(classMaps).forEach(classMap -> this.warmUp(mapperFactory, classMap));
+        log.info("Orika MapperFactory has warmed up {} class maps in {} ms", classMaps.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<ClassMap<?, ?>> resolveClassMaps(MapperFactory mapperFactory, List<Class<?>> mappingClasses) {
+        List<Class<?>[]> pairs = new ArrayList<>();
+        for (Class<?> source : mappingClasses) {
+            for (Class<?> destination : source.getAnnotation(OrikaMapping.class).value()) {
+                // 已经注册了编译期生成的 Mapper, 不再生成 ClassMap
+                if (mapperFactory.existsRegisteredMapper(TypeFactory.valueOf(source), TypeFactory.valueOf(destination), true)) {
+                    continue;
+                }
+                pairs.add(new Class<?>[]{source, destination});
+            }
+        }
+        List<ClassMap<?, ?>> classMaps = new ArrayList<>();
+        this.stream(pairs).map(pair -> this.resolveClassMap(mapperFactory, pair[0], pair[1]))
+                .filter(Objects::nonNull)
+                .forEachOrdered(classMaps::add);
+        return classMaps;
+    }
+
+    private ClassMap<?, ?> resolveClassMap(MapperFactory mapperFactory, Class<?> source, Class<?> destination) {
+        ClassMap<?, ?> classMap;
+        try {
+            classMap = mapperFactory.classMap(source, destination).byDefault().toClassMap();
+        } catch (RuntimeException e) {
+            this.fail("Orika mapping [" + source.getName() + " <-> " + destination.getName() + "] can not be resolved", e);
+            return null;
+        }
+        if (classMap.getFieldsMapping().isEmpty()) {
+            this.fail("Orika mapping [" + source.getName() + " <-> " + destination.getName() + "] has no mappable properties", null);
+            return null;
+        }
+        return classMap;
+    }
+
+    private void warmUp(MapperFactory mapperFactory, ClassMap<?, ?> classMap) {
+        try {
+            mapperFactory.getMapperFacade(classMap.getAType(), classMap.getBType());
+            mapperFactory.getMapperFacade(classMap.getBType(), classMap.getAType());
+        } catch (RuntimeException e) {
+            this.fail("Orika mapping [" + classMap.getATypeName() + " <-> " + classMap.getBTypeName() + "] warm up failed", e);
+        }
+    }
+
+    private <T> Stream<T> stream(List<T> list) {
+        return ladderOrikaProperties.isParallelWarmUp() ? list.parallelStream() : list.stream();
+    }
+
+    private void fail(String message, Throwable cause) {
+        if (ladderOrikaProperties.isFailFast()) {
+            throw new IllegalStateException(message, cause);
+        }
+        log.warn(message, cause);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>description : OrikaMapping，标注在源类型上, 声明它和 {@link #value()} 之间的双向映射
+ * 启动时由 ladder.orika.scan-packages 扫描并按字段名注册到 MapperFactory, 提前生成映射代码
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/16 10:12
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OrikaMapping {
+
+    /**
+     * @return 目标类型
+     */
+    Class<?>[] value();
+
+}
@@ -0,0 +1,53 @@
+package com.github.lushstar.ladder.orika.spring.boot.autoconfigure;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>description : OrikaMappingScanner，扫描指定包下标注了 {@link OrikaMapping} 的类
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/16 10:41
+ */
+public class OrikaMappingScanner extends ClassPathScanningCandidateComponentProvider {
+
+    private final ClassLoader classLoader;
+
+    public OrikaMappingScanner(ClassLoader classLoader) {
+        super(false);
+        this.classLoader = classLoader;
+        this.addIncludeFilter(new AnnotationTypeFilter(OrikaMapping.class, false));
+    }
+
+    /**
+     * 扫描映射类型
+     *
+     * @param basePackages 扫描的包
+     * @return 标注了 {@link OrikaMapping} 的类
+     */
+    public List<Class<?>> scan(List<String> basePackages) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition beanDefinition : this.findCandidateComponents(basePackage)) {
+                classes.add(ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), classLoader));
+            }
+        }
+        return classes;
+    }
+
+    @Override
+    protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+        // DTO 经常是抽象类或者静态内部类, 只排除非静态内部类
+        return beanDefinition.getMetadata().isIndependent();
+    }
+
+}
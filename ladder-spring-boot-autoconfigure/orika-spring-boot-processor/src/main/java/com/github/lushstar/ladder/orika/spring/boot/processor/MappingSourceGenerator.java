@@ -0,0 +1,414 @@
+package com.github.lushstar.ladder.orika.spring.boot.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>description : MappingSourceGenerator，按 getter/setter 生成 CustomMapper 的源码, 规则与 ClassMapBuilder.byDefault 一致, 按属性名匹配
+ * 1. 基本类型、包装类型、String、枚举、BigDecimal、java.time 等不可变类型且类型兼容时直接赋值
+ * 2. List、Set、Collection 属性调用 mapperFacade.mapAsList/mapAsSet 映射元素
+ * 3. 其它非泛型类型调用 mapperFacade.map, 由 Orika 的 Converter 或者嵌套的映射处理
+ * 每个 getter 只调用一次; 源属性为 null 时按 MapperFactory 的 mapNulls 配置决定是否覆盖目标属性, 与 Orika 运行时生成的映射一致
+ * 无法在编译期确定映射方式的属性直接编译失败, 需要改为在 MapperFactoryCustomizer 中手动注册
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/22 10:40
+ */
+class MappingSourceGenerator {
+
+    private static final String SUFFIX = "LadderMappings";
+
+    private final Elements elements;
+
+    private final Types types;
+
+    private final TypeMirror iterableType;
+
+    private final TypeMirror collectionType;
+
+    private final TypeMirror listType;
+
+    private final TypeMirror setType;
+
+    MappingSourceGenerator(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.iterableType = this.erasure(Iterable.class);
+        this.collectionType = this.erasure(Collection.class);
+        this.listType = this.erasure(List.class);
+        this.setType = this.erasure(Set.class);
+    }
+
+    /**
+     * @param source 标注了 OrikaMapping 的类
+     * @return 生成类的全限定名, 与源类型同包, 内部类用 _ 连接外部类的类名
+     */
+    String generatedClassName(TypeElement source) {
+        String packageName = elements.getPackageOf(source).getQualifiedName().toString();
+        return (packageName.isEmpty() ? "" : packageName + ".") + this.flatName(source) + SUFFIX;
+    }
+
+    String generate(TypeElement source, List<TypeElement> destinations, String className) throws UnmappableException {
+        String packageName = elements.getPackageOf(source).getQualifiedName().toString();
+        this.checkType(source, packageName);
+        StringBuilder mappers = new StringBuilder();
+        StringBuilder registrations = new StringBuilder();
+        Set<String> mapperNames = new HashSet<>();
+        Set<TypeElement> objectTypes = new LinkedHashSet<>();
+        objectTypes.add(source);
+        for (TypeElement destination : destinations) {
+            this.checkType(destination, packageName);
+            objectTypes.add(destination);
+            String mapperName = this.flatName(destination) + "Mapper";
+            for (int i = 1; !mapperNames.add(mapperName); i++) {
+                mapperName = this.flatName(destination) + "Mapper" + i;
+            }
+            registrations.append("        mapperFactory.registerMapper(new ").append(mapperName).append("());\n");
+            mappers.append(this.mapper(source, destination, mapperName));
+        }
+        for (TypeElement objectType : objectTypes) {
+            if (this.hasAccessibleDefaultConstructor(objectType, packageName)) {
+                registrations.append(this.objectFactory(objectType));
+            }
+        }
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("/**\n")
+                .append(" * Generated by ").append(OrikaMappingProcessor.class.getName()).append(" from ")
+                .append(source.getQualifiedName()).append(", do not edit\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" implements ")
+                .append(OrikaMappingProcessor.MAPPER_FACTORY_CUSTOMIZER).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    public void customize(ma.glasnost.orika.MapperFactory mapperFactory) {\n")
+                .append(registrations)
+                .append("    }\n\n")
+                .append("    private static boolean mapNulls(ma.glasnost.orika.MappingContext context) {\n")
+                .append("        return context == null || !Boolean.FALSE.equals(context.getProperty(ma.glasnost.orika.Properties.SHOULD_MAP_NULLS));\n")
+                .append("    }\n")
+                .append(mappers)
+                .append("\n}\n");
+        return code.toString();
+    }
+
+    private String mapper(TypeElement a, TypeElement b, String mapperName) throws UnmappableException {
+        String aName = a.getQualifiedName().toString();
+        String bName = b.getQualifiedName().toString();
+        Map<String, Property> aProperties = this.properties(a);
+        Map<String, Property> bProperties = this.properties(b);
+        List<String> aToB = this.assignments(a, aProperties, b, bProperties);
+        List<String> bToA = this.assignments(b, bProperties, a, aProperties);
+        if (aToB.isEmpty() && bToA.isEmpty()) {
+            throw new UnmappableException("Orika mapping [" + aName + " <-> " + bName + "] has no mappable properties");
+        }
+        StringBuilder code = new StringBuilder();
+        code.append("\n    static final class ").append(mapperName)
+                .append(" extends ma.glasnost.orika.CustomMapper<").append(aName).append(", ").append(bName).append("> {\n\n");
+        this.appendMethod(code, "mapAtoB", aName, bName, aToB);
+        code.append("\n");
+        this.appendMethod(code, "mapBtoA", bName, aName, bToA);
+        code.append("\n    }\n");
+        return code.toString();
+    }
+
+    private void appendMethod(StringBuilder code, String method, String sourceName, String destinationName, List<String> assignments) {
+        code.append("        @Override\n")
+                .append("        public void ").append(method).append("(").append(sourceName).append(" source, ")
+                .append(destinationName).append(" destination, ma.glasnost.orika.MappingContext context) {\n");
+        if (!assignments.isEmpty()) {
+            code.append("            boolean mapNulls = mapNulls(context);\n");
+        }
+        for (String assignment : assignments) {
+            code.append(assignment);
+        }
+        code.append("        }\n");
+    }
+
+    private List<String> assignments(TypeElement source, Map<String, Property> sourceProperties,
+                                     TypeElement destination, Map<String, Property> destinationProperties) throws UnmappableException {
+        List<String> assignments = new ArrayList<>();
+        for (Property target : destinationProperties.values()) {
+            Property property = sourceProperties.get(target.name);
+            if (target.setter == null || property == null || property.getter == null) {
+                continue;
+            }
+            String assignment = this.assignment("source." + property.getter + "()", property.getterType,
+                    "destination." + target.setter, target.setterType);
+            if (assignment == null) {
+                throw new UnmappableException("Property [" + target.name + "] of " + source.getQualifiedName() + " (" + property.getterType
+                        + ") can not be mapped to " + destination.getQualifiedName() + " (" + target.setterType
+                        + ") at compile time, register it in a MapperFactoryCustomizer instead");
+            }
+            assignments.add(assignment);
+        }
+        return assignments;
+    }
+
+    /**
+     * 源属性为基本类型时直接赋值, 否则先读到局部变量中, 非 null 时转换后赋值, null 时只有 mapNulls 为 true 才覆盖目标属性
+     *
+     * @return 赋值语句, 无法映射时返回 null
+     */
+    private String assignment(String getter, TypeMirror sourceType, String setter, TypeMirror destinationType) {
+        if (sourceType.getKind().isPrimitive()) {
+            String statement = this.convert(getter, sourceType, setter, destinationType);
+            return statement == null ? null : "            " + statement + "\n";
+        }
+        String statement = this.convert("value", sourceType, setter, destinationType);
+        if (statement == null) {
+            return null;
+        }
+        StringBuilder code = new StringBuilder();
+        code.append("            {\n")
+                .append("                ").append(sourceType).append(" value = ").append(getter).append(";\n")
+                .append("                if (value != null) {\n")
+                .append("                    ").append(statement).append("\n")
+                .append("                }");
+        // 基本类型的目标属性不能赋值为 null, 与 Orika 一样跳过
+        if (!destinationType.getKind().isPrimitive()) {
+            code.append(" else if (mapNulls) {\n")
+                    .append("                    ").append(setter).append("(null);\n")
+                    .append("                }");
+        }
+        return code.append("\n            }\n").toString();
+    }
+
+    /**
+     * @param value 源属性的值, 不为 null
+     * @return 转换并赋值的语句, 无法映射时返回 null
+     */
+    private String convert(String value, TypeMirror sourceType, String setter, TypeMirror destinationType) {
+        boolean destinationPrimitive = destinationType.getKind().isPrimitive();
+        if (destinationPrimitive && this.isBoxed(sourceType) && types.isSameType(types.unboxedType(sourceType), destinationType)) {
+            return setter + "(" + value + ");";
+        }
+        if (types.isAssignable(sourceType, destinationType) && (destinationPrimitive || this.isImmutable(sourceType))) {
+            return setter + "(" + value + ");";
+        }
+        TypeMirror elementType = this.collectionElementType(destinationType);
+        if (elementType != null && (sourceType.getKind() == TypeKind.ARRAY
+                || types.isAssignable(types.erasure(sourceType), iterableType))) {
+            String method = types.isSameType(types.erasure(destinationType), setType) ? "mapAsSet" : "mapAsList";
+            return setter + "(mapperFacade." + method + "(" + value + ", " + types.erasure(elementType) + ".class, context));";
+        }
+        if (destinationPrimitive) {
+            String boxed = types.boxedClass((PrimitiveType) destinationType).getQualifiedName().toString();
+            return setter + "(mapperFacade.map(" + value + ", " + boxed + ".class, context));";
+        }
+        if (destinationType.getKind() == TypeKind.DECLARED && ((DeclaredType) destinationType).getTypeArguments().isEmpty()) {
+            return setter + "(mapperFacade.map(" + value + ", " + types.erasure(destinationType) + ".class, context));";
+        }
+        return null;
+    }
+
+    /**
+     * @return List/Set/Collection 的元素类型, 元素类型本身带泛型或者是通配符时返回 null
+     */
+    private TypeMirror collectionElementType(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeMirror erasure = types.erasure(type);
+        if (!types.isSameType(erasure, listType) && !types.isSameType(erasure, setType) && !types.isSameType(erasure, collectionType)) {
+            return null;
+        }
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.size() != 1 || arguments.get(0).getKind() != TypeKind.DECLARED
+                || !((DeclaredType) arguments.get(0)).getTypeArguments().isEmpty()) {
+            return null;
+        }
+        return arguments.get(0);
+    }
+
+    private boolean isImmutable(TypeMirror type) {
+        if (type.getKind().isPrimitive() || this.isBoxed(type)) {
+            return true;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        return element.getKind() == ElementKind.ENUM
+                || "java.lang.String".equals(name)
+                || "java.math.BigDecimal".equals(name)
+                || "java.math.BigInteger".equals(name)
+                || "java.util.UUID".equals(name)
+                || name.startsWith("java.time.");
+    }
+
+    private boolean isBoxed(TypeMirror type) {
+        try {
+            types.unboxedType(type);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String objectFactory(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+        return "        mapperFactory.registerObjectFactory(new ma.glasnost.orika.ObjectFactory<" + name + ">() {\n"
+                + "            @Override\n"
+                + "            public " + name + " create(Object source, ma.glasnost.orika.MappingContext context) {\n"
+                + "                return new " + name + "();\n"
+                + "            }\n"
+                + "        }, ma.glasnost.orika.metadata.TypeFactory.valueOf(" + name + ".class));\n";
+    }
+
+    /**
+     * 没有可访问的无参构造器时不注册 ObjectFactory, 运行时仍由 Orika 生成
+     */
+    private boolean hasAccessibleDefaultConstructor(TypeElement type, String packageName) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return this.isAccessible(constructor, packageName);
+            }
+        }
+        return false;
+    }
+
+    private void checkType(TypeElement type, String packageName) throws UnmappableException {
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new UnmappableException("Generic type " + type.getQualifiedName() + " is not supported by @OrikaMapping");
+        }
+        for (Element element = type; element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (!this.isAccessible(element, packageName)) {
+                throw new UnmappableException(type.getQualifiedName() + " is not accessible from package " + packageName);
+            }
+        }
+    }
+
+    private boolean isAccessible(Element element, String packageName) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE)
+                && elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    private Map<String, Property> properties(TypeElement type) {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            ExecutableType methodType = (ExecutableType) types.asMemberOf(declaredType, method);
+            String name = method.getSimpleName().toString();
+            int parameters = method.getParameters().size();
+            TypeMirror returnType = methodType.getReturnType();
+            if (parameters == 0 && name.length() > 3 && name.startsWith("get")
+                    && returnType.getKind() != TypeKind.VOID && !"getClass".equals(name)) {
+                this.property(properties, name.substring(3)).getter(name, returnType);
+            } else if (parameters == 0 && name.length() > 2 && name.startsWith("is") && returnType.getKind() == TypeKind.BOOLEAN) {
+                this.property(properties, name.substring(2)).getter(name, returnType);
+            } else if (parameters == 1 && name.length() > 3 && name.startsWith("set")) {
+                this.property(properties, name.substring(3)).setter(name, methodType.getParameterTypes().get(0));
+            }
+        }
+        return properties;
+    }
+
+    private Property property(Map<String, Property> properties, String name) {
+        return properties.computeIfAbsent(this.decapitalize(name), Property::new);
+    }
+
+    /**
+     * 与 java.beans.Introspector#decapitalize 一致
+     */
+    private String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE;
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+
+    private TypeMirror erasure(Class<?> clazz) {
+        return types.erasure(elements.getTypeElement(clazz.getCanonicalName()).asType());
+    }
+
+    private static class Property {
+
+        private final String name;
+
+        private String getter;
+
+        private TypeMirror getterType;
+
+        private String setter;
+
+        private TypeMirror setterType;
+
+        Property(String name) {
+            this.name = name;
+        }
+
+        void getter(String getter, TypeMirror getterType) {
+            if (this.getter == null) {
+                this.getter = getter;
+                this.getterType = getterType;
+            }
+        }
+
+        void setter(String setter, TypeMirror setterType) {
+            if (this.setter == null) {
+                this.setter = setter;
+                this.setterType = setterType;
+            }
+        }
+
+    }
+
+    static class UnmappableException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        UnmappableException(String message) {
+            super(message);
+        }
+
+    }
+
+}
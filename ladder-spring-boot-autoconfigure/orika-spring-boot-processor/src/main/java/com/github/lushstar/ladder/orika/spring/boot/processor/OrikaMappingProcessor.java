@@ -0,0 +1,167 @@
+package com.github.lushstar.ladder.orika.spring.boot.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>description : OrikaMappingProcessor，编译期为 OrikaMapping 声明的类型对生成纯 Java 的映射代码
+ * 每个标注了 OrikaMapping 的类生成一个 MapperFactoryCustomizer, 注册 CustomMapper 和 ObjectFactory,
+ * 并写入 META-INF/services, 由 LadderOrikaAutoConfiguration 通过 ServiceLoader 加载, 运行时不再用 Javassist 生成这些映射
+ * 使用方式: 将 orika-spring-boot-processor 加入 maven-compiler-plugin 的 annotationProcessorPaths 或者以 provided 引入
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/22 10:15
+ */
+@SupportedAnnotationTypes(OrikaMappingProcessor.ORIKA_MAPPING)
+public class OrikaMappingProcessor extends AbstractProcessor {
+
+    static final String ORIKA_MAPPING = "com.github.lushstar.ladder.orika.spring.boot.autoconfigure.OrikaMapping";
+
+    static final String MAPPER_FACTORY_CUSTOMIZER = "com.github.lushstar.ladder.orika.spring.boot.autoconfigure.MapperFactoryCustomizer";
+
+    private final Set<String> customizers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeServiceFile();
+            return false;
+        }
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ORIKA_MAPPING);
+        if (annotation == null) {
+            return false;
+        }
+        MappingSourceGenerator generator = new MappingSourceGenerator(processingEnv);
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                this.error(element, "@OrikaMapping can only be used on classes");
+                continue;
+            }
+            TypeElement source = (TypeElement) element;
+            String className = generator.generatedClassName(source);
+            try {
+                String code = generator.generate(source, this.destinations(source, annotation), className);
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(className, source);
+                try (Writer writer = file.openWriter()) {
+                    writer.write(code);
+                }
+                customizers.add(className);
+            } catch (MappingSourceGenerator.UnmappableException e) {
+                this.error(source, e.getMessage());
+            } catch (IOException e) {
+                this.error(source, "Failed to write " + className + ": " + e.getMessage());
+            }
+        }
+        // 不声明独占 OrikaMapping, 其它处理器仍然可以处理
+        return false;
+    }
+
+    private List<TypeElement> destinations(TypeElement source, TypeElement annotation) {
+        List<TypeElement> destinations = new ArrayList<>();
+        for (AnnotationMirror mirror : source.getAnnotationMirrors()) {
+            if (!processingEnv.getTypeUtils().isSameType(mirror.getAnnotationType(), annotation.asType())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (!"value".contentEquals(entry.getKey().getSimpleName())) {
+                    continue;
+                }
+                Object value = entry.getValue().getValue();
+                if (value instanceof List) {
+                    for (Object item : (List<?>) value) {
+                        destinations.add(this.asTypeElement(((AnnotationValue) item).getValue()));
+                    }
+                } else {
+                    destinations.add(this.asTypeElement(value));
+                }
+            }
+        }
+        return destinations;
+    }
+
+    private TypeElement asTypeElement(Object value) {
+        return (TypeElement) ((DeclaredType) (TypeMirror) value).asElement();
+    }
+
+    /**
+     * 增量编译时只会处理修改过的类, 需要保留上次编译写入的其它类；
+     * 已经删除或者改名的类无法再解析, 从文件中去掉, 避免 ServiceLoader 加载时抛出 ServiceConfigurationError
+     */
+    private void writeServiceFile() {
+        String resource = "META-INF/services/" + MAPPER_FACTORY_CUSTOMIZER;
+        Set<String> entries = new TreeSet<>(customizers);
+        boolean pruned = false;
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#") || customizers.contains(line)) {
+                        continue;
+                    }
+                    if (processingEnv.getElementUtils().getTypeElement(line.replace('$', '.')) != null) {
+                        entries.add(line);
+                    } else {
+                        pruned = true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 第一次编译时还没有这个文件
+        }
+        if (customizers.isEmpty() && !pruned) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + resource + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.github.lushstar.ladder.orika.spring.boot.processor;
+
+import com.github.lushstar.ladder.orika.spring.boot.autoconfigure.MapperFactoryCustomizer;
+import com.github.lushstar.ladder.orika.spring.boot.autoconfigure.OrikaMapping;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>description : OrikaMappingProcessorTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/23 14:20
+ */
+public class OrikaMappingProcessorTest {
+
+    private static final String SERVICE_FILE = "META-INF/services/" + OrikaMappingProcessor.MAPPER_FACTORY_CUSTOMIZER;
+
+    private static final String CUSTOMIZER = "sample.UserLadderMappings";
+
+    private static final String USER = "package sample;\n"
+            + "@com.github.lushstar.ladder.orika.spring.boot.autoconfigure.OrikaMapping(UserDto.class)\n"
+            + "public class User {\n"
+            + "    public static int nameReads;\n"
+            + "    private String name;\n"
+            + "    private Integer age;\n"
+            + "    private int level;\n"
+            + "    private java.util.List<String> tags;\n"
+            + "    public String getName() { nameReads++; return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public Integer getAge() { return age; }\n"
+            + "    public void setAge(Integer age) { this.age = age; }\n"
+            + "    public int getLevel() { return level; }\n"
+            + "    public void setLevel(int level) { this.level = level; }\n"
+            + "    public java.util.List<String> getTags() { return tags; }\n"
+            + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n"
+            + "}\n";
+
+    private static final String USER_DTO = "package sample;\n"
+            + "public class UserDto {\n"
+            + "    private String name;\n"
+            + "    private int age;\n"
+            + "    private Integer level;\n"
+            + "    private java.util.List<String> tags;\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public Integer getLevel() { return level; }\n"
+            + "    public void setLevel(Integer level) { this.level = level; }\n"
+            + "    public java.util.List<String> getTags() { return tags; }\n"
+            + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+
+    private File classes;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = folder.newFolder("sources");
+        classes = folder.newFolder("classes");
+        this.write(new File(sources, "sample/User.java"), USER);
+        this.write(new File(sources, "sample/UserDto.java"), USER_DTO);
+    }
+
+    @Test
+    public void testMapNulls() throws Exception {
+        this.compile();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, this.getClass().getClassLoader())) {
+            Class<?> userClass = loader.loadClass("sample.User");
+            Class<?> dtoClass = loader.loadClass("sample.UserDto");
+            Object user = userClass.newInstance();
+            userClass.getMethod("setLevel", int.class).invoke(user, 3);
+            userClass.getMethod("setTags", List.class).invoke(user, Collections.singletonList("a"));
+
+            Object dto = this.mapper(loader, false).map(user, dtoClass);
+            Assert.assertEquals(1, userClass.getField("nameReads").getInt(null));
+            Assert.assertNull(dtoClass.getMethod("getName").invoke(dto));
+            Assert.assertEquals(0, dtoClass.getMethod("getAge").invoke(dto));
+            Assert.assertEquals(3, dtoClass.getMethod("getLevel").invoke(dto));
+            Assert.assertEquals(Collections.singletonList("a"), dtoClass.getMethod("getTags").invoke(dto));
+
+            // mapNulls = false 时源属性为 null 不覆盖目标属性
+            Object existing = dtoClass.newInstance();
+            dtoClass.getMethod("setName", String.class).invoke(existing, "kept");
+            dtoClass.getMethod("setAge", int.class).invoke(existing, 18);
+            this.mapper(loader, false).map(user, existing);
+            Assert.assertEquals("kept", dtoClass.getMethod("getName").invoke(existing));
+            Assert.assertEquals(18, dtoClass.getMethod("getAge").invoke(existing));
+
+            // mapNulls = true 时覆盖为 null, 基本类型的目标属性保持不变
+            this.mapper(loader, true).map(user, existing);
+            Assert.assertNull(dtoClass.getMethod("getName").invoke(existing));
+            Assert.assertEquals(18, dtoClass.getMethod("getAge").invoke(existing));
+        }
+    }
+
+    @Test
+    public void testMergeServiceFile() throws IOException {
+        this.compile(classes);
+        // 增量编译: 只编译新增的 Order, 上次生成的 UserLadderMappings 在 classpath 上, 已经删除的类无法解析
+        File serviceFile = new File(classes, SERVICE_FILE);
+        this.write(serviceFile, "# generated\n" + CUSTOMIZER + "\nsample.DeletedLadderMappings\n");
+        Assert.assertTrue(new File(sources, "sample/User.java").delete());
+        this.write(new File(sources, "sample/Order.java"), "package sample;\n"
+                + "@com.github.lushstar.ladder.orika.spring.boot.autoconfigure.OrikaMapping(UserDto.class)\n"
+                + "public class Order {\n"
+                + "    private String name;\n"
+                + "    public String getName() { return name; }\n"
+                + "    public void setName(String name) { this.name = name; }\n"
+                + "}\n");
+        this.compile(classes);
+        List<String> lines = Files.readAllLines(serviceFile.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(Arrays.asList("sample.OrderLadderMappings", CUSTOMIZER), lines);
+    }
+
+    private MapperFacade mapper(ClassLoader loader, boolean mapNulls) throws ReflectiveOperationException {
+        MapperFactory mapperFactory = new DefaultMapperFactory.Builder().mapNulls(mapNulls).build();
+        ((MapperFactoryCustomizer) loader.loadClass(CUSTOMIZER).newInstance()).customize(mapperFactory);
+        return mapperFactory.getMapperFacade();
+    }
+
+    private void compile(File... extraClasspath) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<File> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(sources.toPath())) {
+            paths.filter(path -> path.toString().endsWith(".java")).forEach(path -> files.add(path.toFile()));
+        }
+        StringBuilder classpath = new StringBuilder(this.location(OrikaMapping.class)).append(File.pathSeparator).append(this.location(MapperFactory.class));
+        for (File file : extraClasspath) {
+            classpath.append(File.pathSeparator).append(file.getPath());
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-classpath", classpath.toString(), "-d", classes.getPath(), "-implicit:class"),
+                    null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new OrikaMappingProcessor()));
+            Assert.assertTrue("compilation failed", task.call());
+        }
+    }
+
+    private String location(Class<?> clazz) {
+        try {
+            return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void write(File file, String content) throws IOException {
+        Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
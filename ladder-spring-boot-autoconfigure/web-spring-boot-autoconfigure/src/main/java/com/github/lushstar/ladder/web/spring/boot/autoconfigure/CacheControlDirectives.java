@@ -0,0 +1,74 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>description : CacheControlDirectives，解析 Cache-Control 头, 如 max-age=60, no-cache
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 10:30
+ */
+final class CacheControlDirectives {
+
+    private final Map<String, String> directives;
+
+    private CacheControlDirectives(Map<String, String> directives) {
+        this.directives = directives;
+    }
+
+    static CacheControlDirectives parse(HttpHeaders headers) {
+        Map<String, String> directives = new HashMap<>();
+        List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+        if (values != null) {
+            for (String value : values) {
+                for (String directive : value.split(",")) {
+                    int index = directive.indexOf('=');
+                    String name = (index < 0 ? directive : directive.substring(0, index)).trim().toLowerCase(Locale.ROOT);
+                    if (name.isEmpty()) {
+                        continue;
+                    }
+                    String argument = index < 0 ? "" : directive.substring(index + 1).trim();
+                    if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+                        argument = argument.substring(1, argument.length() - 1);
+                    }
+                    directives.putIfAbsent(name, argument);
+                }
+            }
+        } else if ("no-cache".equalsIgnoreCase(headers.getPragma())) {
+            // HTTP/1.0 兼容
+            directives.put("no-cache", "");
+        }
+        return new CacheControlDirectives(directives);
+    }
+
+    boolean has(String name) {
+        return directives.containsKey(name);
+    }
+
+    /**
+     * 获取秒数参数, 如 max-age
+     *
+     * @param name 指令名称
+     * @return 不存在或者格式不正确时返回 -1
+     */
+    long seconds(String name) {
+        String value = directives.get(name);
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : CachedResponse，缓存中的响应, 不可变; 304 重新验证后生成新的实例
+ * 新鲜度按共享缓存计算: s-maxage 优先于 max-age, 其次是 Expires - Date, 都没有时每次都需要重新验证
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 10:40
+ */
+final class CachedResponse {
+
+    private final int statusCode;
+
+    private final String statusText;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    /**
+     * Vary 中的请求头及其取值
+     */
+    private final Map<String, String> varyValues;
+
+    private final long responseTime;
+
+    private final long initialAge;
+
+    private final long freshnessLifetime;
+
+    CachedResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body, Map<String, String> varyValues,
+                   long requestTime, long responseTime) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.varyValues = varyValues;
+        this.responseTime = responseTime;
+        this.initialAge = initialAge(headers, requestTime, responseTime);
+        this.freshnessLifetime = freshnessLifetime(headers);
+    }
+
+    /**
+     * 304 响应中的头部覆盖缓存中的同名头部, 响应体不变
+     *
+     * @param notModified  304 响应的头部
+     * @param requestTime  发出条件请求的时间
+     * @param responseTime 收到 304 的时间
+     * @return {@link CachedResponse}
+     */
+    CachedResponse revalidated(HttpHeaders notModified, long requestTime, long responseTime) {
+        HttpHeaders merged = new HttpHeaders();
+        merged.putAll(headers);
+        for (Map.Entry<String, List<String>> entry : notModified.entrySet()) {
+            String name = entry.getKey();
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONNECTION.equalsIgnoreCase(name)) {
+                continue;
+            }
+            merged.put(name, entry.getValue());
+        }
+        return new CachedResponse(statusCode, statusText, merged, body, varyValues, requestTime, responseTime);
+    }
+
+    static Map<String, String> varyValues(HttpHeaders responseHeaders, HttpHeaders requestHeaders) {
+        List<String> vary = responseHeaders.getVary();
+        if (vary.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : vary) {
+            values.put(name, joined(requestHeaders.get(name)));
+        }
+        return values;
+    }
+
+    boolean matches(HttpHeaders requestHeaders) {
+        for (Map.Entry<String, String> entry : varyValues.entrySet()) {
+            if (!entry.getValue().equals(joined(requestHeaders.get(entry.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param now               当前时间
+     * @param requestDirectives 请求中的 Cache-Control, 支持 max-age、min-fresh
+     * @return 是否可以不经过服务端直接使用
+     */
+    boolean isFresh(long now, CacheControlDirectives requestDirectives) {
+        long age = this.currentAge(now);
+        long lifetime = freshnessLifetime;
+        long maxAge = requestDirectives.seconds("max-age");
+        if (maxAge >= 0) {
+            lifetime = Math.min(lifetime, TimeUnit.SECONDS.toMillis(maxAge));
+        }
+        long minFresh = requestDirectives.seconds("min-fresh");
+        if (minFresh > 0) {
+            age += TimeUnit.SECONDS.toMillis(minFresh);
+        }
+        return age < lifetime;
+    }
+
+    boolean hasValidators() {
+        return headers.getETag() != null || headers.getLastModified() != -1;
+    }
+
+    String getETag() {
+        return headers.getETag();
+    }
+
+    long getLastModified() {
+        return headers.getLastModified();
+    }
+
+    long getWeight() {
+        // 头部按 1KB 估算
+        return body.length + 1024;
+    }
+
+    ClientHttpResponse toResponse(long now) {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.putAll(headers);
+        responseHeaders.set(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(this.currentAge(now))));
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatus getStatusCode() {
+                return HttpStatus.valueOf(statusCode);
+            }
+
+            @Override
+            public int getRawStatusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public String getStatusText() {
+                return statusText;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return responseHeaders;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private long currentAge(long now) {
+        return initialAge + Math.max(0, now - responseTime);
+    }
+
+    private static long initialAge(HttpHeaders headers, long requestTime, long responseTime) {
+        long apparentAge = 0;
+        long date = date(headers);
+        if (date != -1) {
+            apparentAge = Math.max(0, responseTime - date);
+        }
+        long ageValue = 0;
+        String age = headers.getFirst(HttpHeaders.AGE);
+        if (age != null) {
+            try {
+                ageValue = TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim()));
+            } catch (NumberFormatException ignored) {
+                // 忽略不合法的 Age
+            }
+        }
+        // 加上请求在路上的时间
+        return Math.max(apparentAge, ageValue + (responseTime - requestTime));
+    }
+
+    private static long freshnessLifetime(HttpHeaders headers) {
+        CacheControlDirectives directives = CacheControlDirectives.parse(headers);
+        if (directives.has("no-cache")) {
+            return 0;
+        }
+        long sMaxAge = directives.seconds("s-maxage");
+        if (sMaxAge >= 0) {
+            return TimeUnit.SECONDS.toMillis(sMaxAge);
+        }
+        long maxAge = directives.seconds("max-age");
+        if (maxAge >= 0) {
+            return TimeUnit.SECONDS.toMillis(maxAge);
+        }
+        long expires = headers.getExpires();
+        long date = date(headers);
+        if (expires != -1 && date != -1) {
+            return Math.max(0, expires - date);
+        }
+        return 0;
+    }
+
+    /**
+     * {@link HttpHeaders#getDate()} 遇到不合法的日期会抛出异常, 这里当作不存在
+     */
+    private static long date(HttpHeaders headers) {
+        try {
+            return headers.getDate();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String joined(List<String> values) {
+        return values == null ? "" : StringUtils.collectionToDelimitedString(values, ",");
+    }
+
+}
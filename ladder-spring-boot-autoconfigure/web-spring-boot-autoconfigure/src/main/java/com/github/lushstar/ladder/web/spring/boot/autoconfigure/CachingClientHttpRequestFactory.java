@@ -0,0 +1,231 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>description : CachingClientHttpRequestFactory，在底层客户端之上缓存 GET 响应, 位于所有 ClientHttpRequestInterceptor 之后
+ * 按共享缓存的规则处理 Cache-Control: 新鲜的响应直接返回; 过期但带有 ETag/Last-Modified 的响应发起条件请求, 304 时返回缓存的响应体
+ * POST、PUT、DELETE、PATCH 成功后删除同一地址的缓存
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 11:00
+ */
+public class CachingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    /**
+     * 默认可以缓存的状态码
+     */
+    private static final Set<Integer> CACHEABLE_STATUS = new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501));
+
+    private static final Set<HttpMethod> INVALIDATING_METHODS = new HashSet<>(Arrays.asList(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.PATCH));
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final HttpResponseCache cache;
+
+    public CachingClientHttpRequestFactory(ClientHttpRequestFactory requestFactory, HttpResponseCache cache) {
+        this.requestFactory = requestFactory;
+        this.cache = cache;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = requestFactory.createRequest(uri, httpMethod);
+        if (httpMethod == HttpMethod.GET || INVALIDATING_METHODS.contains(httpMethod)) {
+            return new CachingClientHttpRequest(request);
+        }
+        return request;
+    }
+
+    private class CachingClientHttpRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+
+        CachingClientHttpRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            String key = request.getURI().toString();
+            if (request.getMethod() != HttpMethod.GET) {
+                ClientHttpResponse response = request.execute();
+                if (response.getRawStatusCode() < 400) {
+                    cache.remove(key);
+                }
+                return response;
+            }
+            HttpHeaders requestHeaders = request.getHeaders();
+            CacheControlDirectives requestDirectives = CacheControlDirectives.parse(requestHeaders);
+            // 调用方自己发起的条件请求、范围请求需要原样返回服务端的响应
+            if (requestDirectives.has("no-store") || !requestHeaders.getIfNoneMatch().isEmpty()
+                    || requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE) || requestHeaders.containsKey(HttpHeaders.RANGE)) {
+                return request.execute();
+            }
+            CachedResponse cached = cache.get(key);
+            if (cached != null && !cached.matches(requestHeaders)) {
+                cached = null;
+            }
+            long requestTime = System.currentTimeMillis();
+            if (cached != null && !requestDirectives.has("no-cache") && cached.isFresh(requestTime, requestDirectives)) {
+                cache.recordHit();
+                return cached.toResponse(requestTime);
+            }
+            if (cached != null && cached.hasValidators()) {
+                if (cached.getETag() != null) {
+                    requestHeaders.setIfNoneMatch(cached.getETag());
+                }
+                if (cached.getLastModified() != -1) {
+                    requestHeaders.setIfModifiedSince(cached.getLastModified());
+                }
+            } else {
+                cached = null;
+            }
+            ClientHttpResponse response = request.execute();
+            long responseTime = System.currentTimeMillis();
+            if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                HttpHeaders notModified = response.getHeaders();
+                response.close();
+                CachedResponse revalidated = cached.revalidated(notModified, requestTime, responseTime);
+                cache.put(key, revalidated);
+                cache.recordRevalidated();
+                return revalidated.toResponse(responseTime);
+            }
+            cache.recordMiss();
+            if (!this.isCacheable(requestHeaders, response)) {
+                cache.remove(key);
+                return response;
+            }
+            return this.store(key, requestHeaders, response, requestTime, responseTime);
+        }
+
+        private boolean isCacheable(HttpHeaders requestHeaders, ClientHttpResponse response) throws IOException {
+            if (!CACHEABLE_STATUS.contains(response.getRawStatusCode())) {
+                return false;
+            }
+            HttpHeaders headers = response.getHeaders();
+            CacheControlDirectives directives = CacheControlDirectives.parse(headers);
+            if (directives.has("no-store") || directives.has("private") || headers.getVary().contains("*")) {
+                return false;
+            }
+            // 缓存在多个调用方之间共享, 带有认证信息的响应需要服务端明确允许
+            if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                    && !directives.has("public") && !directives.has("s-maxage") && !directives.has("must-revalidate")) {
+                return false;
+            }
+            if (headers.getContentLength() > cache.getMaxEntrySize()) {
+                return false;
+            }
+            return directives.has("max-age") || directives.has("s-maxage") || headers.containsKey(HttpHeaders.EXPIRES)
+                    || headers.getETag() != null || headers.getLastModified() != -1;
+        }
+
+        /**
+         * 最多读取 maxEntrySize 个字节, 超过时不缓存, 已读取的部分和剩余的流拼接后返回
+         */
+        private ClientHttpResponse store(String key, HttpHeaders requestHeaders, ClientHttpResponse response,
+                                         long requestTime, long responseTime) throws IOException {
+            InputStream body = response.getBody();
+            long limit = cache.getMaxEntrySize() + 1;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.min(limit, 4096));
+            byte[] chunk = new byte[4096];
+            int read;
+            while (buffer.size() < limit && (read = body.read(chunk, 0, (int) Math.min(chunk.length, limit - buffer.size()))) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            if (buffer.size() >= limit) {
+                return new PrefixedClientHttpResponse(response, new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), body));
+            }
+            HttpHeaders responseHeaders = response.getHeaders();
+            response.close();
+            CachedResponse cached = new CachedResponse(response.getRawStatusCode(), response.getStatusText(), responseHeaders,
+                    buffer.toByteArray(), CachedResponse.varyValues(responseHeaders, requestHeaders), requestTime, responseTime);
+            cache.put(key, cached);
+            return cached.toResponse(responseTime);
+        }
+
+    }
+
+    private static class PrefixedClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final InputStream body;
+
+        PrefixedClientHttpResponse(ClientHttpResponse response, InputStream body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>description : CompressingClientHttpRequestFactory，请求体超过 minRequestSize 且 Content-Type 在 mimeTypes 中时使用 gzip 压缩
+ * 本类只缓冲不超过 minRequestSize 的原始数据, 超过后边写边压缩写入底层请求, 不会再缓冲一份原始请求体;
+ * 压缩后的数据是否缓冲取决于底层请求: HttpClient、OkHttp、HttpClient 5 的 RestTemplate 都会缓冲整个请求体,
+ * 不缓冲的 createStreamingRestTemplate 不使用压缩
+ * 响应的解压由底层客户端完成: HttpClient、OkHttp 默认发送 Accept-Encoding 并透明解压, HttpClient 5 见 {@link HttpClient5ClientHttpRequestFactory}
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/4 10:20
+ */
+public class CompressingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final int minRequestSize;
+
+    private final List<MimeType> mimeTypes;
+
+    public CompressingClientHttpRequestFactory(ClientHttpRequestFactory requestFactory, RestTemplateProperties.Compression compression) {
+        this.requestFactory = requestFactory;
+        this.minRequestSize = compression.getMinRequestSize();
+        this.mimeTypes = compression.getMimeTypes().stream().map(MimeTypeUtils::parseMimeType).collect(Collectors.toList());
+    }
+
+    /**
+     * 开启了 compression 时包装 requestFactory
+     *
+     * @param requestFactory 底层客户端的 {@link ClientHttpRequestFactory}
+     * @param compression    {@link RestTemplateProperties.Compression}
+     * @return {@link ClientHttpRequestFactory}
+     */
+    static ClientHttpRequestFactory decorate(ClientHttpRequestFactory requestFactory, RestTemplateProperties.Compression compression) {
+        return compression.isEnabled() ? new CompressingClientHttpRequestFactory(requestFactory, compression) : requestFactory;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new CompressingClientHttpRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    private boolean isCompressible(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        return contentType != null && mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(contentType));
+    }
+
+    private class CompressingClientHttpRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+
+        private CompressingOutputStream body;
+
+        CompressingClientHttpRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (body == null) {
+                body = new CompressingOutputStream(request);
+            }
+            return body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (body != null) {
+                body.finish();
+            }
+            return request.execute();
+        }
+
+    }
+
+    private class CompressingOutputStream extends OutputStream {
+
+        private final ClientHttpRequest request;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+        /**
+         * 超过 minRequestSize 后才确定, 压缩时为 GZIPOutputStream, 否则为底层请求体
+         */
+        private OutputStream target;
+
+        CompressingOutputStream(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len < minRequestSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                this.open();
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        /**
+         * 由 execute 负责结束请求体, 避免 HttpMessageConverter 关闭后无法写入 gzip 尾部
+         */
+        @Override
+        public void close() {
+        }
+
+        void finish() throws IOException {
+            if (target == null) {
+                request.getBody().write(buffer.toByteArray());
+                buffer = null;
+            } else if (target instanceof GzipOutputStream) {
+                ((GzipOutputStream) target).finishAndEnd();
+            }
+        }
+
+        private void open() throws IOException {
+            // 流式请求在 getBody 时发送请求头, 所以必须在这之前修改
+            HttpHeaders headers = request.getHeaders();
+            if (isCompressible(headers)) {
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                target = new GzipOutputStream(request.getBody());
+            } else {
+                target = request.getBody();
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+    }
+
+    /**
+     * GZIPOutputStream 只在 close 时释放 Deflater 的本地内存, 而底层请求体不能由这里关闭
+     */
+    private static class GzipOutputStream extends GZIPOutputStream {
+
+        GzipOutputStream(OutputStream out) throws IOException {
+            super(out, 8192);
+        }
+
+        /**
+         * 写入 gzip 尾部后释放 Deflater, 不关闭底层请求体
+         */
+        void finishAndEnd() throws IOException {
+            try {
+                this.finish();
+            } finally {
+                def.end();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.io.IOException;
+
+/**
+ * <p>description : ConcurrencyLimitExceededException，host 的并发请求数达到 {@link ConcurrencyLimiter} 的当前限制, 请求没有发出
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 10:40
+ */
+public class ConcurrencyLimitExceededException extends IOException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+
+/**
+ * <p>description : ConcurrencyLimitMetrics，将 {@link ConcurrencyLimiter} 的状态发布为 Micrometer 指标
+ * ladder.http.client.concurrency.limit/inflight, tag 为 limiter 和 host, 第一次请求某个 host 时注册; ladder.http.client.concurrency.rejected
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 11:20
+ */
+public class ConcurrencyLimitMetrics implements MeterBinder {
+
+    private final Collection<ConcurrencyLimiter> limiters;
+
+    public ConcurrencyLimitMetrics(Collection<ConcurrencyLimiter> limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ConcurrencyLimiter limiter : limiters) {
+            FunctionCounter.builder("ladder.http.client.concurrency.rejected", limiter, ConcurrencyLimiter::getRejectedCount)
+                    .description("达到并发限制被拒绝的请求数")
+                    .tag("limiter", limiter.getName())
+                    .register(registry);
+            limiter.addHostListener(host -> this.bindHost(registry, limiter, host));
+            limiter.getHosts().forEach(host -> this.bindHost(registry, limiter, host));
+        }
+    }
+
+    private void bindHost(MeterRegistry registry, ConcurrencyLimiter limiter, String host) {
+        Gauge.builder("ladder.http.client.concurrency.limit", limiter, l -> l.getLimit(host))
+                .description("当前的并发限制")
+                .tag("limiter", limiter.getName())
+                .tag("host", host)
+                .register(registry);
+        Gauge.builder("ladder.http.client.concurrency.inflight", limiter, l -> l.getInflight(host))
+                .description("正在进行的请求数")
+                .tag("limiter", limiter.getName())
+                .tag("host", host)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * <p>description : ConcurrencyLimiter，按 host 自适应调整并发请求数, 达到限制时直接拒绝, 不会在连接池上排队等待 connectionRequestTimeout
+ * 调整算法参考 Netflix concurrency-limits 的 Gradient: 以最近窗口内的最小 RTT 作为无排队时的 RTT, 每 max(10, limit) 个请求的平均 RTT 与它的比值作为梯度
+ * newLimit = limit * min(1, rttTolerance * minRtt / avgRtt) + sqrt(limit), 再与当前值做平滑; 请求失败、429、503 时立即乘以 0.9
+ * 最小 RTT 每 1000 个样本滚动一次, 网络环境变化导致的 RTT 整体上升不会让限制一直停留在下限
+ * 上限默认为该路由的连接池大小(maxPerRoute 或者 defaultMaxPerRoute), 初始值为上限
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 10:20
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final RestTemplateProperties.Limiter limiter;
+
+    private final Map<String, HostLimit> hosts = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final List<Consumer<String>> hostListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name                   名称, 用于指标
+     * @param restTemplateProperties {@link RestTemplateProperties}
+     */
+    public ConcurrencyLimiter(String name, RestTemplateProperties restTemplateProperties) {
+        this.name = name;
+        this.restTemplateProperties = restTemplateProperties;
+        this.limiter = restTemplateProperties.getLimiter();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getHosts() {
+        return Collections.unmodifiableSet(hosts.keySet());
+    }
+
+    /**
+     * @param host scheme://host:port
+     * @return 当前的并发限制, host 不存在时返回 0
+     */
+    public int getLimit(String host) {
+        HostLimit hostLimit = hosts.get(host);
+        return hostLimit == null ? 0 : hostLimit.getLimit();
+    }
+
+    /**
+     * @param host scheme://host:port
+     * @return 正在进行的请求数, host 不存在时返回 0
+     */
+    public int getInflight(String host) {
+        HostLimit hostLimit = hosts.get(host);
+        return hostLimit == null ? 0 : hostLimit.getInflight();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 第一次请求某个 host 时回调, 用于注册指标
+     *
+     * @param listener 参数为 scheme://host:port
+     */
+    public void addHostListener(Consumer<String> listener) {
+        hostListeners.add(listener);
+    }
+
+    HostLimit acquire(URI uri) throws ConcurrencyLimitExceededException {
+        String host = uri.getScheme() + "://" + uri.getAuthority();
+        HostLimit hostLimit = hosts.get(host);
+        if (hostLimit == null) {
+            hostLimit = hosts.computeIfAbsent(host, key -> new HostLimit(this.getMaxLimit(uri)));
+            hostListeners.forEach(listener -> listener.accept(host));
+        }
+        if (!hostLimit.tryAcquire()) {
+            rejectedCount.incrementAndGet();
+            throw new ConcurrencyLimitExceededException("concurrency limit " + hostLimit.getLimit() + " of " + host + " exceeded");
+        }
+        return hostLimit;
+    }
+
+    private int getMaxLimit(URI uri) {
+        if (limiter.getMaxLimit() != null) {
+            return limiter.getMaxLimit();
+        }
+        RestTemplateProperties.Route route = restTemplateProperties.getRoute(uri);
+        return route != null && route.getMaxPerRoute() != null ? route.getMaxPerRoute() : restTemplateProperties.getDefaultMaxPerRoute();
+    }
+
+    class HostLimit {
+
+        /**
+         * 最小 RTT 的窗口大小
+         */
+        private static final int MIN_RTT_WINDOW = 1000;
+
+        private static final double SMOOTHING = 0.2;
+
+        private static final double BACKOFF_RATIO = 0.9;
+
+        private final int maxLimit;
+
+        private double estimatedLimit;
+
+        private int inflight;
+
+        /**
+         * 上一个窗口的最小 RTT
+         */
+        private long minRtt = Long.MAX_VALUE;
+
+        private long windowMinRtt = Long.MAX_VALUE;
+
+        private int windowSamples;
+
+        private long sampleRttSum;
+
+        private int sampleCount;
+
+        /**
+         * 本批样本中并发是否用到了一半以上
+         */
+        private boolean sampleSaturated;
+
+        HostLimit(int maxLimit) {
+            this.maxLimit = Math.max(maxLimit, limiter.getMinLimit());
+            this.estimatedLimit = this.maxLimit;
+        }
+
+        synchronized int getLimit() {
+            return (int) estimatedLimit;
+        }
+
+        synchronized int getInflight() {
+            return inflight;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (inflight >= (int) estimatedLimit) {
+                return false;
+            }
+            inflight++;
+            return true;
+        }
+
+        /**
+         * @param rttNanos 从发出请求到收到响应头的时间
+         * @param dropped  请求失败或者服务端过载
+         */
+        synchronized void release(long rttNanos, boolean dropped) {
+            int currentInflight = inflight--;
+            if (dropped) {
+                estimatedLimit = Math.max(limiter.getMinLimit(), estimatedLimit * BACKOFF_RATIO);
+                return;
+            }
+            if (rttNanos <= 0) {
+                return;
+            }
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+            if (++windowSamples >= MIN_RTT_WINDOW) {
+                minRtt = windowMinRtt;
+                windowMinRtt = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+            // 并发没有用到一半时 RTT 不能反映限制是否合适
+            sampleSaturated |= currentInflight >= estimatedLimit / 2;
+            sampleRttSum += rttNanos;
+            if (++sampleCount < Math.max(10, (int) estimatedLimit)) {
+                return;
+            }
+            double avgRtt = (double) sampleRttSum / sampleCount;
+            boolean saturated = sampleSaturated;
+            sampleRttSum = 0;
+            sampleCount = 0;
+            sampleSaturated = false;
+            if (!saturated) {
+                return;
+            }
+            long noLoadRtt = Math.min(minRtt, windowMinRtt);
+            double gradient = Math.max(0.5, Math.min(1.0, limiter.getRttTolerance() * noLoadRtt / avgRtt));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            estimatedLimit = Math.max(limiter.getMinLimit(), Math.min(maxLimit, newLimit));
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * <p>description : ConcurrencyLimitingClientHttpRequestFactory，每次发出请求前从 {@link ConcurrencyLimiter} 获取许可, 响应关闭时归还
+ * 位于响应缓存之下, 缓存命中的请求不占用许可; 重试和对冲请求的每一次尝试都会单独获取许可
+ * 底层请求不缓冲请求体时, 包装后的请求同样实现 {@link StreamingHttpOutputMessage}
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 11:00
+ */
+public class ConcurrencyLimitingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitingClientHttpRequestFactory(ClientHttpRequestFactory requestFactory, ConcurrencyLimiter concurrencyLimiter) {
+        this.requestFactory = requestFactory;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = requestFactory.createRequest(uri, httpMethod);
+        if (request instanceof StreamingHttpOutputMessage) {
+            return new StreamingConcurrencyLimitingClientHttpRequest(request);
+        }
+        return new ConcurrencyLimitingClientHttpRequest(request);
+    }
+
+    private class ConcurrencyLimitingClientHttpRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+
+        ConcurrencyLimitingClientHttpRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ConcurrencyLimiter.HostLimit hostLimit = concurrencyLimiter.acquire(request.getURI());
+            long start = System.nanoTime();
+            ClientHttpResponse response = null;
+            try {
+                response = request.execute();
+                long rtt = System.nanoTime() - start;
+                int status = response.getRawStatusCode();
+                boolean dropped = status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+                return new PermitReleasingClientHttpResponse(response, hostLimit, rtt, dropped);
+            } catch (IOException | RuntimeException e) {
+                if (response != null) {
+                    response.close();
+                }
+                hostLimit.release(0, true);
+                throw e;
+            }
+        }
+
+    }
+
+    private class StreamingConcurrencyLimitingClientHttpRequest extends ConcurrencyLimitingClientHttpRequest implements StreamingHttpOutputMessage {
+
+        private final StreamingHttpOutputMessage request;
+
+        StreamingConcurrencyLimitingClientHttpRequest(ClientHttpRequest request) {
+            super(request);
+            this.request = (StreamingHttpOutputMessage) request;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            request.setBody(body);
+        }
+
+    }
+
+    /**
+     * 读取响应体期间仍然占用连接, 所以在 close 时才归还许可
+     */
+    private static class PermitReleasingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final ConcurrencyLimiter.HostLimit hostLimit;
+
+        private final long rtt;
+
+        private final boolean dropped;
+
+        private boolean released;
+
+        PermitReleasingClientHttpResponse(ClientHttpResponse response, ConcurrencyLimiter.HostLimit hostLimit, long rtt, boolean dropped) {
+            this.response = response;
+            this.hostLimit = hostLimit;
+            this.rtt = rtt;
+            this.dropped = dropped;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                synchronized (this) {
+                    if (!released) {
+                        released = true;
+                        hostLimit.release(rtt, dropped);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>description : ConnectionPoolEndpoint，/actuator/httpclientpool, 实时查看连接池状态
+ * 需要通过 management.endpoints.web.exposure.include 暴露
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 11:10
+ */
+@Endpoint(id = "httpclientpool")
+public class ConnectionPoolEndpoint {
+
+    private final Collection<ConnectionPoolStatsProvider> providers;
+
+    public ConnectionPoolEndpoint(Collection<ConnectionPoolStatsProvider> providers) {
+        this.providers = providers;
+    }
+
+    @ReadOperation
+    public List<ConnectionPoolStats> connectionPools() {
+        List<ConnectionPoolStats> stats = new ArrayList<>();
+        for (ConnectionPoolStatsProvider provider : providers) {
+            stats.addAll(provider.getConnectionPoolStats());
+        }
+        return stats;
+    }
+
+}
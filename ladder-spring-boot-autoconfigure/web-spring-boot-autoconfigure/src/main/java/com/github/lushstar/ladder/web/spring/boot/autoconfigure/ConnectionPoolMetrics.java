@@ -0,0 +1,108 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * <p>description : ConnectionPoolMetrics，将连接池状态发布为 Micrometer 指标
+ * ladder.http.client.pool.leased/available/pending/max/max.idle/running/queued, tag 为 pool 和 route,
+ * 连接池没有的项(例如 OkHttp 的 max)不发布
+ * 路由是在请求过程中才出现的, 所以按 metricsRefreshInterval 定时刷新, 消失的路由会被移除
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 10:40
+ */
+@Slf4j
+public class ConnectionPoolMetrics implements MeterBinder, Closeable {
+
+    private final Collection<ConnectionPoolStatsProvider> providers;
+
+    private final long refreshInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    public ConnectionPoolMetrics(Collection<ConnectionPoolStatsProvider> providers, long refreshInterval) {
+        this.providers = providers;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        MultiGauge leased = this.multiGauge(registry, "leased", "已借出的连接数", "connections");
+        MultiGauge available = this.multiGauge(registry, "available", "空闲可用的连接数", "connections");
+        MultiGauge pending = this.multiGauge(registry, "pending", "等待获取连接的请求数", "requests");
+        MultiGauge max = this.multiGauge(registry, "max", "最大连接数", "connections");
+        MultiGauge maxIdle = this.multiGauge(registry, "max.idle", "最大空闲连接数", "connections");
+        MultiGauge running = this.multiGauge(registry, "running", "Dispatcher 正在执行的调用数", "calls");
+        MultiGauge queued = this.multiGauge(registry, "queued", "Dispatcher 排队等待执行的调用数", "calls");
+        Runnable refresh = () -> {
+            try {
+                List<ConnectionPoolStats> stats = new ArrayList<>();
+                for (ConnectionPoolStatsProvider provider : providers) {
+                    stats.addAll(provider.getConnectionPoolStats());
+                }
+                leased.register(this.rows(stats, ConnectionPoolStats::getLeased), true);
+                available.register(this.rows(stats, ConnectionPoolStats::getAvailable), true);
+                pending.register(this.rows(stats, ConnectionPoolStats::getPending), true);
+                max.register(this.rows(stats, ConnectionPoolStats::getMax), true);
+                maxIdle.register(this.rows(stats, ConnectionPoolStats::getMaxIdle), true);
+                running.register(this.rows(stats, ConnectionPoolStats::getRunning), true);
+                queued.register(this.rows(stats, ConnectionPoolStats::getQueued), true);
+            } catch (Exception e) {
+                log.warn("refresh connection pool metrics error", e);
+            }
+        };
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ladder-http-pool-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduler.scheduleWithFixedDelay(refresh, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private MultiGauge multiGauge(MeterRegistry registry, String name, String description, String baseUnit) {
+        return MultiGauge.builder("ladder.http.client.pool." + name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(registry);
+    }
+
+    /**
+     * 值为 null 的连接池没有该项, 不发布
+     */
+    private List<MultiGauge.Row<?>> rows(List<ConnectionPoolStats> stats, Function<ConnectionPoolStats, Integer> value) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(stats.size());
+        for (ConnectionPoolStats stat : stats) {
+            Integer number = value.apply(stat);
+            if (number != null) {
+                rows.add(MultiGauge.Row.of(Tags.of("pool", stat.getPool(), "route", stat.getRoute()), number));
+            }
+        }
+        return rows;
+    }
+
+}
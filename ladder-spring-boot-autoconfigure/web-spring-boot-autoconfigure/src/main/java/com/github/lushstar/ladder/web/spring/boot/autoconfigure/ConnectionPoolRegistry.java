@@ -0,0 +1,40 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>description : ConnectionPoolRegistry，记录 RestTemplateFactory 创建的连接池
+ * 供 ConnectionPoolStatsProvider 使用, 重名时依次追加序号
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 10:30
+ */
+class ConnectionPoolRegistry<P> {
+
+    private final Map<String, P> pools = new LinkedHashMap<>();
+
+    synchronized String register(String name, P pool) {
+        String key = name;
+        for (int i = 2; pools.containsKey(key); i++) {
+            key = name + "-" + i;
+        }
+        pools.put(key, pool);
+        return key;
+    }
+
+    /**
+     * 连接池关闭后清除, 之后重新创建的连接池仍然使用原来的名称
+     */
+    synchronized void clear() {
+        pools.clear();
+    }
+
+    synchronized Map<String, P> getPools() {
+        return new LinkedHashMap<>(pools);
+    }
+
+}
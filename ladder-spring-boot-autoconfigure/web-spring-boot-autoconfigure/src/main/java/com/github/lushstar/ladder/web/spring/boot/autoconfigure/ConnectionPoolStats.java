@@ -0,0 +1,80 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>description : ConnectionPoolStats，某个连接池在某一路路由(或者汇总)上的连接使用情况
+ * OkHttp 没有连接数上限和等待连接的概念, leased 为正在使用的连接数, pending 恒为 0, max 为 null,
+ * maxIdle 为 ConnectionPool 保留的最大空闲连接数, running、queued 为 Dispatcher 中的调用数; 其他连接池这三项为 null
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 10:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionPoolStats {
+
+    /**
+     * 汇总所有路由时 route 的取值
+     */
+    public static final String TOTAL_ROUTE = "total";
+
+    /**
+     * 连接池名称, 如 httpClient、sslHttpClient
+     */
+    private String pool;
+
+    /**
+     * 路由, 如 https://example.com:443, 汇总时为 total
+     */
+    private String route;
+
+    /**
+     * 已借出的连接数
+     */
+    private int leased;
+
+    /**
+     * 空闲可用的连接数
+     */
+    private int available;
+
+    /**
+     * 等待获取连接的请求数
+     */
+    private int pending;
+
+    /**
+     * 最大连接数, 没有上限时为 null
+     */
+    private Integer max;
+
+    /**
+     * 最大空闲连接数, 只有 OkHttp 单独限制空闲连接数, 其他为 null
+     */
+    private Integer maxIdle;
+
+    /**
+     * OkHttp Dispatcher 正在执行的调用数, 包括同步和异步调用, 其他为 null
+     */
+    private Integer running;
+
+    /**
+     * OkHttp Dispatcher 中排队等待执行的异步调用数, 其他为 null
+     */
+    private Integer queued;
+
+    /**
+     * 有最大连接数限制的连接池使用
+     */
+    public ConnectionPoolStats(String pool, String route, int leased, int available, int pending, int max) {
+        this(pool, route, leased, available, pending, max, null, null, null);
+    }
+
+}
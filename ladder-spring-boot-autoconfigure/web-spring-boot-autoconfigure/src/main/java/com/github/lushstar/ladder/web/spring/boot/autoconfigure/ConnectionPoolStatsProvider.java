@@ -0,0 +1,23 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.util.List;
+
+/**
+ * <p>description : ConnectionPoolStatsProvider，由 RestTemplateFactory 实现, 对外暴露其创建的连接池状态
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 10:25
+ */
+public interface ConnectionPoolStatsProvider {
+
+    /**
+     * 获取当前所有连接池的状态, 每个连接池包含一条汇总记录和每一路路由的记录
+     *
+     * @return {@link ConnectionPoolStats}
+     */
+    List<ConnectionPoolStats> getConnectionPoolStats();
+
+}
@@ -0,0 +1,235 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>description : HttpClient5ClientHttpRequestFactory，Spring 5.1 没有 HttpClient 5 的 ClientHttpRequestFactory, 这里基于异步客户端实现
+ * 请求体和响应体都完整地缓冲在内存中, 没有大小上限: 请求体在发送前写入 byte[], 响应体在 execute 返回前全部读入 {@link SimpleHttpResponse},
+ * 占用的内存与报文大小成正比, 只适合普通的接口调用; 大文件上传、下载不要使用 httpClient5 类型,
+ * 使用 httpClient 类型的 {@link RestTemplateFactory#createStreamingRestTemplate()} 配合 {@link StreamingTransferUtils}
+ * 异步客户端不会处理 Content-Encoding, 调用方没有指定 Accept-Encoding 时与 HttpClient 4 一样协商 gzip/deflate 并透明解压
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/27 10:30
+ */
+public class HttpClient5ClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    private final Function<URI, RequestConfig> requestConfigResolver;
+
+    public HttpClient5ClientHttpRequestFactory(CloseableHttpAsyncClient httpAsyncClient) {
+        this(httpAsyncClient, uri -> null);
+    }
+
+    /**
+     * @param httpAsyncClient       {@link CloseableHttpAsyncClient}
+     * @param requestConfigResolver 请求级别的 RequestConfig, 返回 null 时使用 HttpClient 的默认配置
+     */
+    public HttpClient5ClientHttpRequestFactory(CloseableHttpAsyncClient httpAsyncClient, Function<URI, RequestConfig> requestConfigResolver) {
+        this.httpAsyncClient = httpAsyncClient;
+        this.requestConfigResolver = requestConfigResolver;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new HttpClient5ClientHttpRequest(httpAsyncClient, uri, httpMethod, requestConfigResolver.apply(uri));
+    }
+
+    private static class HttpClient5ClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final CloseableHttpAsyncClient httpAsyncClient;
+
+        private final URI uri;
+
+        private final HttpMethod method;
+
+        private final RequestConfig requestConfig;
+
+        private final ByteArrayOutputStream bufferedOutput = new ByteArrayOutputStream(1024);
+
+        HttpClient5ClientHttpRequest(CloseableHttpAsyncClient httpAsyncClient, URI uri, HttpMethod method, RequestConfig requestConfig) {
+            this.httpAsyncClient = httpAsyncClient;
+            this.uri = uri;
+            this.method = method;
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return bufferedOutput;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            SimpleHttpRequest request = SimpleHttpRequest.create(method.name(), uri);
+            if (requestConfig != null) {
+                request.setConfig(requestConfig);
+            }
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                String name = entry.getKey();
+                // 由 HttpClient 根据请求体生成, HTTP/2 中也不允许出现 Transfer-Encoding
+                if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                        || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                    continue;
+                }
+                for (String value : entry.getValue()) {
+                    request.addHeader(name, value);
+                }
+            }
+            boolean decompress = !headers.containsKey(HttpHeaders.ACCEPT_ENCODING);
+            if (decompress) {
+                request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+            }
+            byte[] body = bufferedOutput.toByteArray();
+            if (body.length > 0) {
+                String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+                request.setBody(body, contentType != null ? ContentType.parse(contentType) : ContentType.DEFAULT_BINARY);
+            }
+            try {
+                return new HttpClient5ClientHttpResponse(httpAsyncClient.execute(request, null).get(), decompress);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+
+    }
+
+    private static class HttpClient5ClientHttpResponse implements ClientHttpResponse {
+
+        private final SimpleHttpResponse response;
+
+        /**
+         * 需要解压时为 gzip 或者 deflate
+         */
+        private final String contentEncoding;
+
+        private HttpHeaders headers;
+
+        /**
+         * 解压时创建的流, close 时释放 Inflater
+         */
+        private InputStream body;
+
+        HttpClient5ClientHttpResponse(SimpleHttpResponse response, boolean decompress) {
+            this.response = response;
+            Header header = decompress ? response.getFirstHeader(HttpHeaders.CONTENT_ENCODING) : null;
+            String encoding = header != null ? header.getValue().trim().toLowerCase(Locale.ROOT) : null;
+            this.contentEncoding = "gzip".equals(encoding) || "x-gzip".equals(encoding) || "deflate".equals(encoding) ? encoding : null;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(response.getCode());
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.getCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            // HTTP/2 没有 reason phrase
+            return response.getReasonPhrase() != null ? response.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders httpHeaders = new HttpHeaders();
+                for (Header header : response.getHeaders()) {
+                    // 解压后长度和编码都已经改变
+                    if (contentEncoding != null && (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.getName())
+                            || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getName()))) {
+                        continue;
+                    }
+                    httpHeaders.add(header.getName(), header.getValue());
+                }
+                headers = httpHeaders;
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                byte[] bytes = response.getBodyBytes();
+                if (bytes == null || bytes.length == 0) {
+                    body = new ByteArrayInputStream(new byte[0]);
+                } else if (contentEncoding == null) {
+                    body = new ByteArrayInputStream(bytes);
+                } else {
+                    InputStream inputStream = new ByteArrayInputStream(bytes);
+                    body = "deflate".equals(contentEncoding) ? new InflaterInputStream(inputStream) : new GZIPInputStream(inputStream);
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    // ByteArrayInputStream 和 Inflater 关闭时不会抛出异常
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.HostnameVerificationPolicy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : HttpClient5RestTemplateFactory，基于 HttpClient 5 异步客户端, Https 通过 ALPN 协商 HTTP/2, 不支持时回退到 HTTP/1.1
+ * 连接池开启了 message multiplexing: 已经借出的 HTTP/2 连接会共享给同一路由的其他请求, 并发请求复用连接上的多个 stream,
+ * 少量连接即可承载大量并发请求; 还没有借出的 HTTP/2 连接时(例如第一次建立连接, 或者同时到达的一批请求)仍然按连接数借出,
+ * 受 maxPerRoute 限制, Http 请求仍然使用 HTTP/1.1
+ * 需要 HttpClient 5.5 及以上版本, JDK 8u252 及以上版本才支持 ALPN
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/27 11:05
+ */
+@Slf4j
+public class HttpClient5RestTemplateFactory implements RestTemplateFactory, ConnectionPoolStatsProvider {
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final KeyStoreProperties keyStoreProperties;
+
+    private final ConnectionPoolRegistry<PoolingAsyncClientConnectionManager> connectionPools = new ConnectionPoolRegistry<>();
+
+    private final IdleConnectionEvictor idleConnectionEvictor;
+
+    /**
+     * 同一个 factory 创建的 RestTemplate 共用一个客户端和连接池, 第一次使用时创建
+     */
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    private CloseableHttpAsyncClient sslHttpAsyncClient;
+
+    public HttpClient5RestTemplateFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
+        this.restTemplateProperties = restTemplateProperties;
+        this.keyStoreProperties = keyStoreProperties;
+        this.idleConnectionEvictor = new IdleConnectionEvictor(restTemplateProperties);
+    }
+
+    @Override
+    public RestTemplate createRestTemplate() {
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                new HttpClient5ClientHttpRequestFactory(this.getHttpAsyncClient(), this::getRouteRequestConfig), restTemplateProperties.getCompression()));
+    }
+
+    @Override
+    public RestTemplate createSslRestTemplate() {
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                new HttpClient5ClientHttpRequestFactory(this.getSslHttpAsyncClient(), this::getRouteRequestConfig), restTemplateProperties.getCompression()));
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        idleConnectionEvictor.close();
+        connectionPools.clear();
+        if (httpAsyncClient != null) {
+            log.info("release httpAsyncClient resource");
+            httpAsyncClient.close(CloseMode.GRACEFUL);
+            httpAsyncClient = null;
+        }
+        if (sslHttpAsyncClient != null) {
+            log.info("release sslHttpAsyncClient resource");
+            sslHttpAsyncClient.close(CloseMode.GRACEFUL);
+            sslHttpAsyncClient = null;
+        }
+    }
+
+    private synchronized CloseableHttpAsyncClient getHttpAsyncClient() {
+        if (httpAsyncClient == null) {
+            TlsStrategy tlsStrategy;
+            try {
+                tlsStrategy = ClientTlsStrategyBuilder.create().setSslContext(SSLContext.getDefault()).build();
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("HttpClient5RestTemplateFactory createRestTemplate init error", e);
+            }
+            httpAsyncClient = this.createHttpAsyncClient("httpClient5", tlsStrategy);
+        }
+        return httpAsyncClient;
+    }
+
+    private synchronized CloseableHttpAsyncClient getSslHttpAsyncClient() {
+        if (sslHttpAsyncClient == null) {
+            TlsStrategy tlsStrategy;
+            try {
+                SslParamsUtils.SslParams sslParams = SslParamsUtils.initSslParams(keyStoreProperties);
+                tlsStrategy = ClientTlsStrategyBuilder.create()
+                        .setSslContext(sslParams.sslContext)
+                        // 只使用 hostNames 校验, 与其他客户端一致
+                        .setHostVerificationPolicy(HostnameVerificationPolicy.CLIENT)
+                        .setHostnameVerifier(new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties))
+                        .build();
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("HttpClient5RestTemplateFactory createSslRestTemplate init error", e);
+            }
+            sslHttpAsyncClient = this.createHttpAsyncClient("sslHttpClient5", tlsStrategy);
+        }
+        return sslHttpAsyncClient;
+    }
+
+    @Override
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        List<ConnectionPoolStats> stats = new ArrayList<>();
+        for (Map.Entry<String, PoolingAsyncClientConnectionManager> entry : connectionPools.getPools().entrySet()) {
+            PoolingAsyncClientConnectionManager connectionManager = entry.getValue();
+            stats.add(this.toConnectionPoolStats(entry.getKey(), ConnectionPoolStats.TOTAL_ROUTE, connectionManager.getTotalStats()));
+            for (HttpRoute route : connectionManager.getRoutes()) {
+                stats.add(this.toConnectionPoolStats(entry.getKey(), route.getTargetHost().toURI(), connectionManager.getStats(route)));
+            }
+        }
+        return stats;
+    }
+
+    private ConnectionPoolStats toConnectionPoolStats(String pool, String route, PoolStats poolStats) {
+        return new ConnectionPoolStats(pool, route, poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax());
+    }
+
+    private RequestConfig buildRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(restTemplateProperties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(restTemplateProperties.getSocketTimeout()))
+                // 响应头中没有 Keep-Alive 时使用
+                .setDefaultKeepAlive(restTemplateProperties.getKeeAliveTimeMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 连接超时属于连接级别的配置, 单独配置了 connectTimeout 的路由使用各自的 ConnectionConfig
+     *
+     * @param route 路由
+     * @return {@link ConnectionConfig}
+     */
+    private ConnectionConfig buildConnectionConfig(HttpRoute route) {
+        HttpHost target = route.getTargetHost();
+        RestTemplateProperties.Route routeProperties = restTemplateProperties.getRoute(target.getSchemeName(), target.getHostName(), target.getPort());
+        Integer connectTimeout = routeProperties != null && routeProperties.getConnectTimeout() != null
+                ? routeProperties.getConnectTimeout() : restTemplateProperties.getConnectTimeout();
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                .setSocketTimeout(Timeout.ofMilliseconds(restTemplateProperties.getSocketTimeout()))
+                .build();
+    }
+
+    /**
+     * 单独配置了超时时间或者 keep-alive 的路由使用请求级别的 RequestConfig
+     *
+     * @param uri 请求地址
+     * @return 没有单独配置时返回 null, 使用 HttpClient 的默认配置
+     */
+    private RequestConfig getRouteRequestConfig(URI uri) {
+        RestTemplateProperties.Route route = restTemplateProperties.getRoute(uri);
+        if (route == null || (route.getSocketTimeout() == null && route.getKeepAliveTimeMillis() == null)) {
+            return null;
+        }
+        RequestConfig.Builder builder = RequestConfig.copy(this.buildRequestConfig());
+        if (route.getSocketTimeout() != null) {
+            builder.setResponseTimeout(Timeout.ofMilliseconds(route.getSocketTimeout()));
+        }
+        if (route.getKeepAliveTimeMillis() != null) {
+            builder.setDefaultKeepAlive(route.getKeepAliveTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
+    }
+
+    private CloseableHttpAsyncClient createHttpAsyncClient(String name, TlsStrategy tlsStrategy) {
+        AsyncClientConnectionOperator connectionOperator = new ConnectionOperatorBuilder().createConnectionOperator(tlsStrategy);
+        Map<HttpRoute, ConnectionConfig> connectionConfigs = new ConcurrentHashMap<>();
+        // 并发策略和复用策略与 PoolingAsyncClientConnectionManagerBuilder 的默认值相同, 最后一个参数开启 message multiplexing
+        PoolingAsyncClientConnectionManager connectionManager = new PoolingAsyncClientConnectionManager(
+                connectionOperator, PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, null, true) {
+
+            private final Set<HttpRoute> configuredRoutes = ConcurrentHashMap.newKeySet();
+
+            @Override
+            public Future<AsyncConnectionEndpoint> lease(String id, HttpRoute route, Object state, Timeout requestTimeout,
+                                                         FutureCallback<AsyncConnectionEndpoint> callback) {
+                // 路由在第一次请求时才确定, 此时设置单独配置的最大连接数
+                if (configuredRoutes.add(route)) {
+                    HttpHost target = route.getTargetHost();
+                    RestTemplateProperties.Route routeProperties = restTemplateProperties.getRoute(target.getSchemeName(), target.getHostName(), target.getPort());
+                    if (routeProperties != null && routeProperties.getMaxPerRoute() != null) {
+                        this.setMaxPerRoute(route, routeProperties.getMaxPerRoute());
+                    }
+                }
+                return super.lease(id, route, state, requestTimeout, callback);
+            }
+        };
+        connectionManager.setMaxTotal(restTemplateProperties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(restTemplateProperties.getDefaultMaxPerRoute());
+        connectionManager.setConnectionConfigResolver(route -> connectionConfigs.computeIfAbsent(route, this::buildConnectionConfig));
+        connectionManager.setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build());
+        connectionPools.register(name, connectionManager);
+        idleConnectionEvictor.register(name, () -> {
+            connectionManager.closeExpired();
+            connectionManager.closeIdle(TimeValue.ofSeconds(restTemplateProperties.getIdleTimeout()));
+        });
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(this.buildRequestConfig())
+                .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * 带 message multiplexing 参数的 PoolingAsyncClientConnectionManager 构造器需要 AsyncClientConnectionOperator,
+     * 默认实现不是 public 的, 通过 Builder 创建
+     */
+    private static class ConnectionOperatorBuilder extends PoolingAsyncClientConnectionManagerBuilder {
+
+        private AsyncClientConnectionOperator createConnectionOperator(TlsStrategy tlsStrategy) {
+            return this.createConnectionOperator(tlsStrategy, null, null);
+        }
+
+    }
+
+}
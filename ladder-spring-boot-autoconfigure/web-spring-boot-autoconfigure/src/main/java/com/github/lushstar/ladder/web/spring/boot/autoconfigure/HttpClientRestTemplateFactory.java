@@ -1,12 +1,15 @@
 package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
-import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -14,13 +17,20 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PreDestroy;
 import javax.net.ssl.SSLContext;
-import java.util.concurrent.Executors;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -33,66 +43,149 @@ import java.util.concurrent.TimeUnit;
  * @date : 2020/4/8 11:43
  */
 @Slf4j
-public class HttpClientRestTemplateFactory implements RestTemplateFactory {
+public class HttpClientRestTemplateFactory implements RestTemplateFactory, ConnectionPoolStatsProvider {
 
     private final RestTemplateProperties restTemplateProperties;
 
     private final KeyStoreProperties keyStoreProperties;
 
-    private CloseableHttpClient httpClient = null;
+    private final ConnectionPoolRegistry<PoolingHttpClientConnectionManager> connectionPools = new ConnectionPoolRegistry<>();
 
-    private CloseableHttpClient sslHttpClient = null;
+    private final IdleConnectionEvictor idleConnectionEvictor;
+
+    /**
+     * 同一个 factory 创建的 RestTemplate 共用一个 HttpClient 和连接池, 第一次使用时创建
+     */
+    private CloseableHttpClient httpClient;
+
+    private CloseableHttpClient sslHttpClient;
 
     public HttpClientRestTemplateFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
         this.restTemplateProperties = restTemplateProperties;
         this.keyStoreProperties = keyStoreProperties;
+        this.idleConnectionEvictor = new IdleConnectionEvictor(restTemplateProperties);
     }
 
     @Override
     public RestTemplate createRestTemplate() {
-        HttpClientConnectionManager connectionManager;
-        try {
-            connectionManager = this.createConnectionManager();
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw new RuntimeException("HttpClientRestTemplateFactory createSslRestTemplate init error", e);
-        }
-        httpClient = HttpClients.custom()
-                .setDefaultRequestConfig(this.buildRequestConfig())
-                .setConnectionManager(connectionManager)
-                .setKeepAliveStrategy(connectionKeepAliveStrategy())
-                .build();
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                this.createRequestFactory(this.getHttpClient()), restTemplateProperties.getCompression()));
     }
 
     @Override
     public RestTemplate createSslRestTemplate() {
-        HttpClientConnectionManager sslConnectionManager;
-        try {
-            sslConnectionManager = this.createSslConnectionManager();
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw new RuntimeException("HttpClientRestTemplateFactory createSslRestTemplate init error", e);
-        }
-        sslHttpClient = HttpClients.custom()
-                .setDefaultRequestConfig(this.buildRequestConfig())
-                .setConnectionManager(sslConnectionManager)
-                .setKeepAliveStrategy(connectionKeepAliveStrategy())
-                .setSSLHostnameVerifier(new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties))
-                .build();
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(sslHttpClient));
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                this.createRequestFactory(this.getSslHttpClient()), restTemplateProperties.getCompression()));
+    }
+
+    /**
+     * 不缓冲的请求只能通过 {@link org.springframework.http.StreamingHttpOutputMessage} 写入请求体, 所以不使用请求体压缩
+     *
+     * @return {@link RestTemplate}
+     */
+    @Override
+    public RestTemplate createStreamingRestTemplate() {
+        HttpComponentsClientHttpRequestFactory requestFactory = this.createRequestFactory(this.getHttpClient());
+        requestFactory.setBufferRequestBody(false);
+        return new RestTemplate(requestFactory);
     }
 
     @PreDestroy
-    public void close() throws Exception {
+    public synchronized void close() throws Exception {
+        idleConnectionEvictor.close();
+        connectionPools.clear();
         if (httpClient != null) {
             log.info("release httpClient resource");
             httpClient.close();
+            httpClient = null;
         }
         if (sslHttpClient != null) {
             log.info("release sslHttpClient resource");
             sslHttpClient.close();
+            sslHttpClient = null;
+        }
+    }
+
+    private synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            PoolingHttpClientConnectionManager connectionManager;
+            try {
+                connectionManager = this.createConnectionManager("httpClient");
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("HttpClientRestTemplateFactory createRestTemplate init error", e);
+            }
+            httpClient = HttpClients.custom()
+                    .setDefaultRequestConfig(this.buildRequestConfig())
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(connectionKeepAliveStrategy())
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private synchronized CloseableHttpClient getSslHttpClient() {
+        if (sslHttpClient == null) {
+            PoolingHttpClientConnectionManager sslConnectionManager;
+            try {
+                sslConnectionManager = this.createSslConnectionManager("sslHttpClient");
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("HttpClientRestTemplateFactory createSslRestTemplate init error", e);
+            }
+            sslHttpClient = HttpClients.custom()
+                    .setDefaultRequestConfig(this.buildRequestConfig())
+                    .setConnectionManager(sslConnectionManager)
+                    .setKeepAliveStrategy(connectionKeepAliveStrategy())
+                    .setSSLHostnameVerifier(new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties))
+                    .build();
         }
+        return sslHttpClient;
+    }
+
+    @Override
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        List<ConnectionPoolStats> stats = new ArrayList<>();
+        for (Map.Entry<String, PoolingHttpClientConnectionManager> entry : connectionPools.getPools().entrySet()) {
+            PoolingHttpClientConnectionManager connectionManager = entry.getValue();
+            stats.add(this.toConnectionPoolStats(entry.getKey(), ConnectionPoolStats.TOTAL_ROUTE, connectionManager.getTotalStats()));
+            for (HttpRoute route : connectionManager.getRoutes()) {
+                stats.add(this.toConnectionPoolStats(entry.getKey(), route.getTargetHost().toURI(), connectionManager.getStats(route)));
+            }
+        }
+        return stats;
+    }
+
+    private ConnectionPoolStats toConnectionPoolStats(String pool, String route, PoolStats poolStats) {
+        return new ConnectionPoolStats(pool, route, poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax());
+    }
+
+    /**
+     * 单独配置了超时时间的路由, 通过 HttpContext 传入请求级别的 RequestConfig, 优先于 HttpClient 的默认配置
+     *
+     * @param httpClient {@link CloseableHttpClient}
+     * @return {@link HttpComponentsClientHttpRequestFactory}
+     */
+    private HttpComponentsClientHttpRequestFactory createRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+                RestTemplateProperties.Route route = restTemplateProperties.getRoute(uri);
+                if (route == null || (route.getConnectTimeout() == null && route.getSocketTimeout() == null)) {
+                    return null;
+                }
+                RequestConfig.Builder builder = RequestConfig.copy(buildRequestConfig());
+                if (route.getConnectTimeout() != null) {
+                    builder.setConnectTimeout(route.getConnectTimeout());
+                }
+                if (route.getSocketTimeout() != null) {
+                    builder.setSocketTimeout(route.getSocketTimeout());
+                }
+                HttpClientContext context = HttpClientContext.create();
+                context.setRequestConfig(builder.build());
+                return context;
+            }
+        };
     }
 
     private RequestConfig buildRequestConfig() {
@@ -103,54 +196,65 @@ public class HttpClientRestTemplateFactory implements RestTemplateFactory {
                 .build();
     }
 
-    private HttpClientConnectionManager createConnectionManager() throws Exception {
+    private PoolingHttpClientConnectionManager createConnectionManager(String name) throws Exception {
         ConnectionSocketFactory connectionSocketFactory = new SSLConnectionSocketFactory(SSLContext.getDefault());
-        return this.getPoolingHttpClientConnectionManager(connectionSocketFactory);
+        return this.getPoolingHttpClientConnectionManager(name, connectionSocketFactory);
     }
 
-    private HttpClientConnectionManager createSslConnectionManager() throws Exception {
+    private PoolingHttpClientConnectionManager createSslConnectionManager(String name) throws Exception {
         SslParamsUtils.SslParams sslParams = SslParamsUtils.initSslParams(keyStoreProperties);
+        // 协议为 null 时使用 JVM 启用的协议, 不再固定 TLSv1
         SSLConnectionSocketFactory sslConnectionSocketFactory = new SSLConnectionSocketFactory(
-                sslParams.sslContext, new String[]{"TLSv1"}, null, SSLConnectionSocketFactory.getDefaultHostnameVerifier());
-        HttpClientConnectionManager connectionManager = this.getPoolingHttpClientConnectionManager(sslConnectionSocketFactory);
+                sslParams.sslContext, null, null, SSLConnectionSocketFactory.getDefaultHostnameVerifier());
+        PoolingHttpClientConnectionManager connectionManager = this.getPoolingHttpClientConnectionManager(name, sslConnectionSocketFactory);
         log.info("Pooling Connection Manager Initialisation success");
         return connectionManager;
     }
 
-    private HttpClientConnectionManager getPoolingHttpClientConnectionManager(ConnectionSocketFactory connectionSocketFactory) {
+    private PoolingHttpClientConnectionManager getPoolingHttpClientConnectionManager(String name, ConnectionSocketFactory connectionSocketFactory) {
         Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
                 .register("https", connectionSocketFactory)
                 .register("http", new PlainConnectionSocketFactory())
                 .build();
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry) {
+
+            private final Set<HttpRoute> configuredRoutes = ConcurrentHashMap.newKeySet();
+
+            @Override
+            public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+                // 路由在第一次请求时才确定, 此时设置单独配置的最大连接数
+                if (configuredRoutes.add(route)) {
+                    HttpHost target = route.getTargetHost();
+                    RestTemplateProperties.Route routeProperties = restTemplateProperties.getRoute(target.getSchemeName(), target.getHostName(), target.getPort());
+                    if (routeProperties != null && routeProperties.getMaxPerRoute() != null) {
+                        this.setMaxPerRoute(route, routeProperties.getMaxPerRoute());
+                    }
+                }
+                return super.requestConnection(route, state);
+            }
+        };
         // 设置连接池信息
         connectionManager.setMaxTotal(restTemplateProperties.getMaxTotal());
         connectionManager.setDefaultMaxPerRoute(restTemplateProperties.getDefaultMaxPerRoute());
+        connectionPools.register(name, connectionManager);
         // 加入监控
-        this.idleConnectionMonitor(connectionManager);
+        this.idleConnectionMonitor(name, connectionManager);
         return connectionManager;
     }
 
     /**
      * 空闲连接监控策略
      *
+     * @param name                     连接池名称
      * @param poolingConnectionManager 连接池
      */
-    private void idleConnectionMonitor(PoolingHttpClientConnectionManager poolingConnectionManager) {
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                if (poolingConnectionManager != null) {
-                    log.info("run idleConnectionMonitor - Closing expired and idle connections...");
-                    // 关闭过期连接
-                    poolingConnectionManager.closeExpiredConnections();
-                    // 关闭空闲连接
-                    poolingConnectionManager.closeIdleConnections(restTemplateProperties.getIdleTimeout(), TimeUnit.SECONDS);
-                } else {
-                    log.info("run idleConnectionMonitor - Http Client Connection manager is not initialised");
-                }
-            }
-        }, restTemplateProperties.getInitialDelay(), restTemplateProperties.getDelay(), TimeUnit.SECONDS);
+    private void idleConnectionMonitor(String name, PoolingHttpClientConnectionManager poolingConnectionManager) {
+        idleConnectionEvictor.register(name, () -> {
+            // 关闭过期连接
+            poolingConnectionManager.closeExpiredConnections();
+            // 关闭空闲连接
+            poolingConnectionManager.closeIdleConnections(restTemplateProperties.getIdleTimeout(), TimeUnit.SECONDS);
+        });
     }
 
     /**
@@ -165,7 +269,11 @@ public class HttpClientRestTemplateFactory implements RestTemplateFactory {
                 // HttpClient 默认的策略是从响应头获取, 获取不到会返回 -1, 表示永久
                 long keepAlive = super.getKeepAliveDuration(response, context);
                 if (keepAlive == -1) {
-                    keepAlive = restTemplateProperties.getKeeAliveTimeMillis();
+                    HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+                    RestTemplateProperties.Route route = target == null ? null
+                            : restTemplateProperties.getRoute(target.getSchemeName(), target.getHostName(), target.getPort());
+                    keepAlive = route != null && route.getKeepAliveTimeMillis() != null
+                            ? route.getKeepAliveTimeMillis() : restTemplateProperties.getKeeAliveTimeMillis();
                 }
                 return keepAlive;
             }
@@ -0,0 +1,109 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>description : HttpResponseCache，按响应体大小限制的 LRU 响应缓存, 由 {@link CachingClientHttpRequestFactory} 使用
+ * 超过 maxSize 时淘汰最久未访问的响应
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 10:10
+ */
+public class HttpResponseCache {
+
+    private final String name;
+
+    private final long maxSize;
+
+    private final long maxEntrySize;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong revalidatedCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param name         缓存名称, 用于指标
+     * @param maxSize      缓存占用的最大字节数
+     * @param maxEntrySize 单个响应超过该字节数时不缓存
+     */
+    public HttpResponseCache(String name, long maxSize, long maxEntrySize) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxEntrySize = Math.min(maxEntrySize, maxSize);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public HttpResponseCacheStats getStats() {
+        synchronized (this) {
+            return new HttpResponseCacheStats(name, hitCount.get(), revalidatedCount.get(), missCount.get(),
+                    evictionCount.get(), entries.size(), size);
+        }
+    }
+
+    /**
+     * 清空缓存, 统计数据保留
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, CachedResponse response) {
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            size -= previous.getWeight();
+        }
+        size += response.getWeight();
+        Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().getValue().getWeight();
+            iterator.remove();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    synchronized void remove(String key) {
+        CachedResponse previous = entries.remove(key);
+        if (previous != null) {
+            size -= previous.getWeight();
+        }
+    }
+
+    void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    void recordRevalidated() {
+        revalidatedCount.incrementAndGet();
+    }
+
+    void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+}
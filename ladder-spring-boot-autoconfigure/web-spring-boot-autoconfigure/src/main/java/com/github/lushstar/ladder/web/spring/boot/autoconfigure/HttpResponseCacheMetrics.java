@@ -0,0 +1,59 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>description : HttpResponseCacheMetrics，将响应缓存的命中情况发布为 Micrometer 指标
+ * ladder.http.client.cache.requests(tag result 为 hit/revalidated/miss)、evictions、size、entries, tag cache 为缓存名称
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 11:30
+ */
+public class HttpResponseCacheMetrics implements MeterBinder {
+
+    private final Collection<HttpResponseCache> caches;
+
+    public HttpResponseCacheMetrics(Collection<HttpResponseCache> caches) {
+        this.caches = caches;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (HttpResponseCache cache : caches) {
+            this.requests(registry, cache, "hit", stats -> stats.getHitCount());
+            this.requests(registry, cache, "revalidated", stats -> stats.getRevalidatedCount());
+            this.requests(registry, cache, "miss", stats -> stats.getMissCount());
+            FunctionCounter.builder("ladder.http.client.cache.evictions", cache, c -> c.getStats().getEvictionCount())
+                    .description("因超过 maxSize 被淘汰的响应数")
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            Gauge.builder("ladder.http.client.cache.size", cache, c -> c.getStats().getSize())
+                    .description("缓存占用的字节数")
+                    .baseUnit("bytes")
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            Gauge.builder("ladder.http.client.cache.entries", cache, c -> c.getStats().getEntryCount())
+                    .description("缓存的响应数")
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+    }
+
+    private void requests(MeterRegistry registry, HttpResponseCache cache, String result, ToDoubleFunction<HttpResponseCacheStats> count) {
+        FunctionCounter.builder("ladder.http.client.cache.requests", cache, c -> count.applyAsDouble(c.getStats()))
+                .description("经过缓存的 GET 请求数, hit 为直接命中, revalidated 为 304 重新验证后命中")
+                .tag("cache", cache.getName())
+                .tag("result", result)
+                .register(registry);
+    }
+
+}
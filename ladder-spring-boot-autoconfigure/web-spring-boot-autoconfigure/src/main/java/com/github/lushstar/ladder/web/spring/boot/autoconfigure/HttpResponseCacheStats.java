@@ -0,0 +1,53 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>description : HttpResponseCacheStats，响应缓存的统计信息, 请求总数为 hitCount + revalidatedCount + missCount
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 10:15
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpResponseCacheStats {
+
+    private String name;
+
+    /**
+     * 直接使用缓存的次数
+     */
+    private long hitCount;
+
+    /**
+     * 缓存过期, 条件请求返回 304 后继续使用缓存的次数
+     */
+    private long revalidatedCount;
+
+    /**
+     * 请求了服务端并使用新响应的次数
+     */
+    private long missCount;
+
+    /**
+     * 因为超过 maxSize 被淘汰的响应数
+     */
+    private long evictionCount;
+
+    /**
+     * 当前缓存的响应数
+     */
+    private int entryCount;
+
+    /**
+     * 当前缓存占用的字节数
+     */
+    private long size;
+
+}
@@ -0,0 +1,69 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : IdleConnectionEvictor，定时关闭过期和空闲连接
+ * 所有连接池共用一个守护线程, 不会阻止 JVM 退出; close 时取消当前 factory 注册的任务
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/30 10:20
+ */
+@Slf4j
+class IdleConnectionEvictor implements Closeable {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+    static {
+        SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ladder-idle-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    IdleConnectionEvictor(RestTemplateProperties restTemplateProperties) {
+        this.restTemplateProperties = restTemplateProperties;
+    }
+
+    /**
+     * 按 initialDelay、delay 定时执行清理任务
+     *
+     * @param name  连接池名称, 用于日志
+     * @param evict 清理任务
+     */
+    synchronized void register(String name, Runnable evict) {
+        tasks.add(SCHEDULER.scheduleWithFixedDelay(() -> {
+            try {
+                log.debug("closing expired and idle connections of [{}]", name);
+                evict.run();
+            } catch (Exception e) {
+                log.warn("evict connections of [{}] error", name, e);
+            }
+        }, restTemplateProperties.getInitialDelay(), restTemplateProperties.getDelay(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public synchronized void close() {
+        for (ScheduledFuture<?> task : tasks) {
+            task.cancel(false);
+        }
+        tasks.clear();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>description : LadderHttpClientsProperties，按名称配置多个 RestTemplate, 每个使用独立的连接池
+ * 如 ladder.http.clients.pricing.max-total=50, 会注册 beanName 为 pricingRestTemplate、qualifier 为 pricing 的 RestTemplate
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/31 10:10
+ */
+@ConfigurationProperties(prefix = "ladder.http")
+@Data
+public class LadderHttpClientsProperties {
+
+    /**
+     * key 为客户端名称, 未配置的属性使用 ladder.http.client 中各属性的默认值, 不会继承全局配置
+     */
+    private Map<String, Client> clients = new LinkedHashMap<>();
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Client extends RestTemplateProperties {
+
+        /**
+         * 该客户端的证书配置, 配置了 trustPath 或者 clientPath、clientPassword 时创建 Https 的 RestTemplate
+         */
+        private KeyStoreProperties keystore = new KeyStoreProperties();
+
+    }
+
+}
@@ -1,12 +1,17 @@
 package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.condition.*;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.EnvironmentAware;
@@ -31,8 +36,14 @@ import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConve
 import org.springframework.http.converter.xml.SourceHttpMessageConverter;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * <p>description : RestTemplateAutoConfiguration
@@ -45,24 +56,38 @@ import java.util.Collection;
  */
 @Configuration
 @ConditionalOnClass({RestTemplate.class})
-@EnableConfigurationProperties({RestTemplateProperties.class, KeyStoreProperties.class})
+@EnableConfigurationProperties({RestTemplateProperties.class, KeyStoreProperties.class, LadderHttpClientsProperties.class})
 @Slf4j
 public class LadderRestTemplateAutoConfiguration implements EnvironmentAware, ApplicationContextAware, BeanPostProcessor {
 
     private static final String REST_TEMPLATE_BEAN_NAME = "restTemplate";
     private static final String LADDER_REST_TEMPLATE_BEAN_NAME = "ladderRestTemplate";
     private static final String SSL_REST_TEMPLATE_BEAN_NAME = "sslRestTemplate";
+    private static final String LADDER_STREAMING_REST_TEMPLATE_BEAN_NAME = "ladderStreamingRestTemplate";
+    private static final String LADDER_WEB_CLIENT_BEAN_NAME = "ladderWebClient";
+    private static final String SSL_WEB_CLIENT_BEAN_NAME = "sslWebClient";
 
     private ApplicationContext context;
 
     private Environment environment;
 
+    /**
+     * ladderRestTemplate、restTemplate、sslRestTemplate 共用, 重试预算按 host 统计
+     * ladder.http.clients 中的客户端使用各自的重试配置和预算, 不会添加这个拦截器
+     */
+    private RetryClientHttpRequestInterceptor retryInterceptor;
+
+    /**
+     * ladderRestTemplate、restTemplate、sslRestTemplate、ladderStreamingRestTemplate 共用, 实例状态按服务统计
+     */
+    private LoadBalancer loadBalancer;
+
     @Configuration
     @ConditionalOnClass({CloseableHttpClient.class})
     public static class HttpClientRestTemplateFactoryConfig {
         /**
          * 默认规则：
-         * 用户自定义 > ladder.http.client.httpClient(默认) > ladder.http.client.okHttp
+         * 用户自定义 > ladder.http.client.httpClient(默认) > ladder.http.client.okHttp > ladder.http.client.httpClient5
          *
          * @param restTemplateProperties {@link RestTemplateProperties}
          * @param keyStoreProperties     {@link KeyStoreProperties}
@@ -95,6 +120,237 @@ public class LadderRestTemplateAutoConfiguration implements EnvironmentAware, Ap
         }
     }
 
+    @Configuration
+    @ConditionalOnClass({CloseableHttpAsyncClient.class})
+    public static class HttpClient5RestTemplateFactoryConfig {
+        /**
+         * 需要开启 ladder.http.client.type=httpClient5, 支持 HTTP/2
+         *
+         * @param restTemplateProperties {@link RestTemplateProperties}
+         * @param keyStoreProperties     {@link KeyStoreProperties}
+         * @return {@link RestTemplateFactory}
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "ladder.http.client", name = "type", havingValue = "httpClient5")
+        public RestTemplateFactory httpClient5RestTemplateFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
+            return new HttpClient5RestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass({MeterBinder.class})
+    public static class ConnectionPoolMetricsConfig {
+        /**
+         * 发布连接池指标, 需要引入 micrometer
+         *
+         * @param restTemplateProperties    {@link RestTemplateProperties}
+         * @param restTemplateFactories     {@link RestTemplateFactory}
+         * @param namedRestTemplateRegistry {@link NamedRestTemplateRegistry}
+         * @return {@link ConnectionPoolMetrics}
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public ConnectionPoolMetrics ladderConnectionPoolMetrics(RestTemplateProperties restTemplateProperties,
+                                                                 ObjectProvider<RestTemplateFactory> restTemplateFactories,
+                                                                 ObjectProvider<NamedRestTemplateRegistry> namedRestTemplateRegistry) {
+            return new ConnectionPoolMetrics(getConnectionPoolStatsProviders(restTemplateFactories, namedRestTemplateRegistry),
+                    restTemplateProperties.getMetricsRefreshInterval());
+        }
+
+        /**
+         * 发布响应缓存指标, 包括 ladderHttpResponseCache 和 ladder.http.clients 中开启了 cache 的客户端
+         *
+         * @param responseCaches            {@link HttpResponseCache}
+         * @param namedRestTemplateRegistry {@link NamedRestTemplateRegistry}
+         * @return {@link HttpResponseCacheMetrics}
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public HttpResponseCacheMetrics ladderHttpResponseCacheMetrics(ObjectProvider<HttpResponseCache> responseCaches,
+                                                                       ObjectProvider<NamedRestTemplateRegistry> namedRestTemplateRegistry) {
+            List<HttpResponseCache> caches = responseCaches.orderedStream().collect(Collectors.toList());
+            namedRestTemplateRegistry.ifAvailable(registry -> caches.addAll(registry.getResponseCaches()));
+            return new HttpResponseCacheMetrics(caches);
+        }
+
+        /**
+         * 发布并发限制指标, 包括 ladderConcurrencyLimiter 和 ladder.http.clients 中开启了 limiter 的客户端
+         *
+         * @param concurrencyLimiters       {@link ConcurrencyLimiter}
+         * @param namedRestTemplateRegistry {@link NamedRestTemplateRegistry}
+         * @return {@link ConcurrencyLimitMetrics}
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public ConcurrencyLimitMetrics ladderConcurrencyLimitMetrics(ObjectProvider<ConcurrencyLimiter> concurrencyLimiters,
+                                                                     ObjectProvider<NamedRestTemplateRegistry> namedRestTemplateRegistry) {
+            List<ConcurrencyLimiter> limiters = concurrencyLimiters.orderedStream().collect(Collectors.toList());
+            namedRestTemplateRegistry.ifAvailable(registry -> limiters.addAll(registry.getConcurrencyLimiters()));
+            return new ConcurrencyLimitMetrics(limiters);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass({Endpoint.class})
+    public static class ConnectionPoolEndpointConfig {
+        /**
+         * 连接池状态的 actuator 端点, 需要引入 spring-boot-actuator
+         *
+         * @param restTemplateFactories     {@link RestTemplateFactory}
+         * @param namedRestTemplateRegistry {@link NamedRestTemplateRegistry}
+         * @return {@link ConnectionPoolEndpoint}
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public ConnectionPoolEndpoint connectionPoolEndpoint(ObjectProvider<RestTemplateFactory> restTemplateFactories,
+                                                             ObjectProvider<NamedRestTemplateRegistry> namedRestTemplateRegistry) {
+            return new ConnectionPoolEndpoint(getConnectionPoolStatsProviders(restTemplateFactories, namedRestTemplateRegistry));
+        }
+    }
+
+    private static List<ConnectionPoolStatsProvider> getConnectionPoolStatsProviders(ObjectProvider<RestTemplateFactory> restTemplateFactories,
+                                                                                      ObjectProvider<NamedRestTemplateRegistry> namedRestTemplateRegistry) {
+        List<ConnectionPoolStatsProvider> providers = restTemplateFactories.orderedStream()
+                .filter(ConnectionPoolStatsProvider.class::isInstance)
+                .map(ConnectionPoolStatsProvider.class::cast)
+                .collect(Collectors.toList());
+        namedRestTemplateRegistry.ifAvailable(providers::add);
+        return providers;
+    }
+
+    @Configuration
+    @ConditionalOnClass({WebClient.class, HttpClient.class})
+    public static class ReactorNettyWebClientFactoryConfig {
+        /**
+         * 非阻塞的 WebClient, 与 RestTemplate 使用同一套配置
+         *
+         * @param restTemplateProperties {@link RestTemplateProperties}
+         * @param keyStoreProperties     {@link KeyStoreProperties}
+         * @return {@link WebClientFactory}
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public WebClientFactory reactorNettyWebClientFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
+            return new ReactorNettyWebClientFactory(restTemplateProperties, keyStoreProperties);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass({WebClient.class})
+    public static class WebClientConfig {
+        /**
+         * 当容器中不存在 beanName 为 ladderWebClient 的 bean 时, 就往容器中注入一个
+         *
+         * @param webClientFactory        {@link WebClientFactory}
+         * @param responseErrorHandlers   {@link ResponseErrorHandler}
+         * @param exchangeFilterFunctions {@link ExchangeFilterFunction}
+         * @param webClientCustomizers    {@link WebClientCustomizer}
+         * @return {@link WebClient}
+         */
+        @Bean(LADDER_WEB_CLIENT_BEAN_NAME)
+        @ConditionalOnBean(WebClientFactory.class)
+        @ConditionalOnMissingBean(name = LADDER_WEB_CLIENT_BEAN_NAME)
+        public WebClient ladderWebClient(WebClientFactory webClientFactory,
+                                         ObjectProvider<ResponseErrorHandler> responseErrorHandlers,
+                                         ObjectProvider<ExchangeFilterFunction> exchangeFilterFunctions,
+                                         ObjectProvider<WebClientCustomizer> webClientCustomizers) {
+            return this.wrapper(webClientFactory.createWebClient(), responseErrorHandlers, exchangeFilterFunctions, webClientCustomizers);
+        }
+
+        /**
+         * 当容器中不存在 beanName 为 sslWebClient 的 bean 时, 且 trustPath 或者 clientPath、clientPassword 属性存在时, 就往容器中注入一个
+         *
+         * @param webClientFactory        {@link WebClientFactory}
+         * @param responseErrorHandlers   {@link ResponseErrorHandler}
+         * @param exchangeFilterFunctions {@link ExchangeFilterFunction}
+         * @param webClientCustomizers    {@link WebClientCustomizer}
+         * @return {@link WebClient}
+         */
+        @Bean(SSL_WEB_CLIENT_BEAN_NAME)
+        @ConditionalOnBean(WebClientFactory.class)
+        @ConditionalOnMissingBean(name = SSL_WEB_CLIENT_BEAN_NAME)
+        @ConditionalOnExpression("('${ladder.http.keystore.trust-path:null}'!='null') ||" +
+                "('${ladder.http.keystore.client-path:null}'!='null' && '${ladder.http.keystore.client-password:null}'!='null')")
+        public WebClient sslWebClient(WebClientFactory webClientFactory,
+                                      ObjectProvider<ResponseErrorHandler> responseErrorHandlers,
+                                      ObjectProvider<ExchangeFilterFunction> exchangeFilterFunctions,
+                                      ObjectProvider<WebClientCustomizer> webClientCustomizers) {
+            return this.wrapper(webClientFactory.createSslWebClient(), responseErrorHandlers, exchangeFilterFunctions, webClientCustomizers);
+        }
+
+        /**
+         * 包装 {@link WebClient}, 对应 RestTemplate 的 wrapper
+         * ClientHttpRequestInterceptor 是阻塞的, WebClient 中使用 ExchangeFilterFunction 代替；HttpMessageConverter 对应 WebClient 的 codec, 不做处理
+         *
+         * @param webClient {@link WebClient}
+         * @return {@link WebClient}
+         */
+        private WebClient wrapper(WebClient webClient,
+                                  ObjectProvider<ResponseErrorHandler> responseErrorHandlers,
+                                  ObjectProvider<ExchangeFilterFunction> exchangeFilterFunctions,
+                                  ObjectProvider<WebClientCustomizer> webClientCustomizers) {
+            WebClient.Builder builder = webClient.mutate();
+            // 与 RestTemplate 一致, 多个 ResponseErrorHandler 时最后一个生效; 放在最外层, 在其它 filter 之后处理响应
+            responseErrorHandlers.orderedStream().reduce((first, second) -> second)
+                    .ifPresent(responseErrorHandler -> builder.filter(new ResponseErrorHandlerExchangeFilter(responseErrorHandler)));
+            exchangeFilterFunctions.orderedStream().forEach(builder::filter);
+            webClientCustomizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+            return builder.build();
+        }
+    }
+
+    /**
+     * ladderRestTemplate、restTemplate、sslRestTemplate 共用的响应缓存, 需要开启 ladder.http.client.cache.enabled=true
+     *
+     * @param restTemplateProperties {@link RestTemplateProperties}
+     * @return {@link HttpResponseCache}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ladder.http.client.cache", name = "enabled", havingValue = "true")
+    public HttpResponseCache ladderHttpResponseCache(RestTemplateProperties restTemplateProperties) {
+        RestTemplateProperties.Cache cache = restTemplateProperties.getCache();
+        return new HttpResponseCache("default", cache.getMaxSize(), cache.getMaxEntrySize());
+    }
+
+    /**
+     * ladderRestTemplate、restTemplate、sslRestTemplate、ladderStreamingRestTemplate 共用的并发限制, 需要开启 ladder.http.client.limiter.enabled=true
+     *
+     * @param restTemplateProperties {@link RestTemplateProperties}
+     * @return {@link ConcurrencyLimiter}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ladder.http.client.limiter", name = "enabled", havingValue = "true")
+    public ConcurrencyLimiter ladderConcurrencyLimiter(RestTemplateProperties restTemplateProperties) {
+        return new ConcurrencyLimiter("default", restTemplateProperties);
+    }
+
+    /**
+     * 为 ladder.http.clients 中的每个客户端注册 RestTemplate, 需要在解析 bean 定义阶段执行, 所以声明为 static
+     *
+     * @return {@link NamedRestTemplateRegistrar}
+     */
+    @Bean
+    public static NamedRestTemplateRegistrar namedRestTemplateRegistrar() {
+        return new NamedRestTemplateRegistrar();
+    }
+
+    /**
+     * ladder.http.clients 中客户端的 RestTemplateFactory, 与 ladderRestTemplate 使用相同的扩展组件
+     *
+     * @param ladderHttpClientsProperties {@link LadderHttpClientsProperties}
+     * @param serviceInstanceSupplier     {@link ServiceInstanceSupplier}
+     * @return {@link NamedRestTemplateRegistry}
+     */
+    @Bean(NamedRestTemplateRegistrar.REGISTRY_BEAN_NAME)
+    @ConditionalOnMissingBean
+    public NamedRestTemplateRegistry ladderNamedRestTemplateRegistry(LadderHttpClientsProperties ladderHttpClientsProperties,
+                                                                     ObjectProvider<ServiceInstanceSupplier> serviceInstanceSupplier) {
+        return new NamedRestTemplateRegistry(ladderHttpClientsProperties.getClients(), this::wrapper, serviceInstanceSupplier.getIfUnique());
+    }
+
     /**
      * 当容器中不存在 beanName 为 ladderRestTemplate 的 bean 时, 就往容器中注入一个
      *
@@ -138,12 +394,127 @@ public class LadderRestTemplateAutoConfiguration implements EnvironmentAware, Ap
     }
 
     /**
-     * 包装 {@link RestTemplate}, 只会包装 Spring 组件中的扩展, 方便用户自定义扩展组件
+     * 当容器中不存在 beanName 为 ladderStreamingRestTemplate 的 bean 时, 且 streamingRestTemplate 属性为 true 时, 就往容器中注入一个
+     * 拦截器和响应缓存都需要缓冲整个请求体或者响应体, 所以不会添加
+     *
+     * @param restTemplateFactory {@link RestTemplateFactory}
+     * @return {@link RestTemplate}
+     */
+    @Bean(LADDER_STREAMING_REST_TEMPLATE_BEAN_NAME)
+    @ConditionalOnBean(RestTemplateFactory.class)
+    @ConditionalOnMissingBean(name = LADDER_STREAMING_REST_TEMPLATE_BEAN_NAME)
+    @ConditionalOnProperty(prefix = "ladder.http.client", name = "streaming-rest-template", havingValue = "true")
+    public RestTemplate ladderStreamingRestTemplate(RestTemplateFactory restTemplateFactory) {
+        RestTemplate restTemplate = this.loadBalance(this.limitConcurrency(restTemplateFactory.createStreamingRestTemplate()));
+        this.setErrorHandlerAndMessageConverters(restTemplate);
+        return restTemplate;
+    }
+
+    /**
+     * 包装 {@link RestTemplate}, 容器中存在唯一的 {@link HttpResponseCache} 时开启响应缓存
      *
      * @param restTemplate {@link RestTemplate}
      * @return {@link RestTemplate}
      */
     private RestTemplate wrapper(RestTemplate restTemplate) {
+        return this.retry(this.wrapper(this.loadBalance(this.limitConcurrency(restTemplate)), context.getBeanProvider(HttpResponseCache.class).getIfUnique()));
+    }
+
+    /**
+     * ladder.http.client.retry.enabled 为 true 时添加重试拦截器, 需要在添加其它拦截器之后调用
+     * 重试需要是最后一个拦截器, 每次重试都会重新经过底层的 ClientHttpRequestFactory
+     *
+     * @param restTemplate {@link RestTemplate}
+     * @return {@link RestTemplate}
+     */
+    private RestTemplate retry(RestTemplate restTemplate) {
+        RetryClientHttpRequestInterceptor retryInterceptor = this.getRetryInterceptor();
+        if (retryInterceptor != null) {
+            restTemplate.getInterceptors().add(retryInterceptor);
+        }
+        return restTemplate;
+    }
+
+    /**
+     * 配置了 services 或者容器中存在唯一的 {@link ServiceInstanceSupplier} 时开启负载均衡, 需要在并发限制之后、设置响应缓存和拦截器之前调用
+     * 并发限制因此按实例统计, 重试时会重新选择实例
+     *
+     * @param restTemplate {@link RestTemplate}
+     * @return {@link RestTemplate}
+     */
+    private RestTemplate loadBalance(RestTemplate restTemplate) {
+        LoadBalancer loadBalancer = this.getLoadBalancer();
+        if (loadBalancer != null) {
+            restTemplate.setRequestFactory(new LoadBalancingClientHttpRequestFactory(restTemplate.getRequestFactory(), loadBalancer));
+        }
+        return restTemplate;
+    }
+
+    /**
+     * 容器中存在唯一的 {@link ConcurrencyLimiter} 时开启并发限制, 需要在设置响应缓存和拦截器之前调用
+     *
+     * @param restTemplate {@link RestTemplate}
+     * @return {@link RestTemplate}
+     */
+    private RestTemplate limitConcurrency(RestTemplate restTemplate) {
+        ConcurrencyLimiter concurrencyLimiter = context.getBeanProvider(ConcurrencyLimiter.class).getIfUnique();
+        if (concurrencyLimiter != null) {
+            restTemplate.setRequestFactory(new ConcurrencyLimitingClientHttpRequestFactory(restTemplate.getRequestFactory(), concurrencyLimiter));
+        }
+        return restTemplate;
+    }
+
+    /**
+     * 包装 {@link RestTemplate}, 只会包装 Spring 组件中的扩展, 方便用户自定义扩展组件
+     * 响应缓存位于底层客户端之上、所有 ClientHttpRequestInterceptor 之后, 命中时拦截器仍然会执行
+     *
+     * @param restTemplate {@link RestTemplate}
+     * @param responseCache 响应缓存, 为 null 时不缓存
+     * @return {@link RestTemplate}
+     */
+    private RestTemplate wrapper(RestTemplate restTemplate, HttpResponseCache responseCache) {
+        if (responseCache != null) {
+            // 有拦截器时 getRequestFactory 返回的是 InterceptingClientHttpRequestFactory, 需要先取出底层的 factory
+            List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+            restTemplate.getInterceptors().clear();
+            restTemplate.setRequestFactory(new CachingClientHttpRequestFactory(restTemplate.getRequestFactory(), responseCache));
+            restTemplate.setInterceptors(interceptors);
+        }
+        this.setErrorHandlerAndMessageConverters(restTemplate);
+        // 设置 ClientHttpRequestInterceptor
+        for (ClientHttpRequestInterceptor interceptor : this.getBeansOfType(context, ClientHttpRequestInterceptor.class)) {
+            restTemplate.getInterceptors().add(interceptor);
+        }
+        return restTemplate;
+    }
+
+    private synchronized LoadBalancer getLoadBalancer() {
+        if (loadBalancer == null) {
+            RestTemplateProperties restTemplateProperties = context.getBean(RestTemplateProperties.class);
+            ServiceInstanceSupplier serviceInstanceSupplier = context.getBeanProvider(ServiceInstanceSupplier.class).getIfUnique();
+            if (!restTemplateProperties.getServices().isEmpty() || serviceInstanceSupplier != null) {
+                loadBalancer = new LoadBalancer(restTemplateProperties.getServices(), serviceInstanceSupplier);
+            }
+        }
+        return loadBalancer;
+    }
+
+    private synchronized RetryClientHttpRequestInterceptor getRetryInterceptor() {
+        if (retryInterceptor == null) {
+            RestTemplateProperties restTemplateProperties = context.getBean(RestTemplateProperties.class);
+            if (restTemplateProperties.getRetry().isEnabled()) {
+                retryInterceptor = new RetryClientHttpRequestInterceptor(restTemplateProperties);
+            }
+        }
+        return retryInterceptor;
+    }
+
+    /**
+     * 设置 Spring 组件中的 ResponseErrorHandler、HttpMessageConverter
+     *
+     * @param restTemplate {@link RestTemplate}
+     */
+    private void setErrorHandlerAndMessageConverters(RestTemplate restTemplate) {
         // 设置 ResponseErrorHandler
         for (ResponseErrorHandler responseErrorHandler : this.getBeansOfType(context, ResponseErrorHandler.class)) {
             restTemplate.setErrorHandler(responseErrorHandler);
@@ -168,11 +539,6 @@ public class LadderRestTemplateAutoConfiguration implements EnvironmentAware, Ap
             }
             restTemplate.getMessageConverters().add(httpMessageConverter);
         }
-        // 设置 ClientHttpRequestInterceptor
-        for (ClientHttpRequestInterceptor interceptor : this.getBeansOfType(context, ClientHttpRequestInterceptor.class)) {
-            restTemplate.getInterceptors().add(interceptor);
-        }
-        return restTemplate;
     }
 
     private <T> Collection<T> getBeansOfType(ApplicationContext applicationContext, Class<T> type) {
@@ -0,0 +1,205 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>description : LoadBalancer，客户端负载均衡, 请求地址的 host 为逻辑服务名称时替换为其中一个实例
+ * 选择: power of two choices, 随机取两个实例, 使用正在进行的请求数较少的一个
+ * 摘除: 连续 consecutiveFailures 次 IOException 或者 5xx 的实例摘除 baseEjectionTime * 摘除次数(最多 10 倍), 摘除比例不超过 maxEjectionPercent
+ * 所有实例都被摘除时在全部实例中选择
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/10 10:20
+ */
+@Slf4j
+public class LoadBalancer {
+
+    private static final RestTemplateProperties.Service DEFAULT_SERVICE = new RestTemplateProperties.Service();
+
+    private final Map<String, RestTemplateProperties.Service> services;
+
+    private final ServiceInstanceSupplier serviceInstanceSupplier;
+
+    /**
+     * 服务名称 -> 实例地址 -> 实例状态
+     */
+    private final Map<String, Map<String, Instance>> instances = new ConcurrentHashMap<>();
+
+    /**
+     * @param services                ladder.http.client.services
+     * @param serviceInstanceSupplier 实例列表, 可以为 null
+     */
+    public LoadBalancer(Map<String, RestTemplateProperties.Service> services, ServiceInstanceSupplier serviceInstanceSupplier) {
+        this.services = services;
+        this.serviceInstanceSupplier = serviceInstanceSupplier;
+    }
+
+    /**
+     * @param service 逻辑服务名称
+     * @param address 实例地址
+     * @return 该实例正在进行的请求数, 不存在时返回 0
+     */
+    public int getInflight(String service, String address) {
+        Instance instance = instances.getOrDefault(service, Collections.emptyMap()).get(address);
+        return instance == null ? 0 : instance.inflight.get();
+    }
+
+    /**
+     * @param service 逻辑服务名称
+     * @param address 实例地址
+     * @return 该实例当前是否被摘除
+     */
+    public boolean isEjected(String service, String address) {
+        Instance instance = instances.getOrDefault(service, Collections.emptyMap()).get(address);
+        return instance != null && instance.isEjected(System.currentTimeMillis());
+    }
+
+    /**
+     * @param service 请求地址中的 host
+     * @return 不是逻辑服务时返回 null
+     */
+    Instance choose(String service) {
+        if (service == null) {
+            return null;
+        }
+        List<String> addresses = serviceInstanceSupplier != null ? serviceInstanceSupplier.getInstances(service) : null;
+        RestTemplateProperties.Service config = services.get(service);
+        if ((addresses == null || addresses.isEmpty()) && config != null) {
+            addresses = config.getAddresses();
+        }
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        Map<String, Instance> states = instances.computeIfAbsent(service, key -> new ConcurrentHashMap<>());
+        // 实例列表变化后清理下线的实例
+        if (states.size() > addresses.size()) {
+            states.keySet().retainAll(addresses);
+        }
+        long now = System.currentTimeMillis();
+        List<Instance> all = new ArrayList<>(addresses.size());
+        List<Instance> candidates = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            Instance instance = states.computeIfAbsent(address, key -> new Instance(service, key));
+            all.add(instance);
+            if (!instance.isEjected(now)) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = all;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = candidates.get(first);
+        Instance b = candidates.get(second);
+        return b.inflight.get() < a.inflight.get() ? b : a;
+    }
+
+    void onSuccess(Instance instance) {
+        instance.consecutiveFailures.set(0);
+        if (instance.ejectionCount > 0 && !instance.isEjected(System.currentTimeMillis())) {
+            instance.ejectionCount = 0;
+        }
+    }
+
+    void onFailure(Instance instance) {
+        RestTemplateProperties.Service config = services.getOrDefault(instance.service, DEFAULT_SERVICE);
+        if (instance.consecutiveFailures.incrementAndGet() < config.getConsecutiveFailures()) {
+            return;
+        }
+        Map<String, Instance> states = instances.getOrDefault(instance.service, Collections.emptyMap());
+        synchronized (states) {
+            long now = System.currentTimeMillis();
+            if (instance.isEjected(now)) {
+                return;
+            }
+            long ejected = states.values().stream().filter(state -> state.isEjected(now)).count();
+            if ((ejected + 1) * 100 > (long) config.getMaxEjectionPercent() * states.size()) {
+                return;
+            }
+            instance.ejectionCount = Math.min(instance.ejectionCount + 1, 10);
+            instance.ejectedUntil = now + config.getBaseEjectionTime() * instance.ejectionCount;
+            instance.consecutiveFailures.set(0);
+            log.warn("instance [{}] of service [{}] ejected for {}ms", instance.address, instance.service,
+                    config.getBaseEjectionTime() * instance.ejectionCount);
+        }
+    }
+
+    static class Instance {
+
+        private final String service;
+
+        private final String address;
+
+        private final String host;
+
+        private final int port;
+
+        private final AtomicInteger inflight = new AtomicInteger();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private volatile long ejectedUntil;
+
+        /**
+         * 连续被摘除的次数, 恢复后第一次成功时清零
+         */
+        private volatile int ejectionCount;
+
+        Instance(String service, String address) {
+            this.service = service;
+            this.address = address;
+            URI uri = URI.create("//" + address);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("invalid address [" + address + "] of service [" + service + "]");
+            }
+            this.host = uri.getHost();
+            this.port = uri.getPort();
+        }
+
+        boolean isEjected(long now) {
+            return ejectedUntil > now;
+        }
+
+        /**
+         * 替换 host 和 port, 实例没有配置端口时保留原来的端口
+         */
+        URI resolve(URI uri) {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri).host(host);
+            if (port != -1) {
+                builder.port(port);
+            }
+            return builder.build(true).toUri();
+        }
+
+        void acquire() {
+            inflight.incrementAndGet();
+        }
+
+        void release() {
+            inflight.decrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * <p>description : LoadBalancingClientHttpRequestFactory，创建请求时通过 {@link LoadBalancer} 把逻辑服务名称替换为实例地址
+ * 位于响应缓存之下、并发限制之上, 缓存按逻辑地址命中, 并发限制按实例统计; 每次重试都会重新选择实例
+ * 底层请求不缓冲请求体时, 包装后的请求同样实现 {@link StreamingHttpOutputMessage}
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/10 11:00
+ */
+public class LoadBalancingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    private final LoadBalancer loadBalancer;
+
+    public LoadBalancingClientHttpRequestFactory(ClientHttpRequestFactory requestFactory, LoadBalancer loadBalancer) {
+        this.requestFactory = requestFactory;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        LoadBalancer.Instance instance = loadBalancer.choose(uri.getHost());
+        if (instance == null) {
+            return requestFactory.createRequest(uri, httpMethod);
+        }
+        ClientHttpRequest request = requestFactory.createRequest(instance.resolve(uri), httpMethod);
+        if (request instanceof StreamingHttpOutputMessage) {
+            return new StreamingLoadBalancedClientHttpRequest(request, instance);
+        }
+        return new LoadBalancedClientHttpRequest(request, instance);
+    }
+
+    private class LoadBalancedClientHttpRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+
+        private final LoadBalancer.Instance instance;
+
+        LoadBalancedClientHttpRequest(ClientHttpRequest request, LoadBalancer.Instance instance) {
+            this.request = request;
+            this.instance = instance;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return request.getMethodValue();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            instance.acquire();
+            ClientHttpResponse response = null;
+            try {
+                response = request.execute();
+                if (response.getRawStatusCode() >= 500) {
+                    loadBalancer.onFailure(instance);
+                } else {
+                    loadBalancer.onSuccess(instance);
+                }
+                return new InstanceReleasingClientHttpResponse(response, instance);
+            } catch (ConcurrencyLimitExceededException e) {
+                // 请求没有发出, 不算实例故障
+                instance.release();
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                if (response != null) {
+                    response.close();
+                }
+                loadBalancer.onFailure(instance);
+                instance.release();
+                throw e;
+            }
+        }
+
+    }
+
+    private class StreamingLoadBalancedClientHttpRequest extends LoadBalancedClientHttpRequest implements StreamingHttpOutputMessage {
+
+        private final StreamingHttpOutputMessage request;
+
+        StreamingLoadBalancedClientHttpRequest(ClientHttpRequest request, LoadBalancer.Instance instance) {
+            super(request, instance);
+            this.request = (StreamingHttpOutputMessage) request;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            request.setBody(body);
+        }
+
+    }
+
+    /**
+     * 读取响应体期间仍然算作正在进行的请求, 所以在 close 时才减少计数
+     */
+    private static class InstanceReleasingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final LoadBalancer.Instance instance;
+
+        private boolean released;
+
+        InstanceReleasingClientHttpResponse(ClientHttpResponse response, LoadBalancer.Instance instance) {
+            this.response = response;
+            this.instance = instance;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                synchronized (this) {
+                    if (!released) {
+                        released = true;
+                        instance.release();
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>description : NamedRestTemplateRegistrar，为 ladder.http.clients 中的每个客户端注册一个懒加载的 RestTemplate
+ * beanName 为 {name}RestTemplate, qualifier 为 {name}, 由 {@link NamedRestTemplateRegistry#createRestTemplate(String)} 创建
+ * 容器中已经存在同名 bean 时跳过
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/31 10:30
+ */
+@Slf4j
+public class NamedRestTemplateRegistrar implements BeanDefinitionRegistryPostProcessor, EnvironmentAware {
+
+    static final String REGISTRY_BEAN_NAME = "ladderNamedRestTemplateRegistry";
+
+    private static final String BEAN_NAME_SUFFIX = "RestTemplate";
+
+    private Environment environment;
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        Map<String, LadderHttpClientsProperties.Client> clients = Binder.get(environment)
+                .bind("ladder.http.clients", Bindable.mapOf(String.class, LadderHttpClientsProperties.Client.class))
+                .orElse(Collections.emptyMap());
+        for (String name : clients.keySet()) {
+            String beanName = name + BEAN_NAME_SUFFIX;
+            if (registry.containsBeanDefinition(beanName)) {
+                log.info("bean [{}] already exists, skip ladder.http.clients.{}", beanName, name);
+                continue;
+            }
+            RootBeanDefinition beanDefinition = new RootBeanDefinition(RestTemplate.class);
+            beanDefinition.setFactoryBeanName(REGISTRY_BEAN_NAME);
+            beanDefinition.setFactoryMethodName("createRestTemplate");
+            beanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, name);
+            beanDefinition.setLazyInit(true);
+            beanDefinition.addQualifier(new AutowireCandidateQualifier(Qualifier.class, name));
+            registry.registerBeanDefinition(beanName, beanDefinition);
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+}
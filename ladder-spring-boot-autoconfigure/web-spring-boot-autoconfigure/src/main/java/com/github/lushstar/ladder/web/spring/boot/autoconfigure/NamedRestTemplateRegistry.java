@@ -0,0 +1,196 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * <p>description : NamedRestTemplateRegistry，管理 ladder.http.clients 中每个客户端的 RestTemplateFactory
+ * factory 在对应的 RestTemplate 第一次被使用时创建, 容器关闭时统一释放; 开启了 cache 的客户端各自使用独立的响应缓存, 负载均衡的实例状态也按客户端隔离
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/31 10:50
+ */
+@Slf4j
+public class NamedRestTemplateRegistry implements ConnectionPoolStatsProvider {
+
+    private final Map<String, LadderHttpClientsProperties.Client> clients;
+
+    private final BiFunction<RestTemplate, HttpResponseCache, RestTemplate> wrapper;
+
+    private final Map<String, RestTemplateFactory> factories = new LinkedHashMap<>();
+
+    /**
+     * 缓存对象很轻, 启动时创建以便发布指标
+     */
+    private final Map<String, HttpResponseCache> responseCaches = new LinkedHashMap<>();
+
+    private final Map<String, RetryClientHttpRequestInterceptor> retryInterceptors = new LinkedHashMap<>();
+
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters = new LinkedHashMap<>();
+
+    private final Map<String, LoadBalancer> loadBalancers = new LinkedHashMap<>();
+
+    /**
+     * @param clients                 ladder.http.clients
+     * @param wrapper                 与 ladderRestTemplate 相同的 ResponseErrorHandler、HttpMessageConverter、ClientHttpRequestInterceptor 扩展, 以及响应缓存
+     * @param serviceInstanceSupplier 所有客户端共用的实例列表, 可以为 null
+     */
+    public NamedRestTemplateRegistry(Map<String, LadderHttpClientsProperties.Client> clients,
+                                     BiFunction<RestTemplate, HttpResponseCache, RestTemplate> wrapper,
+                                     ServiceInstanceSupplier serviceInstanceSupplier) {
+        this.clients = clients;
+        this.wrapper = wrapper;
+        for (Map.Entry<String, LadderHttpClientsProperties.Client> entry : clients.entrySet()) {
+            RestTemplateProperties.Cache cache = entry.getValue().getCache();
+            if (cache.isEnabled()) {
+                responseCaches.put(entry.getKey(), new HttpResponseCache(entry.getKey(), cache.getMaxSize(), cache.getMaxEntrySize()));
+            }
+            if (entry.getValue().getRetry().isEnabled()) {
+                retryInterceptors.put(entry.getKey(), new RetryClientHttpRequestInterceptor(entry.getValue()));
+            }
+            if (entry.getValue().getLimiter().isEnabled()) {
+                concurrencyLimiters.put(entry.getKey(), new ConcurrencyLimiter(entry.getKey(), entry.getValue()));
+            }
+            if (!entry.getValue().getServices().isEmpty() || serviceInstanceSupplier != null) {
+                loadBalancers.put(entry.getKey(), new LoadBalancer(entry.getValue().getServices(), serviceInstanceSupplier));
+            }
+        }
+    }
+
+    /**
+     * 创建 name 对应的 RestTemplate, 同一个客户端创建的 RestTemplate 共用连接池
+     *
+     * @param name 客户端名称
+     * @return {@link RestTemplate}
+     */
+    public RestTemplate createRestTemplate(String name) {
+        LadderHttpClientsProperties.Client client = this.getClient(name);
+        RestTemplateFactory factory = this.getRestTemplateFactory(name);
+        KeyStoreProperties keystore = client.getKeystore();
+        boolean ssl = keystore.getTrustPath() != null || (keystore.getClientPath() != null && keystore.getClientPassword() != null);
+        RestTemplate restTemplate = ssl ? factory.createSslRestTemplate() : factory.createRestTemplate();
+        // 并发限制和负载均衡位于响应缓存之下, 需要先于 wrapper 设置
+        ConcurrencyLimiter concurrencyLimiter = concurrencyLimiters.get(name);
+        if (concurrencyLimiter != null) {
+            restTemplate.setRequestFactory(new ConcurrencyLimitingClientHttpRequestFactory(restTemplate.getRequestFactory(), concurrencyLimiter));
+        }
+        LoadBalancer loadBalancer = loadBalancers.get(name);
+        if (loadBalancer != null) {
+            restTemplate.setRequestFactory(new LoadBalancingClientHttpRequestFactory(restTemplate.getRequestFactory(), loadBalancer));
+        }
+        restTemplate = wrapper.apply(restTemplate, responseCaches.get(name));
+        // 重试需要是最后一个拦截器
+        RetryClientHttpRequestInterceptor retryInterceptor = retryInterceptors.get(name);
+        if (retryInterceptor != null) {
+            restTemplate.getInterceptors().add(retryInterceptor);
+        }
+        return restTemplate;
+    }
+
+    /**
+     * 获取 name 对应的 RestTemplateFactory, 不存在时创建
+     *
+     * @param name 客户端名称
+     * @return {@link RestTemplateFactory}
+     */
+    public synchronized RestTemplateFactory getRestTemplateFactory(String name) {
+        RestTemplateFactory factory = factories.get(name);
+        if (factory == null) {
+            factory = this.createRestTemplateFactory(name, this.getClient(name));
+            factories.put(name, factory);
+            log.info("ladder.http.clients.{} has been created with [{}]", name, factory.getClass().getSimpleName());
+        }
+        return factory;
+    }
+
+    /**
+     * @return 开启了 cache 的客户端的响应缓存, 缓存名称为客户端名称
+     */
+    public Collection<HttpResponseCache> getResponseCaches() {
+        return Collections.unmodifiableCollection(responseCaches.values());
+    }
+
+    /**
+     * @return 开启了 limiter 的客户端的并发限制, 名称为客户端名称
+     */
+    public Collection<ConcurrencyLimiter> getConcurrencyLimiters() {
+        return Collections.unmodifiableCollection(concurrencyLimiters.values());
+    }
+
+    /**
+     * 连接池名称加上客户端名称前缀, 如 pricing.httpClient
+     *
+     * @return {@link ConnectionPoolStats}
+     */
+    @Override
+    public synchronized List<ConnectionPoolStats> getConnectionPoolStats() {
+        List<ConnectionPoolStats> stats = new ArrayList<>();
+        for (Map.Entry<String, RestTemplateFactory> entry : factories.entrySet()) {
+            if (!(entry.getValue() instanceof ConnectionPoolStatsProvider)) {
+                continue;
+            }
+            for (ConnectionPoolStats stat : ((ConnectionPoolStatsProvider) entry.getValue()).getConnectionPoolStats()) {
+                stat.setPool(entry.getKey() + "." + stat.getPool());
+                stats.add(stat);
+            }
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Map.Entry<String, RestTemplateFactory> entry : factories.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (Exception e) {
+                log.warn("close ladder.http.clients.{} error", entry.getKey(), e);
+            }
+        }
+        factories.clear();
+    }
+
+    private LadderHttpClientsProperties.Client getClient(String name) {
+        LadderHttpClientsProperties.Client client = clients.get(name);
+        if (client == null) {
+            throw new IllegalArgumentException("ladder.http.clients." + name + " is not configured");
+        }
+        return client;
+    }
+
+    private RestTemplateFactory createRestTemplateFactory(String name, LadderHttpClientsProperties.Client client) {
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        switch (client.getType()) {
+            case "httpClient":
+                this.assertPresent(name, "org.apache.http.impl.client.CloseableHttpClient", classLoader);
+                return new HttpClientRestTemplateFactory(client, client.getKeystore());
+            case "okHttp":
+                this.assertPresent(name, "okhttp3.OkHttpClient", classLoader);
+                return new OkHttpRestTemplateFactory(client, client.getKeystore());
+            case "httpClient5":
+                this.assertPresent(name, "org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient", classLoader);
+                return new HttpClient5RestTemplateFactory(client, client.getKeystore());
+            default:
+                throw new IllegalArgumentException("ladder.http.clients." + name + ".type [" + client.getType() + "] is not supported");
+        }
+    }
+
+    private void assertPresent(String name, String className, ClassLoader classLoader) {
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            throw new IllegalStateException("ladder.http.clients." + name + " requires " + className + " on the classpath");
+        }
+    }
+
+}
@@ -2,12 +2,15 @@ package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
 
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PreDestroy;
 import javax.net.SocketFactory;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,12 +23,18 @@ import java.util.concurrent.TimeUnit;
  * @date : 2020/4/8 11:45
  */
 @Slf4j
-public class OkHttpRestTemplateFactory implements RestTemplateFactory {
+public class OkHttpRestTemplateFactory implements RestTemplateFactory, ConnectionPoolStatsProvider {
 
     private final RestTemplateProperties restTemplateProperties;
 
     private final KeyStoreProperties keyStoreProperties;
 
+    private final OkHttpRouteInterceptor routeInterceptor;
+
+    /**
+     * 同一个 factory 创建的 RestTemplate 共用一个 ConnectionPool 和 Dispatcher, 第一次使用时创建
+     * sslOkHttpClient 由 okHttpClient 派生, 只替换了 SSL 相关的配置
+     */
     private OkHttpClient okHttpClient;
 
     private OkHttpClient sslOkHttpClient;
@@ -33,55 +42,82 @@ public class OkHttpRestTemplateFactory implements RestTemplateFactory {
     public OkHttpRestTemplateFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
         this.restTemplateProperties = restTemplateProperties;
         this.keyStoreProperties = keyStoreProperties;
+        this.routeInterceptor = new OkHttpRouteInterceptor(restTemplateProperties);
     }
 
     @Override
     public RestTemplate createRestTemplate() {
-        okHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(restTemplateProperties.getConnectTimeout(), TimeUnit.MILLISECONDS)
-                .readTimeout(restTemplateProperties.getSocketTimeout(), TimeUnit.MILLISECONDS)
-                .socketFactory(SocketFactory.getDefault())
-                .connectionPool(this.getConnectionPool())
-                .build();
-        return new RestTemplate(new OkHttp3ClientHttpRequestFactory(okHttpClient));
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                new OkHttp3ClientHttpRequestFactory(this.getOkHttpClient()), restTemplateProperties.getCompression()));
     }
 
     @Override
     public RestTemplate createSslRestTemplate() {
-        SslParamsUtils.SslParams sslParams = null;
-        try {
-            sslParams = SslParamsUtils.initSslParams(keyStoreProperties);
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw new RuntimeException("OkHttpRestTemplateFactory createSslRestTemplate init error", e);
-        }
-        sslOkHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(restTemplateProperties.getConnectTimeout(), TimeUnit.MILLISECONDS)
-                .readTimeout(restTemplateProperties.getSocketTimeout(), TimeUnit.MILLISECONDS)
-                .sslSocketFactory(sslParams.sslContext.getSocketFactory(), sslParams.trustManager)
-                .hostnameVerifier(new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties))
-                .connectionPool(this.getConnectionPool())
-                .build();
-        return new RestTemplate(new OkHttp3ClientHttpRequestFactory(sslOkHttpClient));
+        return new RestTemplate(CompressingClientHttpRequestFactory.decorate(
+                new OkHttp3ClientHttpRequestFactory(this.getSslOkHttpClient()), restTemplateProperties.getCompression()));
     }
 
-    private ConnectionPool getConnectionPool() {
-        return new ConnectionPool(restTemplateProperties.getMaxTotal(),
-                restTemplateProperties.getKeeAliveTimeMillis(), TimeUnit.MILLISECONDS);
+    /**
+     * OkHttp 的 ConnectionPool 只能获取连接总数和空闲数, 不区分路由; 连接数没有上限, 也不会等待连接, pending 恒为 0
+     * maxTotal 只是 ConnectionPool 保留的最大空闲连接数, 作为 maxIdle 发布, 正在使用的连接数可能超过它
+     * RestTemplate 发起的是同步请求, 只计入 running, 不会在 Dispatcher 中排队, queued 只统计异步调用
+     *
+     * @return {@link ConnectionPoolStats}
+     */
+    @Override
+    public synchronized List<ConnectionPoolStats> getConnectionPoolStats() {
+        if (okHttpClient == null) {
+            return Collections.emptyList();
+        }
+        ConnectionPool connectionPool = okHttpClient.connectionPool();
+        Dispatcher dispatcher = okHttpClient.dispatcher();
+        int idle = connectionPool.idleConnectionCount();
+        return Collections.singletonList(new ConnectionPoolStats("okHttpClient", ConnectionPoolStats.TOTAL_ROUTE,
+                connectionPool.connectionCount() - idle, idle, 0, null, restTemplateProperties.getMaxTotal(),
+                dispatcher.runningCallsCount(), dispatcher.queuedCallsCount()));
     }
 
     @PreDestroy
-    public void close() throws Exception {
+    public synchronized void close() throws Exception {
         if (okHttpClient != null) {
             log.info("release okHttpClient resource");
+            okHttpClient.dispatcher().cancelAll();
             okHttpClient.dispatcher().executorService().shutdown();
             okHttpClient.connectionPool().evictAll();
+            okHttpClient = null;
+            sslOkHttpClient = null;
         }
-        if (sslOkHttpClient != null) {
-            log.info("release sslOkHttpClient resource");
-            sslOkHttpClient.dispatcher().executorService().shutdown();
-            sslOkHttpClient.connectionPool().evictAll();
+    }
+
+    private synchronized OkHttpClient getOkHttpClient() {
+        if (okHttpClient == null) {
+            okHttpClient = new OkHttpClient.Builder()
+                    .connectTimeout(restTemplateProperties.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                    .readTimeout(restTemplateProperties.getSocketTimeout(), TimeUnit.MILLISECONDS)
+                    .socketFactory(SocketFactory.getDefault())
+                    .connectionPool(new ConnectionPool(restTemplateProperties.getMaxTotal(),
+                            restTemplateProperties.getKeeAliveTimeMillis(), TimeUnit.MILLISECONDS))
+                    .addInterceptor(routeInterceptor)
+                    .build();
+        }
+        return okHttpClient;
+    }
+
+    private synchronized OkHttpClient getSslOkHttpClient() {
+        if (sslOkHttpClient == null) {
+            SslParamsUtils.SslParams sslParams;
+            try {
+                sslParams = SslParamsUtils.initSslParams(keyStoreProperties);
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("OkHttpRestTemplateFactory createSslRestTemplate init error", e);
+            }
+            sslOkHttpClient = this.getOkHttpClient().newBuilder()
+                    .sslSocketFactory(sslParams.sslContext.getSocketFactory(), sslParams.trustManager)
+                    .hostnameVerifier(new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties))
+                    .build();
         }
+        return sslOkHttpClient;
     }
 
 }
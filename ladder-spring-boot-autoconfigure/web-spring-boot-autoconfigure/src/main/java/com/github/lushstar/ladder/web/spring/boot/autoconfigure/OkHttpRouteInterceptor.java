@@ -0,0 +1,121 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>description : OkHttpRouteInterceptor，OkHttp 按路由应用 RestTemplateProperties.routes 的配置
+ * OkHttp 的连接池不区分路由, Dispatcher.maxRequestsPerHost 也只对异步请求生效, 所以用信号量限制每个路由的并发请求数,
+ * 等待超过 connectionRequestTimeout 时抛出异常; 响应体关闭后才释放, 与 HttpClient 归还连接的时机一致
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/29 10:15
+ */
+class OkHttpRouteInterceptor implements Interceptor {
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+    OkHttpRouteInterceptor(RestTemplateProperties restTemplateProperties) {
+        this.restTemplateProperties = restTemplateProperties;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HttpUrl url = chain.request().url();
+        RestTemplateProperties.Route route = restTemplateProperties.getRoute(url.scheme(), url.host(), url.port());
+        if (route == null) {
+            return chain.proceed(chain.request());
+        }
+        if (route.getConnectTimeout() != null) {
+            chain = chain.withConnectTimeout(route.getConnectTimeout(), TimeUnit.MILLISECONDS);
+        }
+        if (route.getSocketTimeout() != null) {
+            chain = chain.withReadTimeout(route.getSocketTimeout(), TimeUnit.MILLISECONDS);
+        }
+        if (route.getMaxPerRoute() == null) {
+            return chain.proceed(chain.request());
+        }
+        String key = url.scheme() + "://" + url.host() + ":" + url.port();
+        Semaphore semaphore = semaphores.computeIfAbsent(key, k -> new Semaphore(route.getMaxPerRoute(), true));
+        try {
+            if (!semaphore.tryAcquire(restTemplateProperties.getConnectionRequestTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timeout waiting for connection to " + key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException | Error e) {
+            semaphore.release();
+            throw e;
+        }
+        if (response.body() == null) {
+            semaphore.release();
+            return response;
+        }
+        return response.newBuilder().body(new ReleasingResponseBody(response.body(), semaphore)).build();
+    }
+
+    private static class ReleasingResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+
+        private final BufferedSource source;
+
+        ReleasingResponseBody(ResponseBody delegate, Semaphore semaphore) {
+            this.delegate = delegate;
+            AtomicBoolean released = new AtomicBoolean();
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            semaphore.release();
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.SimpleTrustManagerFactory;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.ManagerFactoryParameters;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.TrustManager;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : ReactorNettyWebClientFactory，基于 Reactor Netty 的 {@link WebClientFactory}
+ * 连接池大小为 maxTotal, 等待连接的超时时间为 connectionRequestTimeout, 其余超时配置与 {@link HttpClientRestTemplateFactory} 一致
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/24 10:20
+ */
+@Slf4j
+public class ReactorNettyWebClientFactory implements WebClientFactory {
+
+    private static final String READ_TIMEOUT_HANDLER = "ladder.readTimeoutHandler";
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final KeyStoreProperties keyStoreProperties;
+
+    /**
+     * 同一个 factory 创建的 WebClient 共用一个连接池, 第一次使用时创建
+     */
+    private ConnectionProvider connectionProvider;
+
+    private ConnectionProvider sslConnectionProvider;
+
+    private HttpClient httpClient;
+
+    private HttpClient sslHttpClient;
+
+    public ReactorNettyWebClientFactory(RestTemplateProperties restTemplateProperties, KeyStoreProperties keyStoreProperties) {
+        this.restTemplateProperties = restTemplateProperties;
+        this.keyStoreProperties = keyStoreProperties;
+    }
+
+    @Override
+    public WebClient createWebClient() {
+        return this.createWebClient(this.getHttpClient());
+    }
+
+    @Override
+    public WebClient createSslWebClient() {
+        return this.createWebClient(this.getSslHttpClient());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (connectionProvider != null) {
+            log.info("release webClient connection provider");
+            connectionProvider.dispose();
+            connectionProvider = null;
+            httpClient = null;
+        }
+        if (sslConnectionProvider != null) {
+            log.info("release sslWebClient connection provider");
+            sslConnectionProvider.dispose();
+            sslConnectionProvider = null;
+            sslHttpClient = null;
+        }
+    }
+
+    private synchronized HttpClient getHttpClient() {
+        if (httpClient == null) {
+            connectionProvider = this.createConnectionProvider("ladder-web-client");
+            httpClient = this.createHttpClient(connectionProvider);
+        }
+        return httpClient;
+    }
+
+    private synchronized HttpClient getSslHttpClient() {
+        if (sslHttpClient == null) {
+            SslContext sslContext;
+            try {
+                SslParamsUtils.SslParams sslParams = SslParamsUtils.initSslParams(keyStoreProperties);
+                sslContext = SslContextBuilder.forClient()
+                        .keyManager(sslParams.keyManagerFactory)
+                        .trustManager(sslParams.trustManager == null ? null : this.trustManagerFactory(sslParams.trustManager))
+                        .build();
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                throw new RuntimeException("ReactorNettyWebClientFactory createSslWebClient init error", e);
+            }
+            SslParamsUtils.HostnameVerifierCustomizer hostnameVerifier = new SslParamsUtils.HostnameVerifierCustomizer(keyStoreProperties);
+            sslConnectionProvider = this.createConnectionProvider("ladder-ssl-web-client");
+            sslHttpClient = this.createHttpClient(sslConnectionProvider)
+                    .secure(spec -> spec.sslContext(sslContext)
+                            .handlerConfigurator(sslHandler -> this.verifyHostname(sslHandler, hostnameVerifier)));
+        }
+        return sslHttpClient;
+    }
+
+    private ConnectionProvider createConnectionProvider(String name) {
+        return ConnectionProvider.fixed(name, restTemplateProperties.getMaxTotal(), restTemplateProperties.getConnectionRequestTimeout());
+    }
+
+    /**
+     * 读超时只在一次请求期间生效: 发送请求时加入 ReadTimeoutHandler, 响应读取完成后移除,
+     * 归还到连接池的空闲连接不会因为超过 socketTimeout 被关闭, 每个请求的超时也从该请求开始计算
+     *
+     * @param provider {@link ConnectionProvider}
+     * @return {@link HttpClient}
+     */
+    private HttpClient createHttpClient(ConnectionProvider provider) {
+        return HttpClient.create(provider)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, restTemplateProperties.getConnectTimeout()))
+                .doOnRequest((request, connection) -> connection.addHandlerLast(READ_TIMEOUT_HANDLER,
+                        new ReadTimeoutHandler(restTemplateProperties.getSocketTimeout(), TimeUnit.MILLISECONDS)))
+                .doAfterResponse((response, connection) -> connection.removeHandler(READ_TIMEOUT_HANDLER));
+    }
+
+    private WebClient createWebClient(HttpClient httpClient) {
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    /**
+     * SslContextBuilder 只接受 TrustManagerFactory, 包装 {@link SslParamsUtils.MyTrustManager}, 与其它 RestTemplateFactory 的证书校验一致
+     *
+     * @param trustManager {@link TrustManager}
+     * @return {@link SimpleTrustManagerFactory}
+     */
+    private SimpleTrustManagerFactory trustManagerFactory(TrustManager trustManager) {
+        return new SimpleTrustManagerFactory() {
+
+            @Override
+            protected void engineInit(KeyStore keyStore) {
+            }
+
+            @Override
+            protected void engineInit(ManagerFactoryParameters managerFactoryParameters) {
+            }
+
+            @Override
+            protected TrustManager[] engineGetTrustManagers() {
+                return new TrustManager[]{trustManager};
+            }
+        };
+    }
+
+    /**
+     * Netty 不支持 HostnameVerifier, 握手成功后按 {@link KeyStoreProperties#getHostNames()} 校验, 不通过时关闭连接
+     *
+     * @param sslHandler       {@link SslHandler}
+     * @param hostnameVerifier {@link SslParamsUtils.HostnameVerifierCustomizer}
+     */
+    private void verifyHostname(SslHandler sslHandler, SslParamsUtils.HostnameVerifierCustomizer hostnameVerifier) {
+        sslHandler.handshakeFuture().addListener(future -> {
+            SSLEngine engine = sslHandler.engine();
+            if (future.isSuccess() && !hostnameVerifier.verify(engine.getPeerHost(), engine.getSession())) {
+                Channel channel = (Channel) future.getNow();
+                channel.pipeline().fireExceptionCaught(new SSLPeerUnverifiedException("Hostname " + engine.getPeerHost() + " not verified"));
+                channel.close();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <p>description : ResponseErrorHandlerExchangeFilter，让 WebClient 复用容器中 RestTemplate 的 {@link ResponseErrorHandler}
+ * 先只根据状态码和响应头调用 hasError, 只有出错的响应才会读取响应体交给 handleError, 正常响应不做缓冲
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/24 11:10
+ */
+public class ResponseErrorHandlerExchangeFilter implements ExchangeFilterFunction {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final ResponseErrorHandler responseErrorHandler;
+
+    public ResponseErrorHandlerExchangeFilter(ResponseErrorHandler responseErrorHandler) {
+        this.responseErrorHandler = responseErrorHandler;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return next.exchange(request).flatMap(response -> {
+            try {
+                if (!responseErrorHandler.hasError(new BufferedClientHttpResponse(response, EMPTY_BODY))) {
+                    return Mono.just(response);
+                }
+            } catch (IOException e) {
+                return Mono.error(e);
+            }
+            return response.bodyToMono(byte[].class).defaultIfEmpty(EMPTY_BODY).flatMap(body -> {
+                try {
+                    responseErrorHandler.handleError(request.url(), request.method(), new BufferedClientHttpResponse(response, body));
+                } catch (IOException | RuntimeException e) {
+                    return Mono.error(e);
+                }
+                // handleError 没有抛出异常时, 用已经读取的响应体重新构造响应
+                return Mono.just(ClientResponse.from(response)
+                        .body(Flux.just(new DefaultDataBufferFactory().wrap(body)))
+                        .build());
+            });
+        });
+    }
+
+    private static class BufferedClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientResponse response;
+
+        private final byte[] body;
+
+        BufferedClientHttpResponse(ClientResponse response, byte[] body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.rawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.rawStatusCode());
+            return status != null ? status.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.headers().asHttpHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -29,4 +29,23 @@ public interface RestTemplateFactory {
      */
     RestTemplate createSslRestTemplate();
 
+    /**
+     * 用于大文件传输, 请求体不在内存中缓冲, 直接写入连接, 长度未知时使用 chunked 传输, 与 createRestTemplate 共用连接池
+     * 配合 {@link StreamingTransferUtils} 使用, 不要添加 ClientHttpRequestInterceptor, 否则请求体仍然会被缓冲
+     * 默认实现与 createRestTemplate 相同, 目前只有 HttpClient 支持不缓冲的请求体; OkHttp 的响应体是流式的, 请求体仍然会被缓冲
+     *
+     * @return {@link RestTemplate}
+     */
+    default RestTemplate createStreamingRestTemplate() {
+        return this.createRestTemplate();
+    }
+
+    /**
+     * 释放创建的连接池等资源
+     *
+     * @throws Exception 释放资源异常
+     */
+    default void close() throws Exception {
+    }
+
 }
@@ -3,6 +3,14 @@ package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * <p>description : RestTemplateProperties
  *
@@ -66,6 +74,11 @@ public class RestTemplateProperties {
      */
     private Integer delay = 10000;
 
+    /**
+     * 连接池指标的刷新间隔 10s, 新出现的路由在下一次刷新时发布
+     */
+    private Integer metricsRefreshInterval = 10000;
+
     /**
      * 底层使用的客户端技术
      */
@@ -84,4 +97,258 @@ public class RestTemplateProperties {
      */
     private boolean keepRestTemplate = true;
 
+    /**
+     * 是否注入 ladderStreamingRestTemplate, 用于大文件传输, 参考 {@link RestTemplateFactory#createStreamingRestTemplate()}
+     */
+    private boolean streamingRestTemplate = false;
+
+    /**
+     * 按 host 单独配置连接池和超时, key 为 host 或 host:port(优先), 未配置的属性使用全局配置
+     * host 中包含 . 时需要使用 [] 包裹, 如 ladder.http.client.routes.[report.example.com].max-per-route=5
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    /**
+     * GET 响应缓存, 默认关闭
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 请求体 gzip 压缩, 默认关闭
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 幂等请求的重试和对冲请求, 默认关闭
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * 按 host 自适应的并发限制, 默认关闭
+     */
+    private Limiter limiter = new Limiter();
+
+    /**
+     * 客户端负载均衡, key 为请求地址中使用的逻辑服务名称, 如 http://pricing/api
+     * 名称中包含 . 时需要使用 [] 包裹, 也可以注入 {@link ServiceInstanceSupplier} 提供实例列表
+     */
+    private Map<String, Service> services = new LinkedHashMap<>();
+
+    /**
+     * 查找 uri 对应的路由配置
+     *
+     * @param uri 请求地址
+     * @return 没有单独配置时返回 null
+     */
+    public Route getRoute(URI uri) {
+        return this.getRoute(uri.getScheme(), uri.getHost(), uri.getPort());
+    }
+
+    /**
+     * 查找 host:port 对应的路由配置, 不存在时再查找 host
+     *
+     * @param scheme http 或者 https, 用于推断默认端口
+     * @param host   主机名
+     * @param port   端口, -1 表示默认端口
+     * @return 没有单独配置时返回 null
+     */
+    public Route getRoute(String scheme, String host, int port) {
+        if (routes.isEmpty() || host == null) {
+            return null;
+        }
+        String hostName = host.toLowerCase(Locale.ROOT);
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        }
+        Route route = routes.get(hostName + ":" + port);
+        return route != null ? route : routes.get(hostName);
+    }
+
+    @Data
+    public static class Route {
+
+        /**
+         * 该路由的最大连接数, 默认使用 defaultMaxPerRoute
+         */
+        private Integer maxPerRoute;
+
+        /**
+         * 连接建立成功的超时时间, 默认使用 connectTimeout
+         */
+        private Integer connectTimeout;
+
+        /**
+         * 读取数据的响应超时时间, 默认使用 socketTimeout
+         */
+        private Integer socketTimeout;
+
+        /**
+         * 响应头中没有 Keep-Alive 时连接保持的活动时间, 默认使用 keeAliveTimeMillis, OkHttp 不支持按路由设置
+         */
+        private Integer keepAliveTimeMillis;
+
+        /**
+         * 最大尝试次数, 1 表示不重试, 默认使用 retry.maxAttempts
+         */
+        private Integer maxAttempts;
+
+        /**
+         * 是否发送对冲请求, 默认使用 retry.hedging
+         */
+        private Boolean hedging;
+
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否缓存 GET 响应, 按 Cache-Control、Expires、ETag、Last-Modified 判断是否可以缓存以及是否需要重新验证
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存占用的最大字节数, 超过时淘汰最久未访问的响应, 默认 10MB
+         */
+        private Long maxSize = 10L * 1024 * 1024;
+
+        /**
+         * 单个响应体超过该字节数时不缓存, 默认 1MB
+         */
+        private Long maxEntrySize = 1024L * 1024;
+
+    }
+
+    @Data
+    public static class Compression {
+
+        /**
+         * 是否使用 gzip 压缩请求体, 需要服务端支持 Content-Encoding: gzip 的请求
+         */
+        private boolean enabled = false;
+
+        /**
+         * 请求体达到该字节数时才压缩
+         * 此参数值参考 spring boot server.compression.min-response-size
+         */
+        private Integer minRequestSize = 2048;
+
+        /**
+         * 需要压缩的 Content-Type
+         * 此参数值参考 spring boot server.compression.mime-types
+         */
+        private List<String> mimeTypes = new ArrayList<>(Arrays.asList("text/html", "text/xml", "text/plain", "text/css",
+                "text/javascript", "application/javascript", "application/json", "application/xml"));
+
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * 是否开启重试, 只重试 GET、HEAD、OPTIONS、PUT、DELETE、TRACE
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最大尝试次数, 包括第一次请求
+         */
+        private Integer maxAttempts = 3;
+
+        /**
+         * 第一次重试前最长等待 50ms, 之后每次翻倍, 实际等待时间在 0 到该值之间随机
+         */
+        private Long initialBackoff = 50L;
+
+        /**
+         * 重试前最长等待 1s
+         */
+        private Long maxBackoff = 1000L;
+
+        /**
+         * 需要重试的状态码, IOException 总是会重试
+         */
+        private List<Integer> retryableStatuses = new ArrayList<>(Arrays.asList(502, 503, 504));
+
+        /**
+         * 是否发送对冲请求: 超过该 host 最近响应时间的 p95 仍未返回时再发出一个相同的请求, 使用先返回的响应
+         */
+        private boolean hedging = false;
+
+        /**
+         * 对冲请求的最小延迟 10ms, 避免响应很快的 host 几乎每次都发送两个请求
+         */
+        private Long hedgeMinDelay = 10L;
+
+        /**
+         * 同时在途的对冲请求上限, 对冲请求在独立的线程池中执行, 超过时不再对冲
+         */
+        private Integer hedgeMaxConcurrency = 16;
+
+        /**
+         * 每个 host 的重试预算, 失败扣 1 个令牌, 令牌数不超过一半时不再重试和对冲
+         * 此参数值参考 gRPC retryThrottling.maxTokens
+         */
+        private Integer budgetMaxTokens = 100;
+
+        /**
+         * 每次成功返还的令牌数, 0.1 表示故障恢复后每 10 个成功请求恢复一次重试机会
+         * 此参数值参考 gRPC retryThrottling.tokenRatio
+         */
+        private Double budgetTokenRatio = 0.1;
+
+    }
+
+    @Data
+    public static class Limiter {
+
+        /**
+         * 是否开启并发限制, 达到限制时直接抛出 ConcurrencyLimitExceededException, 不在连接池上排队
+         */
+        private boolean enabled = false;
+
+        /**
+         * 并发限制的下限
+         */
+        private Integer minLimit = 1;
+
+        /**
+         * 并发限制的上限, 默认为该路由的连接池大小, 即 routes 中的 maxPerRoute 或者 defaultMaxPerRoute
+         */
+        private Integer maxLimit;
+
+        /**
+         * 允许 RTT 超过长期均值的倍数, 超过时降低并发限制
+         * 此参数值参考 Netflix concurrency-limits Gradient2Limit.rttTolerance
+         */
+        private Double rttTolerance = 1.5;
+
+    }
+
+    @Data
+    public static class Service {
+
+        /**
+         * 实例地址, host:port
+         */
+        private List<String> addresses = new ArrayList<>();
+
+        /**
+         * 连续 IOException 或者 5xx 达到该次数时摘除实例
+         * 此参数值参考 Envoy outlier_detection.consecutive_5xx
+         */
+        private Integer consecutiveFailures = 5;
+
+        /**
+         * 摘除时间, 实际摘除时间为 baseEjectionTime * 摘除次数, 单位毫秒
+         */
+        private Long baseEjectionTime = 30000L;
+
+        /**
+         * 最多摘除的实例比例, 至少保留一个实例
+         */
+        private Integer maxEjectionPercent = 50;
+
+    }
+
 }
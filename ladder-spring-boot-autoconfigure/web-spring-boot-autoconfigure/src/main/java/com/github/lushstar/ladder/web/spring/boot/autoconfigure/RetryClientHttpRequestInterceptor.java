@@ -0,0 +1,335 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>description : RetryClientHttpRequestInterceptor，幂等请求的重试和对冲请求, 必须是最后一个拦截器, 每次重试都会重新经过底层的 ClientHttpRequestFactory
+ * 重试: 出现 IOException 或者 retryableStatuses 中的状态码时, 按指数退避加随机抖动(full jitter)等待后重试, 最多 maxAttempts 次
+ * 对冲: 第一个请求在调用线程上执行, 超过该 host 最近响应时间的 p95 仍未返回时, 在对冲线程池中再发出一个相同的请求,
+ * 第一个请求失败或者返回 retryableStatuses 时改用对冲请求的响应, 没有被使用的响应到达后直接关闭;
+ * 同时在途的对冲请求不超过 hedgeMaxConcurrency, 超过时不再对冲
+ * 重试和对冲都受每个 host 的令牌桶预算限制: 失败和每次对冲各扣 1 个令牌, 成功返还 budgetTokenRatio 个, 令牌数不超过一半时不再重试和对冲, 避免故障时放大流量
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/6 10:20
+ */
+@Slf4j
+public class RetryClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS,
+            HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+
+    /**
+     * 到达对冲延迟时触发对冲请求, 只负责提交, 不执行请求
+     */
+    private static final ScheduledThreadPoolExecutor HEDGE_TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "ladder-http-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 第一个请求先返回时 hedge 被替换为该值, 之后不再发出对冲请求
+     */
+    private static final CompletableFuture<ClientHttpResponse> PRIMARY_DONE = CompletableFuture.completedFuture(null);
+
+    static {
+        HEDGE_TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final RestTemplateProperties restTemplateProperties;
+
+    private final RestTemplateProperties.Retry retry;
+
+    private final Set<Integer> retryableStatuses;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * 执行对冲请求, 线程数不超过 hedgeMaxConcurrency, 空闲 60s 的线程会被回收
+     */
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    public RetryClientHttpRequestInterceptor(RestTemplateProperties restTemplateProperties) {
+        this.restTemplateProperties = restTemplateProperties;
+        this.retry = restTemplateProperties.getRetry();
+        this.retryableStatuses = new HashSet<>(retry.getRetryableStatuses());
+        this.hedgeExecutor = new ThreadPoolExecutor(0, retry.getHedgeMaxConcurrency(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "ladder-http-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!IDEMPOTENT_METHODS.contains(request.getMethod())) {
+            return execution.execute(request, body);
+        }
+        URI uri = request.getURI();
+        RestTemplateProperties.Route route = restTemplateProperties.getRoute(uri);
+        int maxAttempts = route != null && route.getMaxAttempts() != null ? route.getMaxAttempts() : retry.getMaxAttempts();
+        boolean hedging = route != null && route.getHedging() != null ? route.getHedging() : retry.isHedging();
+        HostState host = hosts.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(), key -> new HostState());
+        for (int attempt = 1; ; attempt++) {
+            ClientHttpResponse response;
+            try {
+                response = hedging ? this.executeHedged(request, body, execution, host) : this.executeTimed(request, body, execution, host);
+            } catch (ConcurrencyLimitExceededException e) {
+                // 请求没有发出, 重试只会加重本地的拥堵
+                throw e;
+            } catch (IOException e) {
+                host.onFailure();
+                if (attempt >= maxAttempts || !host.allowRetry()) {
+                    throw e;
+                }
+                log.debug("{} {} failed on attempt {}, retrying: {}", request.getMethodValue(), uri, attempt, e.toString());
+                this.backoff(attempt);
+                continue;
+            }
+            if (!retryableStatuses.contains(response.getRawStatusCode())) {
+                host.onSuccess();
+                return response;
+            }
+            host.onFailure();
+            if (attempt >= maxAttempts || !host.allowRetry()) {
+                return response;
+            }
+            log.debug("{} {} returned {} on attempt {}, retrying", request.getMethodValue(), uri, response.getRawStatusCode(), attempt);
+            response.close();
+            this.backoff(attempt);
+        }
+    }
+
+    private ClientHttpResponse executeTimed(HttpRequest request, byte[] body, ClientHttpRequestExecution execution, HostState host) throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        if (response.getRawStatusCode() < 500) {
+            host.recordLatency(System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    /**
+     * 在调用线程上发出第一个请求, 超过对冲延迟仍未返回且预算允许时在 hedgeExecutor 中再发出一个
+     */
+    private ClientHttpResponse executeHedged(HttpRequest request, byte[] body, ClientHttpRequestExecution execution, HostState host) throws IOException {
+        long hedgeDelay = host.hedgeDelayNanos(TimeUnit.MILLISECONDS.toNanos(retry.getHedgeMinDelay()));
+        if (hedgeDelay < 0) {
+            // 样本不足时不对冲
+            return this.executeTimed(request, body, execution, host);
+        }
+        AtomicReference<CompletableFuture<ClientHttpResponse>> hedge = new AtomicReference<>();
+        ScheduledFuture<?> trigger = HEDGE_TIMER.schedule(() -> this.sendHedge(request, body, execution, host, hedge, hedgeDelay),
+                hedgeDelay, TimeUnit.NANOSECONDS);
+        ClientHttpResponse response;
+        try {
+            response = this.executeTimed(request, body, execution, host);
+        } catch (IOException | RuntimeException e) {
+            trigger.cancel(false);
+            CompletableFuture<ClientHttpResponse> hedged = hedge.getAndSet(PRIMARY_DONE);
+            if (hedged == null || e instanceof ConcurrencyLimitExceededException) {
+                this.closeWhenDone(hedged);
+                throw e;
+            }
+            ClientHttpResponse hedgedResponse = this.getHedgedResponse(hedged);
+            if (hedgedResponse == null) {
+                throw e;
+            }
+            return hedgedResponse;
+        }
+        trigger.cancel(false);
+        CompletableFuture<ClientHttpResponse> hedged = hedge.getAndSet(PRIMARY_DONE);
+        if (hedged == null) {
+            return response;
+        }
+        if (!retryableStatuses.contains(response.getRawStatusCode())) {
+            this.closeWhenDone(hedged);
+            return response;
+        }
+        ClientHttpResponse hedgedResponse = this.getHedgedResponse(hedged);
+        if (hedgedResponse == null || retryableStatuses.contains(hedgedResponse.getRawStatusCode())) {
+            if (hedgedResponse != null) {
+                hedgedResponse.close();
+            }
+            return response;
+        }
+        response.close();
+        return hedgedResponse;
+    }
+
+    /**
+     * 在 HEDGE_TIMER 中执行, 第一个请求还未返回时扣除 1 个令牌并提交对冲请求, 线程池已满时放弃对冲并返还令牌
+     */
+    private void sendHedge(HttpRequest request, byte[] body, ClientHttpRequestExecution execution, HostState host,
+                           AtomicReference<CompletableFuture<ClientHttpResponse>> hedge, long hedgeDelay) {
+        if (hedge.get() != null || !host.acquireHedge()) {
+            return;
+        }
+        CompletableFuture<ClientHttpResponse> hedged = new CompletableFuture<>();
+        if (!hedge.compareAndSet(null, hedged)) {
+            host.releaseHedge();
+            return;
+        }
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    hedged.complete(this.executeTimed(request, body, execution, host));
+                } catch (Throwable e) {
+                    hedged.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            host.releaseHedge();
+            hedged.completeExceptionally(e);
+            log.debug("{} {} exceeded hedge delay {}ms, but hedge executor is full", request.getMethodValue(), request.getURI(),
+                    TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+            return;
+        }
+        log.debug("{} {} exceeded hedge delay {}ms, sending hedged request", request.getMethodValue(), request.getURI(),
+                TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+    }
+
+    /**
+     * 等待对冲请求的响应
+     *
+     * @return 对冲请求失败或者被放弃时返回 null
+     */
+    private ClientHttpResponse getHedgedResponse(CompletableFuture<ClientHttpResponse> hedged) throws InterruptedIOException {
+        try {
+            return hedged.get();
+        } catch (ExecutionException e) {
+            log.debug("hedged request failed: {}", e.getCause().toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.closeWhenDone(hedged);
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * 没有被使用的响应在返回后关闭, 释放连接
+     */
+    private void closeWhenDone(CompletableFuture<ClientHttpResponse> hedged) {
+        if (hedged == null) {
+            return;
+        }
+        hedged.thenAccept(response -> {
+            if (response != null) {
+                response.close();
+            }
+        });
+    }
+
+    /**
+     * full jitter: 在 [0, min(maxBackoff, initialBackoff * 2^(attempt-1))] 之间随机等待
+     */
+    private void backoff(int attempt) throws InterruptedIOException {
+        long ceiling = Math.min(retry.getMaxBackoff(), retry.getInitialBackoff() * (1L << Math.min(attempt - 1, 30)));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * 每个 host 的重试预算和最近的响应时间
+     */
+    private class HostState {
+
+        private static final int LATENCY_SAMPLES = 100;
+
+        private static final int MIN_LATENCY_SAMPLES = 20;
+
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+
+        private int latencyCount;
+
+        private int latencyIndex;
+
+        private double tokens = retry.getBudgetMaxTokens();
+
+        synchronized void onSuccess() {
+            tokens = Math.min(retry.getBudgetMaxTokens(), tokens + retry.getBudgetTokenRatio());
+        }
+
+        synchronized void onFailure() {
+            tokens = Math.max(0, tokens - 1);
+        }
+
+        synchronized boolean allowRetry() {
+            return tokens > retry.getBudgetMaxTokens() / 2.0;
+        }
+
+        /**
+         * 对冲请求和重试一样放大了流量, 发出前扣 1 个令牌
+         */
+        synchronized boolean acquireHedge() {
+            if (!this.allowRetry()) {
+                return false;
+            }
+            tokens = Math.max(0, tokens - 1);
+            return true;
+        }
+
+        synchronized void releaseHedge() {
+            tokens = Math.min(retry.getBudgetMaxTokens(), tokens + 1);
+        }
+
+        synchronized void recordLatency(long nanos) {
+            latencies[latencyIndex] = nanos;
+            latencyIndex = (latencyIndex + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+
+        /**
+         * @param minDelay 最小对冲延迟
+         * @return 最近响应时间的 p95, 样本不足时返回 -1
+         */
+        synchronized long hedgeDelayNanos(long minDelay) {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] samples = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(samples);
+            return Math.max(minDelay, samples[(int) Math.ceil(latencyCount * 0.95) - 1]);
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import java.util.List;
+
+/**
+ * <p>description : ServiceInstanceSupplier，逻辑服务的实例列表, 如从注册中心获取; 容器中存在唯一的该类型 bean 时生效
+ * 返回空列表时使用 ladder.http.client.services 中配置的 addresses, 都没有时按普通 host 直接访问
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/10 10:10
+ */
+@FunctionalInterface
+public interface ServiceInstanceSupplier {
+
+    /**
+     * 每次请求都会调用, 实现需要自行缓存
+     *
+     * @param service 逻辑服务名称, 即请求地址中的 host
+     * @return 实例地址, 格式为 host:port 或者 host
+     */
+    List<String> getInstances(String service);
+
+}
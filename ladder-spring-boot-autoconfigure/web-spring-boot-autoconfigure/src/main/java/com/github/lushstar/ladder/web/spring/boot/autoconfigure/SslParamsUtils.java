@@ -27,6 +27,7 @@ public class SslParamsUtils {
     public static class SslParams {
         SSLContext sslContext;
         X509TrustManager trustManager;
+        KeyManagerFactory keyManagerFactory;
     }
 
     public static TrustManager[] prepareTrustManager(String type, InputStream... certificates) throws Exception {
@@ -53,6 +54,11 @@ public class SslParamsUtils {
     }
 
     public static KeyManager[] prepareKeyManager(String type, InputStream jksFile, String password) throws Exception {
+        KeyManagerFactory keyManagerFactory = prepareKeyManagerFactory(type, jksFile, password);
+        return keyManagerFactory == null ? null : keyManagerFactory.getKeyManagers();
+    }
+
+    public static KeyManagerFactory prepareKeyManagerFactory(String type, InputStream jksFile, String password) throws Exception {
         if (jksFile == null || password == null) {
             return null;
         }
@@ -64,7 +70,7 @@ public class SslParamsUtils {
         KeyManagerFactory keyManagerFactory = KeyManagerFactory
                 .getInstance(KeyManagerFactory.getDefaultAlgorithm());
         keyManagerFactory.init(clientKeyStore, password.toCharArray());
-        return keyManagerFactory.getKeyManagers();
+        return keyManagerFactory;
     }
 
     public static X509TrustManager chooseTrustManager(TrustManager[] trustManagers) {
@@ -79,7 +85,7 @@ public class SslParamsUtils {
     public static SslParams initSslParams(KeyStoreProperties keyStoreProperties) throws Exception {
         SslParams sslParams = new SslParams();
         TrustManager[] trustManagers = null;
-        KeyManager[] keyManagers = null;
+        KeyManagerFactory keyManagerFactory = null;
         String trustPath = keyStoreProperties.getTrustPath();
         if (!StringUtils.isEmpty(trustPath)) {
             InputStream certificates = new FileInputStream(new File(trustPath));
@@ -89,16 +95,17 @@ public class SslParamsUtils {
         String password = keyStoreProperties.getClientPassword();
         if (!StringUtils.isEmpty(clientPath) && !StringUtils.isEmpty(password)) {
             InputStream jksFile = new FileInputStream(new File(clientPath));
-            keyManagers = SslParamsUtils.prepareKeyManager(keyStoreProperties.getClientType(), jksFile, password);
+            keyManagerFactory = SslParamsUtils.prepareKeyManagerFactory(keyStoreProperties.getClientType(), jksFile, password);
         }
         SSLContext sslContext = SSLContext.getInstance("TLS");
         X509TrustManager trustManager = null;
         if (trustManagers != null) {
             trustManager = new MyTrustManager(SslParamsUtils.chooseTrustManager(trustManagers));
         }
-        sslContext.init(keyManagers, new TrustManager[]{trustManager}, null);
+        sslContext.init(keyManagerFactory == null ? null : keyManagerFactory.getKeyManagers(), new TrustManager[]{trustManager}, null);
         sslParams.sslContext = sslContext;
         sslParams.trustManager = trustManager;
+        sslParams.keyManagerFactory = keyManagerFactory;
         return sslParams;
     }
 
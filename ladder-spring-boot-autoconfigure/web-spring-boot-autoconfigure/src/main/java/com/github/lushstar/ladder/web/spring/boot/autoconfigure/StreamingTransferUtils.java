@@ -0,0 +1,85 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * <p>description : StreamingTransferUtils，大文件上传、下载, 配合 {@link RestTemplateFactory#createStreamingRestTemplate()} 使用
+ * 文件与连接之间使用固定大小的缓冲区分块复制, 不会读入完整的 byte[] 或者 String, 内存占用与文件大小无关;
+ * 连接只提供 InputStream、OutputStream, 数据仍然会经过堆内存, 不是零拷贝
+ * <pre>
+ * restTemplate.execute(url, HttpMethod.PUT, StreamingTransferUtils.upload(path, MediaType.APPLICATION_OCTET_STREAM), null);
+ * long size = restTemplate.execute(url, HttpMethod.GET, null, StreamingTransferUtils.download(path));
+ * </pre>
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/5 10:30
+ */
+public class StreamingTransferUtils {
+
+    /**
+     * 上传文件, 设置 Content-Length
+     *
+     * @param path        文件路径
+     * @param contentType 请求的 Content-Type
+     * @return {@link RequestCallback}
+     */
+    public static RequestCallback upload(Path path, MediaType contentType) {
+        return request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setContentType(contentType);
+            headers.setContentLength(Files.size(path));
+            writeBody(request, outputStream -> Files.copy(path, outputStream));
+        };
+    }
+
+    /**
+     * 上传流, 长度未知时使用 chunked 传输, 流由调用方关闭
+     *
+     * @param inputStream 请求体
+     * @param contentType 请求的 Content-Type
+     * @return {@link RequestCallback}
+     */
+    public static RequestCallback upload(InputStream inputStream, MediaType contentType) {
+        return request -> {
+            request.getHeaders().setContentType(contentType);
+            writeBody(request, outputStream -> StreamUtils.copy(inputStream, outputStream));
+        };
+    }
+
+    /**
+     * 不缓冲请求体的 HttpComponentsStreamingClientHttpRequest 只支持 setBody, 在发送请求时写入连接
+     */
+    private static void writeBody(ClientHttpRequest request, StreamingHttpOutputMessage.Body body) throws IOException {
+        if (request instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) request).setBody(body);
+        } else {
+            body.writeTo(request.getBody());
+        }
+    }
+
+    /**
+     * 将响应体写入文件, 文件已存在时覆盖
+     *
+     * @param path 文件路径
+     * @return 写入的字节数
+     */
+    public static ResponseExtractor<Long> download(Path path) {
+        return response -> Files.copy(response.getBody(), path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * <p>description : WebClientFactory，{@link RestTemplateFactory} 的非阻塞版本, 使用同一套 {@link RestTemplateProperties} 和 {@link KeyStoreProperties}
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/24 10:05
+ */
+public interface WebClientFactory {
+
+    /**
+     * 用于访问 Http 请求和通过 CA 认证的公网 Https 请求
+     *
+     * @return {@link WebClient}
+     */
+    WebClient createWebClient();
+
+    /**
+     * 定制化的 Https 请求, 具体参考可参考 {@link KeyStoreProperties}
+     *
+     * @return {@link WebClient}
+     */
+    WebClient createSslWebClient();
+
+}
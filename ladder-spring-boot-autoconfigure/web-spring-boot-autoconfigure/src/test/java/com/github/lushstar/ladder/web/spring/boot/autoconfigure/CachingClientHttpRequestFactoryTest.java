@@ -0,0 +1,195 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>description : CachingClientHttpRequestFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/3 15:00
+ */
+public class CachingClientHttpRequestFactoryTest {
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private HttpStubServer server;
+
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    private HttpResponseCache cache;
+
+    private RestTemplate restTemplate;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new HttpStubServer()
+                .handle("/fresh", exchange -> {
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "max-age=60");
+                    this.respond(exchange, 200, "v" + this.count(exchange));
+                })
+                .handle("/etag", exchange -> {
+                    int count = this.count(exchange);
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "max-age=0");
+                    exchange.getResponseHeaders().set(HttpHeaders.ETAG, "\"v1\"");
+                    if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                        this.respond(exchange, 304, null);
+                    } else {
+                        this.respond(exchange, 200, "v" + count);
+                    }
+                })
+                .handle("/vary", exchange -> {
+                    this.count(exchange);
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "max-age=60");
+                    exchange.getResponseHeaders().set(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+                    this.respond(exchange, 200, exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE));
+                })
+                .handle("/auth", exchange -> {
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "max-age=60");
+                    this.respond(exchange, 200, "v" + this.count(exchange));
+                })
+                .handle("/auth-public", exchange -> {
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "public, max-age=60");
+                    this.respond(exchange, 200, "v" + this.count(exchange));
+                })
+                .handle("/private", exchange -> {
+                    exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "private, max-age=60");
+                    this.respond(exchange, 200, "v" + this.count(exchange));
+                });
+        requestFactory = new HttpComponentsClientHttpRequestFactory();
+        cache = new HttpResponseCache("test", 1024 * 1024, 64 * 1024);
+        restTemplate = new RestTemplate(new CachingClientHttpRequestFactory(requestFactory, cache));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        requestFactory.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testFreshResponseFromCache() {
+        Assert.assertEquals("v1", restTemplate.getForObject(server.url("/fresh"), String.class));
+        ResponseEntity<String> cached = restTemplate.getForEntity(server.url("/fresh"), String.class);
+        Assert.assertEquals("v1", cached.getBody());
+        Assert.assertNotNull(cached.getHeaders().getFirst(HttpHeaders.AGE));
+        Assert.assertEquals(1, requests.get("/fresh").get());
+        Assert.assertEquals(1, cache.getStats().getHitCount());
+        Assert.assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testRequestNoCacheRevalidates() {
+        restTemplate.getForObject(server.url("/fresh"), String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        // 没有校验器, no-cache 时重新请求
+        Assert.assertEquals("v2", restTemplate.exchange(server.url("/fresh"), HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody());
+        Assert.assertEquals(2, requests.get("/fresh").get());
+    }
+
+    @Test
+    public void testNotModifiedRevalidation() {
+        Assert.assertEquals("v1", restTemplate.getForObject(server.url("/etag"), String.class));
+        ResponseEntity<String> revalidated = restTemplate.getForEntity(server.url("/etag"), String.class);
+        Assert.assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        Assert.assertEquals("v1", revalidated.getBody());
+        Assert.assertEquals(2, requests.get("/etag").get());
+        Assert.assertEquals(1, cache.getStats().getRevalidatedCount());
+        Assert.assertEquals(0, cache.getStats().getHitCount());
+    }
+
+    @Test
+    public void testCallerConditionalRequestPassedThrough() {
+        restTemplate.getForObject(server.url("/etag"), String.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"v1\"");
+        ResponseEntity<String> response = restTemplate.exchange(server.url("/etag"), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        Assert.assertNull(response.getBody());
+    }
+
+    @Test
+    public void testVary() {
+        Assert.assertEquals("en", this.getWithLanguage("en"));
+        // Vary 的请求头不同, 不能使用 en 的缓存
+        Assert.assertEquals("fr", this.getWithLanguage("fr"));
+        Assert.assertEquals("fr", this.getWithLanguage("fr"));
+        Assert.assertEquals(2, requests.get("/vary").get());
+    }
+
+    @Test
+    public void testAuthorizationNotCachedByDefault() {
+        Assert.assertEquals("v1", this.getWithAuthorization("/auth"));
+        Assert.assertEquals("v2", this.getWithAuthorization("/auth"));
+        // 没有 Authorization 的请求可以缓存
+        Assert.assertEquals("v3", restTemplate.getForObject(server.url("/auth"), String.class));
+        Assert.assertEquals("v3", restTemplate.getForObject(server.url("/auth"), String.class));
+    }
+
+    @Test
+    public void testAuthorizationCachedWhenPublic() {
+        Assert.assertEquals("v1", this.getWithAuthorization("/auth-public"));
+        Assert.assertEquals("v1", this.getWithAuthorization("/auth-public"));
+        Assert.assertEquals(1, requests.get("/auth-public").get());
+    }
+
+    @Test
+    public void testPrivateNotCached() {
+        Assert.assertEquals("v1", restTemplate.getForObject(server.url("/private"), String.class));
+        Assert.assertEquals("v2", restTemplate.getForObject(server.url("/private"), String.class));
+    }
+
+    @Test
+    public void testUnsafeMethodInvalidates() {
+        Assert.assertEquals("v1", restTemplate.getForObject(server.url("/fresh"), String.class));
+        restTemplate.postForObject(server.url("/fresh"), "body", String.class);
+        Assert.assertEquals("v3", restTemplate.getForObject(server.url("/fresh"), String.class));
+    }
+
+    private String getWithLanguage(String language) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, language);
+        return restTemplate.exchange(server.url("/vary"), HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+    }
+
+    private String getWithAuthorization(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("token");
+        return restTemplate.exchange(server.url(path), HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+    }
+
+    private int count(HttpExchange exchange) {
+        return requests.computeIfAbsent(exchange.getHttpContext().getPath(), key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+            byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, status == 304 ? -1 : bytes.length);
+            out.write(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>description : CompressingClientHttpRequestFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/4 15:00
+ */
+public class CompressingClientHttpRequestFactoryTest {
+
+    private static final byte[] SMALL = body(100);
+
+    private static final byte[] LARGE = body(10000);
+
+    private final RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+
+    private HttpStubServer server;
+
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    private RestTemplate restTemplate;
+
+    private volatile HttpHeaders receivedHeaders;
+
+    private volatile byte[] receivedBody;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new HttpStubServer()
+                .handle("/upload", exchange -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.putAll(exchange.getRequestHeaders());
+                    receivedHeaders = headers;
+                    try (InputStream in = exchange.getRequestBody()) {
+                        receivedBody = StreamUtils.copyToByteArray(in);
+                    }
+                    respond(exchange, new byte[0], null);
+                })
+                .handle("/gzip", exchange -> respond(exchange, gzip(LARGE), "gzip"))
+                .handle("/deflate", exchange -> respond(exchange, deflate(LARGE), "deflate"))
+                .handle("/accept-encoding", exchange -> respond(exchange,
+                        String.valueOf(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).getBytes(StandardCharsets.UTF_8), null));
+        restTemplateProperties.getCompression().setEnabled(true);
+        requestFactory = new HttpComponentsClientHttpRequestFactory();
+        restTemplate = new RestTemplate(new CompressingClientHttpRequestFactory(requestFactory, restTemplateProperties.getCompression()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        requestFactory.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testBelowThresholdNotCompressed() {
+        this.post(SMALL, MediaType.APPLICATION_JSON);
+        Assert.assertNull(receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals(SMALL.length, receivedHeaders.getContentLength());
+        Assert.assertArrayEquals(SMALL, receivedBody);
+    }
+
+    @Test
+    public void testAboveThresholdCompressed() throws IOException {
+        this.post(LARGE, MediaType.APPLICATION_JSON_UTF8);
+        Assert.assertEquals("gzip", receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        // Content-Length 是压缩后的长度
+        Assert.assertEquals(receivedBody.length, receivedHeaders.getContentLength());
+        Assert.assertTrue(receivedBody.length < LARGE.length);
+        Assert.assertArrayEquals(LARGE, gunzip(receivedBody));
+    }
+
+    @Test
+    public void testThresholdReachedByManyWrites() throws IOException {
+        restTemplateProperties.getCompression().setMinRequestSize(1000);
+        CompressingClientHttpRequestFactory factory = new CompressingClientHttpRequestFactory(requestFactory, restTemplateProperties.getCompression());
+        ClientHttpRequest request = factory.createRequest(URI.create(server.url("/upload")), HttpMethod.POST);
+        request.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        OutputStream out = request.getBody();
+        for (int i = 0; i < 999; i++) {
+            out.write(LARGE[i]);
+        }
+        // 刚好达到 minRequestSize 时开始压缩
+        out.write(LARGE[999]);
+        out.close();
+        try (ClientHttpResponse ignored = request.execute()) {
+            Assert.assertEquals("gzip", receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assert.assertArrayEquals(Arrays.copyOf(LARGE, 1000), gunzip(receivedBody));
+        }
+    }
+
+    @Test
+    public void testMimeTypeFilter() {
+        this.post(LARGE, MediaType.IMAGE_PNG);
+        Assert.assertNull(receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals(LARGE.length, receivedHeaders.getContentLength());
+        Assert.assertArrayEquals(LARGE, receivedBody);
+
+        // 没有 Content-Type 时不压缩
+        this.post(LARGE, null);
+        Assert.assertNull(receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testAlreadyEncodedNotCompressed() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.set(HttpHeaders.CONTENT_ENCODING, "identity");
+        restTemplate.exchange(server.url("/upload"), HttpMethod.POST, new HttpEntity<>(LARGE, headers), Void.class);
+        Assert.assertEquals("identity", receivedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertArrayEquals(LARGE, receivedBody);
+    }
+
+    @Test
+    public void testHttpClient5Decompression() throws IOException {
+        HttpClient5RestTemplateFactory factory = new HttpClient5RestTemplateFactory(new RestTemplateProperties(), new KeyStoreProperties());
+        try {
+            RestTemplate httpClient5RestTemplate = factory.createRestTemplate();
+            Assert.assertEquals("gzip, deflate", httpClient5RestTemplate.getForObject(server.url("/accept-encoding"), String.class));
+            for (String path : new String[]{"/gzip", "/deflate"}) {
+                ResponseEntity<byte[]> response = httpClient5RestTemplate.getForEntity(server.url(path), byte[].class);
+                Assert.assertArrayEquals(LARGE, response.getBody());
+                // 解压后长度和编码都已经改变
+                Assert.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+                Assert.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+            }
+
+            // 调用方指定了 Accept-Encoding 时自行处理响应体
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            ResponseEntity<byte[]> raw = httpClient5RestTemplate.exchange(server.url("/gzip"), HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            Assert.assertEquals("gzip", raw.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assert.assertArrayEquals(LARGE, gunzip(raw.getBody()));
+
+            ClientHttpRequest request = httpClient5RestTemplate.getRequestFactory().createRequest(URI.create(server.url("/gzip")), HttpMethod.GET);
+            InputStream body;
+            try (ClientHttpResponse response = request.execute()) {
+                body = response.getBody();
+                Assert.assertEquals(LARGE[0], body.read());
+            }
+            try {
+                // close 时关闭了解压的流
+                body.read();
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertEquals("Stream closed", e.getMessage());
+            }
+        } finally {
+            factory.close();
+        }
+    }
+
+    private void post(byte[] body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        restTemplate.exchange(server.url("/upload"), HttpMethod.POST, new HttpEntity<>(body, headers), Void.class);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, String contentEncoding) throws IOException {
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            out.write(body);
+        }
+    }
+
+    private static byte[] body(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("{\"id\":").append(i).append("},");
+        }
+        return builder.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : ConcurrencyLimiterTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 15:00
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final String HOST = "http://localhost:8080";
+
+    private static final URI URL = URI.create(HOST + "/test");
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long INFLATED_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Before
+    public void setUp() {
+        restTemplateProperties.getLimiter().setEnabled(true);
+        restTemplateProperties.getLimiter().setMaxLimit(20);
+        concurrencyLimiter = new ConcurrencyLimiter("test", restTemplateProperties);
+    }
+
+    @Test
+    public void testRejectedWhenLimitReached() throws ConcurrencyLimitExceededException {
+        restTemplateProperties.getLimiter().setMaxLimit(2);
+        List<String> hosts = new ArrayList<>();
+        concurrencyLimiter.addHostListener(hosts::add);
+        ConcurrencyLimiter.HostLimit first = concurrencyLimiter.acquire(URL);
+        concurrencyLimiter.acquire(URL);
+        Assert.assertEquals(2, concurrencyLimiter.getInflight(HOST));
+        try {
+            concurrencyLimiter.acquire(URL);
+            Assert.fail();
+        } catch (ConcurrencyLimitExceededException e) {
+            Assert.assertEquals("concurrency limit 2 of " + HOST + " exceeded", e.getMessage());
+        }
+        // 拒绝的请求不占用许可
+        Assert.assertEquals(2, concurrencyLimiter.getInflight(HOST));
+        Assert.assertEquals(1, concurrencyLimiter.getRejectedCount());
+        // 不同 host 分别限制
+        concurrencyLimiter.acquire(URI.create("http://localhost:8081/test"));
+
+        first.release(BASELINE_RTT, false);
+        Assert.assertEquals(1, concurrencyLimiter.getInflight(HOST));
+        concurrencyLimiter.acquire(URL);
+        Assert.assertEquals(2, concurrencyLimiter.getLimit(HOST));
+        Assert.assertEquals(1, concurrencyLimiter.getRejectedCount());
+        Assert.assertEquals(2, hosts.size());
+        Assert.assertEquals(HOST, hosts.get(0));
+    }
+
+    @Test
+    public void testDropBackoff() throws ConcurrencyLimitExceededException {
+        restTemplateProperties.getLimiter().setMinLimit(3);
+        // 每次失败乘以 0.9
+        Assert.assertEquals(18, this.drop());
+        Assert.assertEquals(16, this.drop());
+        Assert.assertEquals(14, this.drop());
+        for (int i = 0; i < 20; i++) {
+            this.drop();
+        }
+        // 不低于 minLimit
+        Assert.assertEquals(3, concurrencyLimiter.getLimit(HOST));
+        Assert.assertEquals(0, concurrencyLimiter.getInflight(HOST));
+    }
+
+    @Test
+    public void testGradientOnRttInflationAndRecovery() throws ConcurrencyLimitExceededException {
+        // 填满一个最小 RTT 窗口
+        for (int i = 0; i < 50; i++) {
+            this.saturate(BASELINE_RTT);
+        }
+        Assert.assertEquals(20, concurrencyLimiter.getLimit(HOST));
+
+        // RTT 上升到 minRtt 的 10 倍, 超过 rttTolerance, 限制逐步下降
+        int limit = 20;
+        for (int i = 0; i < 20; i++) {
+            this.saturate(INFLATED_RTT);
+            Assert.assertTrue(concurrencyLimiter.getLimit(HOST) <= limit);
+            limit = concurrencyLimiter.getLimit(HOST);
+        }
+        Assert.assertTrue("limit " + limit, limit < 10);
+        Assert.assertTrue("limit " + limit, limit >= restTemplateProperties.getLimiter().getMinLimit());
+
+        // RTT 恢复后限制逐步回升到上限
+        int rounds = 0;
+        while (concurrencyLimiter.getLimit(HOST) < 20 && rounds++ < 200) {
+            this.saturate(BASELINE_RTT);
+            Assert.assertTrue(concurrencyLimiter.getLimit(HOST) >= limit);
+            limit = concurrencyLimiter.getLimit(HOST);
+        }
+        Assert.assertEquals(20, concurrencyLimiter.getLimit(HOST));
+    }
+
+    @Test
+    public void testRttWithinToleranceKeepsLimit() throws ConcurrencyLimitExceededException {
+        for (int i = 0; i < 50; i++) {
+            this.saturate(BASELINE_RTT);
+        }
+        // 1.5 倍以内的 RTT 上升视为正常波动
+        for (int i = 0; i < 20; i++) {
+            this.saturate(BASELINE_RTT * 3 / 2);
+        }
+        Assert.assertEquals(20, concurrencyLimiter.getLimit(HOST));
+    }
+
+    @Test
+    public void testUnsaturatedSamplesIgnored() throws ConcurrencyLimitExceededException {
+        this.saturate(BASELINE_RTT);
+        // 并发没有用到一半时, RTT 上升不调整限制
+        for (int i = 0; i < 200; i++) {
+            concurrencyLimiter.acquire(URL).release(INFLATED_RTT, false);
+        }
+        Assert.assertEquals(20, concurrencyLimiter.getLimit(HOST));
+    }
+
+    private int drop() throws ConcurrencyLimitExceededException {
+        concurrencyLimiter.acquire(URL).release(0, true);
+        return concurrencyLimiter.getLimit(HOST);
+    }
+
+    /**
+     * 占满当前限制后全部归还, 每一批样本都是满负载的
+     */
+    private void saturate(long rttNanos) throws ConcurrencyLimitExceededException {
+        List<ConcurrencyLimiter.HostLimit> permits = new ArrayList<>();
+        do {
+            permits.add(concurrencyLimiter.acquire(URL));
+        } while (permits.size() < concurrencyLimiter.getLimit(HOST));
+        for (ConcurrencyLimiter.HostLimit permit : permits) {
+            permit.release(rttNanos, false);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>description : ConcurrencyLimitingClientHttpRequestFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 15:10
+ */
+public class ConcurrencyLimitingClientHttpRequestFactoryTest {
+
+    private HttpStubServer server;
+
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new HttpStubServer().handle("/upload", exchange -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = StreamUtils.copyToByteArray(in);
+            }
+            byte[] response = (exchange.getRequestHeaders().getFirst("Transfer-Encoding") + ":" + body.length).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        RestTemplateProperties properties = new RestTemplateProperties();
+        properties.getLimiter().setEnabled(true);
+        concurrencyLimiter = new ConcurrencyLimiter("test", properties);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testStreamingUpload() throws Exception {
+        HttpComponentsClientHttpRequestFactory streaming = new HttpComponentsClientHttpRequestFactory();
+        streaming.setBufferRequestBody(false);
+        ClientHttpRequestFactory requestFactory = new ConcurrencyLimitingClientHttpRequestFactory(streaming, concurrencyLimiter);
+        try {
+            Assert.assertTrue(requestFactory.createRequest(URI.create(server.url("/upload")), HttpMethod.PUT) instanceof StreamingHttpOutputMessage);
+            byte[] body = new byte[256 * 1024];
+            String result = new RestTemplate(requestFactory).execute(server.url("/upload"), HttpMethod.PUT,
+                    StreamingTransferUtils.upload(new ByteArrayInputStream(body), MediaType.APPLICATION_OCTET_STREAM),
+                    response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+            // 长度未知, 以 chunked 方式边读边发
+            Assert.assertEquals("chunked:" + body.length, result);
+            Assert.assertEquals(0, concurrencyLimiter.getInflight(server.host()));
+        } finally {
+            streaming.destroy();
+        }
+    }
+
+    @Test
+    public void testBufferedRequestNotStreaming() throws IOException {
+        ClientHttpRequestFactory requestFactory = new ConcurrencyLimitingClientHttpRequestFactory(
+                new HttpComponentsClientHttpRequestFactory(), concurrencyLimiter);
+        Assert.assertFalse(requestFactory.createRequest(URI.create(server.url("/upload")), HttpMethod.PUT) instanceof StreamingHttpOutputMessage);
+    }
+
+    @Test
+    public void testPermitReleasedWhenStatusFails() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        ClientHttpRequestFactory failing = (uri, httpMethod) -> new MockClientHttpRequest(httpMethod, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() {
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK) {
+                    @Override
+                    public int getRawStatusCode() throws IOException {
+                        throw new IOException("connection reset");
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                };
+            }
+        };
+        ClientHttpRequest request = new ConcurrencyLimitingClientHttpRequestFactory(failing, concurrencyLimiter)
+                .createRequest(URI.create("http://localhost:8080/status"), HttpMethod.GET);
+        try {
+            request.execute();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("connection reset", e.getMessage());
+        }
+        Assert.assertTrue(closed.get());
+        Assert.assertEquals(0, concurrencyLimiter.getInflight("http://localhost:8080"));
+    }
+
+    @Test
+    public void testOverloadStatusBacksOff() throws IOException {
+        this.respond(HttpStatus.OK);
+        int limit = concurrencyLimiter.getLimit("http://localhost:8080");
+        // 429、503 说明服务端过载, 立即收缩限制
+        this.respond(HttpStatus.TOO_MANY_REQUESTS);
+        Assert.assertEquals((int) (limit * 0.9), concurrencyLimiter.getLimit("http://localhost:8080"));
+        limit = concurrencyLimiter.getLimit("http://localhost:8080");
+        this.respond(HttpStatus.SERVICE_UNAVAILABLE);
+        Assert.assertTrue(concurrencyLimiter.getLimit("http://localhost:8080") < limit);
+        // 其他错误状态码不算过载
+        limit = concurrencyLimiter.getLimit("http://localhost:8080");
+        this.respond(HttpStatus.INTERNAL_SERVER_ERROR);
+        Assert.assertEquals(limit, concurrencyLimiter.getLimit("http://localhost:8080"));
+        Assert.assertEquals(0, concurrencyLimiter.getInflight("http://localhost:8080"));
+    }
+
+    @Test
+    public void testPermitReleasedOnClose() throws IOException {
+        ClientHttpRequestFactory ok = (uri, httpMethod) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+            return request;
+        };
+        ClientHttpRequest request = new ConcurrencyLimitingClientHttpRequestFactory(ok, concurrencyLimiter)
+                .createRequest(URI.create("http://localhost:8080/ok"), HttpMethod.GET);
+        ClientHttpResponse response = request.execute();
+        Assert.assertEquals(1, concurrencyLimiter.getInflight("http://localhost:8080"));
+        response.close();
+        response.close();
+        Assert.assertEquals(0, concurrencyLimiter.getInflight("http://localhost:8080"));
+    }
+
+    private void respond(HttpStatus status) throws IOException {
+        ClientHttpRequestFactory requestFactory = (uri, httpMethod) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(new MockClientHttpResponse(new byte[0], status));
+            return request;
+        };
+        new ConcurrencyLimitingClientHttpRequestFactory(requestFactory, concurrencyLimiter)
+                .createRequest(URI.create("http://localhost:8080/status"), HttpMethod.GET).execute().close();
+    }
+
+}
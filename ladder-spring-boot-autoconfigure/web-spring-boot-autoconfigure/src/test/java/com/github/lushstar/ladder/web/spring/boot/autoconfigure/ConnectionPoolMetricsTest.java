@@ -0,0 +1,133 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>description : ConnectionPoolMetricsTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/28 15:00
+ */
+public class ConnectionPoolMetricsTest {
+
+    private final RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+
+    private final KeyStoreProperties keyStoreProperties = new KeyStoreProperties();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private HttpStubServer server;
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testOkHttpPublishesIdleLimitAndDispatcher() throws Exception {
+        CountDownLatch arrived = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server = new HttpStubServer().handle("/slow", exchange -> {
+            arrived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, 2);
+                out.write("ok".getBytes());
+            }
+        });
+        OkHttpRestTemplateFactory factory = new OkHttpRestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(Collections.singletonList(factory), 10);
+        try {
+            metrics.bindTo(registry);
+            Future<String> response = executor.submit(() -> factory.createRestTemplate().getForObject(server.url("/slow"), String.class));
+            Assert.assertTrue(arrived.await(5, TimeUnit.SECONDS));
+
+            ConnectionPoolStats stats = factory.getConnectionPoolStats().get(0);
+            Assert.assertNull(stats.getMax());
+            Assert.assertEquals(restTemplateProperties.getMaxTotal(), stats.getMaxIdle());
+            Assert.assertEquals(Integer.valueOf(1), stats.getRunning());
+            Assert.assertEquals(Integer.valueOf(0), stats.getQueued());
+            Assert.assertEquals(1, stats.getLeased());
+
+            Assert.assertEquals(1D, this.awaitGauge(registry, "running", 1D), 0D);
+            Assert.assertEquals(restTemplateProperties.getMaxTotal(), this.awaitGauge(registry, "max.idle", restTemplateProperties.getMaxTotal()), 0D);
+            Assert.assertEquals(0D, this.awaitGauge(registry, "queued", 0D), 0D);
+            // OkHttp 没有最大连接数, 不发布 max
+            Assert.assertNull(registry.find("ladder.http.client.pool.max").tag("pool", "okHttpClient").gauge());
+
+            release.countDown();
+            Assert.assertEquals("ok", response.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            metrics.close();
+            factory.close();
+        }
+        Assert.assertTrue(factory.getConnectionPoolStats().isEmpty());
+    }
+
+    @Test
+    public void testClosedPoolsUnregistered() throws Exception {
+        HttpClientRestTemplateFactory factory = new HttpClientRestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        factory.createRestTemplate();
+        Assert.assertEquals("httpClient", factory.getConnectionPoolStats().get(0).getPool());
+        factory.close();
+        Assert.assertTrue(factory.getConnectionPoolStats().isEmpty());
+        // 关闭后重新创建的连接池沿用原来的名称
+        factory.createRestTemplate();
+        List<ConnectionPoolStats> stats = factory.getConnectionPoolStats();
+        Assert.assertEquals(1, stats.size());
+        Assert.assertEquals("httpClient", stats.get(0).getPool());
+        factory.close();
+
+        HttpClient5RestTemplateFactory httpClient5Factory = new HttpClient5RestTemplateFactory(restTemplateProperties, keyStoreProperties);
+        httpClient5Factory.createRestTemplate();
+        httpClient5Factory.close();
+        Assert.assertTrue(httpClient5Factory.getConnectionPoolStats().isEmpty());
+        httpClient5Factory.createRestTemplate();
+        Assert.assertEquals("httpClient5", httpClient5Factory.getConnectionPoolStats().get(0).getPool());
+        httpClient5Factory.close();
+    }
+
+    /**
+     * 指标由后台线程定时刷新, 等待刷新到期望值
+     */
+    private double awaitGauge(SimpleMeterRegistry registry, String name, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        double value = Double.NaN;
+        while (System.currentTimeMillis() < deadline) {
+            Gauge gauge = registry.find("ladder.http.client.pool." + name).tag("pool", "okHttpClient").gauge();
+            value = gauge != null ? gauge.value() : Double.NaN;
+            if (value == expected) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        return value;
+    }
+
+}
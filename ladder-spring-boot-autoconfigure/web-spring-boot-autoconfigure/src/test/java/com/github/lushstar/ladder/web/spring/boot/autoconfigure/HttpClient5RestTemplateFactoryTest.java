@@ -0,0 +1,183 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.http2.ssl.H2ServerTlsStrategy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>description : HttpClient5RestTemplateFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/27 15:00
+ */
+public class HttpClient5RestTemplateFactoryTest {
+
+    private static final int CONCURRENCY = 8;
+
+    private final RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+
+    private final KeyStoreProperties keyStoreProperties = new KeyStoreProperties();
+
+    private final HttpClient5RestTemplateFactory factory = new HttpClient5RestTemplateFactory(restTemplateProperties, keyStoreProperties);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+
+    private final Set<SocketAddress> remoteAddresses = ConcurrentHashMap.newKeySet();
+
+    private final Set<ProtocolVersion> protocolVersions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicInteger maxInflight = new AtomicInteger();
+
+    private HttpAsyncServer h2Server;
+
+    private HttpStubServer server;
+
+    @After
+    public void tearDown() {
+        factory.close();
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        if (h2Server != null) {
+            h2Server.close(CloseMode.IMMEDIATE);
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testHttp2Multiplexing() throws Exception {
+        int port = this.startH2Server();
+        // 每个路由只允许一个连接, 不复用 stream 时并发请求只能排队
+        restTemplateProperties.setDefaultMaxPerRoute(1);
+        keyStoreProperties.setTrustPath(HttpStubServer.certificatePath());
+        keyStoreProperties.setHostNames(new String[]{"localhost"});
+        RestTemplate restTemplate = factory.createSslRestTemplate();
+        String url = "https://localhost:" + port + "/slow";
+        // 第一次请求建立连接并协商出 HTTP/2, 之后借出的连接才能共享
+        Assert.assertEquals("ok", restTemplate.getForObject(url, String.class));
+        maxInflight.set(0);
+
+        // 同时借出的请求可能都看不到正在借出的连接, 先让一个请求占用连接, 其余请求共享该连接
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> restTemplate.getForObject(url, String.class)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (inflight.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (int i = 1; i < CONCURRENCY; i++) {
+            futures.add(executor.submit(() -> restTemplate.getForObject(url, String.class)));
+        }
+        for (Future<String> future : futures) {
+            Assert.assertEquals("ok", future.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(CONCURRENCY, maxInflight.get());
+        Assert.assertEquals(1, remoteAddresses.size());
+        Assert.assertEquals(1, protocolVersions.size());
+        Assert.assertEquals(HttpVersion.HTTP_2, protocolVersions.iterator().next());
+        ConnectionPoolStats total = factory.getConnectionPoolStats().get(0);
+        Assert.assertEquals("sslHttpClient5", total.getPool());
+        Assert.assertEquals(1, total.getLeased() + total.getAvailable());
+    }
+
+    @Test
+    public void testHttp11Fallback() throws IOException {
+        // JDK HttpsServer 不支持 ALPN, 协商回退到 HTTP/1.1
+        server = new HttpStubServer(true).handle("/ssl", exchange -> {
+            byte[] body = exchange.getProtocol().getBytes(StandardCharsets.UTF_8);
+            try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            }
+        });
+        keyStoreProperties.setTrustPath(HttpStubServer.certificatePath());
+        keyStoreProperties.setHostNames(new String[]{"localhost"});
+        Assert.assertEquals("HTTP/1.1", factory.createSslRestTemplate().getForObject(server.url("/ssl"), String.class));
+    }
+
+    private int startH2Server() throws Exception {
+        h2Server = H2ServerBootstrap.bootstrap()
+                .setTlsStrategy(new H2ServerTlsStrategy(HttpStubServer.serverSslContext()))
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .register("/slow", new SlowRequestHandler())
+                .create();
+        h2Server.start();
+        Future<ListenerEndpoint> endpoint = h2Server.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), URIScheme.HTTPS);
+        return ((InetSocketAddress) endpoint.get(5, TimeUnit.SECONDS).getAddress()).getPort();
+    }
+
+    /**
+     * 记录请求所在的连接和协议, 延迟 500ms 响应, 不阻塞 IO 线程
+     */
+    private class SlowRequestHandler implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(HttpRequest request, EntityDetails entityDetails, HttpContext context) {
+            return new BasicRequestConsumer<>(new DiscardingEntityConsumer<>());
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, Void> message, ResponseTrigger responseTrigger, HttpContext context) {
+            HttpCoreContext coreContext = HttpCoreContext.cast(context);
+            remoteAddresses.add(coreContext.getEndpointDetails().getRemoteAddress());
+            protocolVersions.add(coreContext.getProtocolVersion());
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            scheduler.schedule(() -> {
+                inflight.decrementAndGet();
+                try {
+                    responseTrigger.submitResponse(AsyncResponseBuilder.create(200).setEntity("ok", ContentType.TEXT_PLAIN).build(), context);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, 500, TimeUnit.MILLISECONDS);
+        }
+
+    }
+
+}
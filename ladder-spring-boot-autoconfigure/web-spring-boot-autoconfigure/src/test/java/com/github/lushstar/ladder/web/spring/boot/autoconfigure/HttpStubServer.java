@@ -0,0 +1,119 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>description : HttpStubServer，基于 JDK HttpServer 的本地桩服务, 由各个测试注册自己的 HttpHandler
+ * HTTPS 使用 classpath 下 ssl/server.jks 中 CN=localhost 的自签名证书, 客户端信任 ssl/server.cer 即可
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/7 15:00
+ */
+class HttpStubServer implements AutoCloseable {
+
+    static {
+        // JDK HttpServer 默认不开启 TCP_NODELAY, Nagle 与延迟 ACK 叠加会让每个请求多出几十毫秒
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final char[] KEYSTORE_PASSWORD = "ladder-benchmark".toCharArray();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final boolean ssl;
+
+    HttpStubServer() throws IOException {
+        this(false);
+    }
+
+    HttpStubServer(boolean ssl) throws IOException {
+        this.ssl = ssl;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        if (ssl) {
+            HttpsServer httpsServer = HttpsServer.create(address, 128);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(serverSslContext()));
+            this.server = httpsServer;
+        } else {
+            this.server = HttpServer.create(address, 128);
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    HttpStubServer handle(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return this;
+    }
+
+    /**
+     * @return scheme://host:port
+     */
+    String host() {
+        return (ssl ? "https" : "http") + "://localhost:" + server.getAddress().getPort();
+    }
+
+    String url(String path) {
+        return this.host() + path;
+    }
+
+    /**
+     * @return 客户端信任的证书文件路径
+     */
+    static String certificatePath() {
+        try {
+            return new File(HttpStubServer.class.getClassLoader().getResource("ssl/server.cer").toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return 服务端使用的 SSLContext, 其他协议的桩服务也可以使用
+     */
+    static SSLContext serverSslContext() throws IOException {
+        try (InputStream in = HttpStubServer.class.getClassLoader().getResourceAsStream("ssl/server.jks")) {
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
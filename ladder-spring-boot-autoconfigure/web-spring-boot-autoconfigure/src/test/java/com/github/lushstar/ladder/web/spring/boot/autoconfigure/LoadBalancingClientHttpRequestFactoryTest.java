@@ -0,0 +1,192 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>description : LoadBalancingClientHttpRequestFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/10 15:00
+ */
+public class LoadBalancingClientHttpRequestFactoryTest {
+
+    private static final String SERVICE = "pricing";
+
+    private static final URI URL = URI.create("http://" + SERVICE + "/price?sku=1");
+
+    @Test
+    public void testPowerOfTwoChoices() throws IOException {
+        LoadBalancer loadBalancer = this.loadBalancer(this.service("a:8080", "b:8080"));
+        StubFactory stub = new StubFactory();
+        ClientHttpRequestFactory requestFactory = new LoadBalancingClientHttpRequestFactory(stub, loadBalancer);
+        ClientHttpResponse busy = requestFactory.createRequest(URL, HttpMethod.GET).execute();
+        String busyHost = stub.lastUri.getHost();
+        Assert.assertEquals("/price", stub.lastUri.getPath());
+        Assert.assertEquals("sku=1", stub.lastUri.getQuery());
+        Assert.assertEquals(1, loadBalancer.getInflight(SERVICE, busyHost + ":8080"));
+        // 只有两个实例时每次都比较这两个, 总是选择没有正在进行请求的实例
+        for (int i = 0; i < 20; i++) {
+            requestFactory.createRequest(URL, HttpMethod.GET).execute().close();
+            Assert.assertNotEquals(busyHost, stub.lastUri.getHost());
+        }
+        busy.close();
+        Assert.assertEquals(0, loadBalancer.getInflight(SERVICE, busyHost + ":8080"));
+    }
+
+    @Test
+    public void testEjection() throws IOException {
+        LoadBalancer loadBalancer = this.loadBalancer(this.service("good:8080", "bad:8080"));
+        StubFactory stub = new StubFactory();
+        stub.statuses.put("bad", HttpStatus.SERVICE_UNAVAILABLE);
+        ClientHttpRequestFactory requestFactory = new LoadBalancingClientHttpRequestFactory(stub, loadBalancer);
+        for (int i = 0; i < 100 && !loadBalancer.isEjected(SERVICE, "bad:8080"); i++) {
+            requestFactory.createRequest(URL, HttpMethod.GET).execute().close();
+        }
+        Assert.assertTrue(loadBalancer.isEjected(SERVICE, "bad:8080"));
+        Assert.assertFalse(loadBalancer.isEjected(SERVICE, "good:8080"));
+        for (int i = 0; i < 20; i++) {
+            requestFactory.createRequest(URL, HttpMethod.GET).execute().close();
+            Assert.assertEquals("good", stub.lastUri.getHost());
+        }
+    }
+
+    @Test
+    public void testMaxEjectionPercent() throws IOException {
+        LoadBalancer loadBalancer = this.loadBalancer(this.service("a:8080", "b:8080"));
+        StubFactory stub = new StubFactory();
+        stub.statuses.put("a", HttpStatus.BAD_GATEWAY);
+        stub.statuses.put("b", HttpStatus.BAD_GATEWAY);
+        ClientHttpRequestFactory requestFactory = new LoadBalancingClientHttpRequestFactory(stub, loadBalancer);
+        for (int i = 0; i < 50; i++) {
+            requestFactory.createRequest(URL, HttpMethod.GET).execute().close();
+        }
+        // 最多摘除 50%, 至少保留一个实例
+        Assert.assertNotEquals(loadBalancer.isEjected(SERVICE, "a:8080"), loadBalancer.isEjected(SERVICE, "b:8080"));
+    }
+
+    @Test
+    public void testInflightReleasedWhenStatusFails() throws IOException {
+        LoadBalancer loadBalancer = this.loadBalancer(this.service("a:8080"));
+        StubFactory stub = new StubFactory();
+        stub.statusFailure = true;
+        try {
+            new LoadBalancingClientHttpRequestFactory(stub, loadBalancer).createRequest(URL, HttpMethod.GET).execute();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("connection reset", e.getMessage());
+        }
+        Assert.assertTrue(stub.closed.get());
+        Assert.assertEquals(0, loadBalancer.getInflight(SERVICE, "a:8080"));
+    }
+
+    @Test
+    public void testStreamingUpload() throws Exception {
+        try (HttpStubServer server = new HttpStubServer()) {
+            server.handle("/upload", exchange -> {
+                long size;
+                try (InputStream in = exchange.getRequestBody()) {
+                    size = StreamUtils.drain(in);
+                }
+                byte[] response = String.valueOf(size).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            });
+            LoadBalancer loadBalancer = this.loadBalancer(this.service(URI.create(server.host()).getAuthority()));
+            RestTemplateProperties properties = new RestTemplateProperties();
+            properties.getLimiter().setEnabled(true);
+            ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter("test", properties);
+            HttpComponentsClientHttpRequestFactory streaming = new HttpComponentsClientHttpRequestFactory();
+            streaming.setBufferRequestBody(false);
+            // 与 ladderStreamingRestTemplate 相同的包装顺序
+            RestTemplate restTemplate = new RestTemplate(new LoadBalancingClientHttpRequestFactory(
+                    new ConcurrencyLimitingClientHttpRequestFactory(streaming, concurrencyLimiter), loadBalancer));
+            try {
+                byte[] body = new byte[256 * 1024];
+                String size = restTemplate.execute("http://" + SERVICE + "/upload", HttpMethod.PUT,
+                        StreamingTransferUtils.upload(new ByteArrayInputStream(body), MediaType.APPLICATION_OCTET_STREAM),
+                        response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+                Assert.assertEquals(String.valueOf(body.length), size);
+                Assert.assertEquals(0, loadBalancer.getInflight(SERVICE, URI.create(server.host()).getAuthority()));
+                Assert.assertEquals(0, concurrencyLimiter.getInflight(server.host()));
+            } finally {
+                streaming.destroy();
+            }
+        }
+    }
+
+    private RestTemplateProperties.Service service(String... addresses) {
+        RestTemplateProperties.Service service = new RestTemplateProperties.Service();
+        service.setAddresses(Arrays.asList(addresses));
+        service.setConsecutiveFailures(3);
+        return service;
+    }
+
+    private LoadBalancer loadBalancer(RestTemplateProperties.Service service) {
+        return new LoadBalancer(Collections.singletonMap(SERVICE, service), null);
+    }
+
+    /**
+     * 按实例 host 返回 statuses 中的状态码, 默认 200
+     */
+    private static class StubFactory implements ClientHttpRequestFactory {
+
+        private final Map<String, HttpStatus> statuses = new HashMap<>();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile URI lastUri;
+
+        private volatile boolean statusFailure;
+
+        @Override
+        public MockClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            lastUri = uri;
+            MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+            request.setResponse(new MockClientHttpResponse(new byte[0], statuses.getOrDefault(uri.getHost(), HttpStatus.OK)) {
+                @Override
+                public int getRawStatusCode() throws IOException {
+                    if (statusFailure) {
+                        throw new IOException("connection reset");
+                    }
+                    return super.getRawStatusCode();
+                }
+
+                @Override
+                public void close() {
+                    closed.set(true);
+                }
+            });
+            return request;
+        }
+
+    }
+
+}
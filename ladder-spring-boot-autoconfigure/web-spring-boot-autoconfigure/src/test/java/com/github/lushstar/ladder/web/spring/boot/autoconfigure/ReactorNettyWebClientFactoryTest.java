@@ -0,0 +1,150 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import com.sun.net.httpserver.HttpExchange;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * <p>description : ReactorNettyWebClientFactoryTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/24 15:00
+ */
+public class ReactorNettyWebClientFactoryTest {
+
+    private static final Duration BLOCK = Duration.ofSeconds(10);
+
+    private final RestTemplateProperties restTemplateProperties = new RestTemplateProperties();
+
+    private final KeyStoreProperties keyStoreProperties = new KeyStoreProperties();
+
+    private HttpStubServer server;
+
+    private ReactorNettyWebClientFactory factory;
+
+    @After
+    public void tearDown() {
+        if (factory != null) {
+            factory.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionNotClosedByReadTimeout() throws Exception {
+        server = new HttpStubServer().handle("/port", exchange -> respond(exchange, String.valueOf(exchange.getRemoteAddress().getPort())));
+        restTemplateProperties.setSocketTimeout(200);
+        WebClient webClient = this.factory().createWebClient();
+        String first = this.get(webClient, server.url("/port"));
+        // 空闲时间超过 socketTimeout 后仍然复用同一个连接
+        Thread.sleep(600);
+        Assert.assertEquals(first, this.get(webClient, server.url("/port")));
+    }
+
+    @Test
+    public void testReadTimeoutPerRequest() throws Exception {
+        server = new HttpStubServer()
+                .handle("/slow", exchange -> {
+                    sleep(800);
+                    respond(exchange, "slow");
+                })
+                .handle("/fast", exchange -> respond(exchange, "fast"));
+        restTemplateProperties.setSocketTimeout(300);
+        WebClient webClient = this.factory().createWebClient();
+        Assert.assertEquals("fast", this.get(webClient, server.url("/fast")));
+        Thread.sleep(200);
+        // 超时从本次请求开始计算, 不受连接之前空闲时间的影响
+        Assert.assertEquals("fast", this.get(webClient, server.url("/fast")));
+        try {
+            this.get(webClient, server.url("/slow"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(this.hasCause(e, ReadTimeoutException.class));
+        }
+        Assert.assertEquals("fast", this.get(webClient, server.url("/fast")));
+    }
+
+    @Test
+    public void testSslWebClient() throws IOException {
+        server = new HttpStubServer(true).handle("/ssl", exchange -> respond(exchange, "ssl"));
+        keyStoreProperties.setTrustPath(HttpStubServer.certificatePath());
+        keyStoreProperties.setHostNames(new String[]{"localhost"});
+        Assert.assertEquals("ssl", this.get(this.factory().createSslWebClient(), server.url("/ssl")));
+    }
+
+    @Test
+    public void testHostnameNotVerified() throws IOException {
+        server = new HttpStubServer(true).handle("/ssl", exchange -> respond(exchange, "ssl"));
+        keyStoreProperties.setTrustPath(HttpStubServer.certificatePath());
+        keyStoreProperties.setHostNames(new String[]{"example.com"});
+        try {
+            this.get(this.factory().createSslWebClient(), server.url("/ssl"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(String.valueOf(e), this.hasCause(e, SSLException.class));
+        }
+    }
+
+    @Test
+    public void testUntrustedCertificate() throws IOException {
+        server = new HttpStubServer(true).handle("/ssl", exchange -> respond(exchange, "ssl"));
+        keyStoreProperties.setHostNames(new String[]{"localhost"});
+        try {
+            // 没有配置 trustPath 时只信任 JVM 默认的 CA
+            this.get(this.factory().createSslWebClient(), server.url("/ssl"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(String.valueOf(e), this.hasCause(e, SSLException.class));
+        }
+    }
+
+    private ReactorNettyWebClientFactory factory() {
+        factory = new ReactorNettyWebClientFactory(restTemplateProperties, keyStoreProperties);
+        return factory;
+    }
+
+    private String get(WebClient webClient, String url) {
+        return webClient.get().uri(url).retrieve().bodyToMono(String.class).block(BLOCK);
+    }
+
+    private boolean hasCause(Throwable throwable, Class<? extends Throwable> type) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
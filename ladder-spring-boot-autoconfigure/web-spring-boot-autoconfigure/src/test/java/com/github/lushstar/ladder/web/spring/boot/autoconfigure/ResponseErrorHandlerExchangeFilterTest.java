@@ -0,0 +1,102 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>description : ResponseErrorHandlerExchangeFilterTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/7/24 15:30
+ */
+public class ResponseErrorHandlerExchangeFilterTest {
+
+    private static final Duration BLOCK = Duration.ofSeconds(5);
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/test")).build();
+
+    @Test
+    public void testErrorResponseHandled() {
+        ResponseErrorHandlerExchangeFilter filter = new ResponseErrorHandlerExchangeFilter(new DefaultResponseErrorHandler());
+        try {
+            filter.filter(request, this.respond(HttpStatus.INTERNAL_SERVER_ERROR, "failed")).block(BLOCK);
+            Assert.fail();
+        } catch (HttpServerErrorException e) {
+            Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatusCode());
+            Assert.assertEquals("failed", e.getResponseBodyAsString());
+        }
+    }
+
+    @Test
+    public void testSuccessResponsePassedThrough() {
+        ClientResponse[] original = new ClientResponse[1];
+        ExchangeFunction next = request -> {
+            original[0] = ClientResponse.create(HttpStatus.OK).body("ok").build();
+            return Mono.just(original[0]);
+        };
+        ClientResponse response = new ResponseErrorHandlerExchangeFilter(new DefaultResponseErrorHandler())
+                .filter(request, next).block(BLOCK);
+        // 正常响应原样返回, 响应体没有被读取
+        Assert.assertSame(original[0], response);
+        Assert.assertEquals("ok", response.bodyToMono(String.class).block(BLOCK));
+    }
+
+    @Test
+    public void testBodyAvailableWhenHandlerDoesNotThrow() {
+        AtomicReference<String> handled = new AtomicReference<>();
+        ResponseErrorHandler responseErrorHandler = new ResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) throws IOException {
+                return response.getStatusCode().isError();
+            }
+
+            @Override
+            public void handleError(ClientHttpResponse response) throws IOException {
+                handled.set(StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+            }
+        };
+        ClientResponse response = new ResponseErrorHandlerExchangeFilter(responseErrorHandler)
+                .filter(request, this.respond(HttpStatus.NOT_FOUND, "missing")).block(BLOCK);
+        Assert.assertEquals("missing", handled.get());
+        Assert.assertEquals(HttpStatus.NOT_FOUND, response.statusCode());
+        // 已经读取的响应体重新交给调用方
+        Assert.assertEquals("missing", response.bodyToMono(String.class).block(BLOCK));
+    }
+
+    @Test
+    public void testEmptyErrorBody() {
+        try {
+            new ResponseErrorHandlerExchangeFilter(new DefaultResponseErrorHandler())
+                    .filter(request, request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build())).block(BLOCK);
+            Assert.fail();
+        } catch (HttpServerErrorException e) {
+            Assert.assertEquals(HttpStatus.BAD_GATEWAY, e.getStatusCode());
+            Assert.assertEquals(0, e.getResponseBodyAsByteArray().length);
+        }
+    }
+
+    private ExchangeFunction respond(HttpStatus status, String body) {
+        return request -> Mono.just(ClientResponse.create(status).body(body).build());
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>description : RetryClientHttpRequestInterceptorTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/6 15:30
+ */
+public class RetryClientHttpRequestInterceptorTest {
+
+    private static final String URL = "http://localhost/retry";
+
+    @Test
+    public void testRetryUntilMaxAttempts() {
+        RestTemplateProperties properties = this.properties();
+        StubFactory factory = new StubFactory(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK);
+        Assert.assertEquals(HttpStatus.OK, this.restTemplate(properties, factory).getForEntity(URL, String.class).getStatusCode());
+        Assert.assertEquals(2, factory.executions.get());
+    }
+
+    @Test
+    public void testBudgetExhaustion() {
+        RestTemplateProperties properties = this.properties();
+        properties.getRetry().setBudgetMaxTokens(10);
+        properties.getRetry().setBudgetTokenRatio(0D);
+        StubFactory factory = new StubFactory(HttpStatus.SERVICE_UNAVAILABLE);
+        RestTemplate restTemplate = this.restTemplate(properties, factory);
+        // 令牌 10 -> 9 -> 8 -> 7, 达到 maxAttempts
+        Assert.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, restTemplate.getForEntity(URL, String.class).getStatusCode());
+        Assert.assertEquals(3, factory.executions.getAndSet(0));
+        // 令牌 7 -> 6 -> 5, 不超过一半后停止重试
+        restTemplate.getForEntity(URL, String.class);
+        Assert.assertEquals(2, factory.executions.getAndSet(0));
+        restTemplate.getForEntity(URL, String.class);
+        Assert.assertEquals(1, factory.executions.getAndSet(0));
+    }
+
+    @Test
+    public void testNonIdempotentNotRetried() {
+        StubFactory factory = new StubFactory(HttpStatus.SERVICE_UNAVAILABLE);
+        this.restTemplate(this.properties(), factory).postForEntity(URL, "body", String.class);
+        Assert.assertEquals(1, factory.executions.get());
+    }
+
+    @Test
+    public void testHedgeSpendsToken() {
+        RestTemplateProperties properties = this.hedgingProperties();
+        properties.getRetry().setBudgetMaxTokens(4);
+        properties.getRetry().setBudgetTokenRatio(0D);
+        StubFactory factory = new StubFactory(HttpStatus.OK);
+        RestTemplate restTemplate = this.restTemplate(properties, factory);
+        this.warmUp(restTemplate, factory);
+        factory.primaryDelay = 200;
+        // 令牌 4 -> 3 -> 2, 之后不超过一半, 不再对冲
+        int[] expected = {2, 2, 1};
+        for (int executions : expected) {
+            ResponseEntity<String> response = restTemplate.getForEntity(URL, String.class);
+            Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+            Assert.assertEquals(executions, factory.executions.getAndSet(0));
+        }
+        // 第一个请求始终在调用线程上执行
+        Assert.assertTrue(factory.threads.stream().filter(name -> !name.startsWith("ladder-http-hedge"))
+                .allMatch(name -> name.equals(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testHedgeUsedWhenPrimaryFails() {
+        RestTemplateProperties properties = this.hedgingProperties();
+        properties.getRetry().setMaxAttempts(1);
+        StubFactory factory = new StubFactory(HttpStatus.OK);
+        RestTemplate restTemplate = this.restTemplate(properties, factory);
+        this.warmUp(restTemplate, factory);
+        factory.primaryDelay = 200;
+        factory.primaryFailure = true;
+        Assert.assertEquals("hedge", restTemplate.getForObject(URL, String.class));
+        Assert.assertEquals(2, factory.executions.get());
+    }
+
+    @Test
+    public void testHedgeSkippedWhenExecutorFull() throws Exception {
+        RestTemplateProperties properties = this.hedgingProperties();
+        properties.getRetry().setHedgeMaxConcurrency(1);
+        StubFactory factory = new StubFactory(HttpStatus.OK);
+        RestTemplate restTemplate = this.restTemplate(properties, factory);
+        this.warmUp(restTemplate, factory);
+        factory.primaryDelay = 300;
+        factory.hedgeDelay = 300;
+        Thread other = new Thread(() -> restTemplate.getForObject(URL, String.class), "other-caller");
+        other.start();
+        Thread.sleep(100);
+        // other-caller 的对冲请求占满了线程池
+        Assert.assertEquals("primary", restTemplate.getForObject(URL, String.class));
+        other.join();
+        Assert.assertEquals(3, factory.executions.get());
+    }
+
+    private void warmUp(RestTemplate restTemplate, StubFactory factory) {
+        for (int i = 0; i < 50; i++) {
+            restTemplate.getForObject(URL, String.class);
+        }
+        factory.executions.set(0);
+        factory.threads.clear();
+    }
+
+    private RestTemplateProperties properties() {
+        RestTemplateProperties properties = new RestTemplateProperties();
+        properties.getRetry().setEnabled(true);
+        properties.getRetry().setInitialBackoff(0L);
+        return properties;
+    }
+
+    private RestTemplateProperties hedgingProperties() {
+        RestTemplateProperties properties = this.properties();
+        properties.getRetry().setHedging(true);
+        properties.getRetry().setHedgeMinDelay(20L);
+        return properties;
+    }
+
+    private RestTemplate restTemplate(RestTemplateProperties properties, StubFactory factory) {
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(new RetryClientHttpRequestInterceptor(properties));
+        restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+        return restTemplate;
+    }
+
+    /**
+     * 按顺序返回 statuses 中的状态码, 最后一个一直重复; 对冲线程上的请求返回 hedge, 其它返回 primary
+     */
+    private static class StubFactory implements ClientHttpRequestFactory {
+
+        private final HttpStatus[] statuses;
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        private volatile long primaryDelay;
+
+        private volatile long hedgeDelay;
+
+        private volatile boolean primaryFailure;
+
+        private StubFactory(HttpStatus... statuses) {
+            this.statuses = statuses;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new MockClientHttpRequest(httpMethod, uri) {
+                @Override
+                protected ClientHttpResponse executeInternal() throws IOException {
+                    int execution = executions.getAndIncrement();
+                    String thread = Thread.currentThread().getName();
+                    threads.add(thread);
+                    boolean hedge = thread.startsWith("ladder-http-hedge");
+                    sleep(hedge ? hedgeDelay : primaryDelay);
+                    if (!hedge && primaryFailure) {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                    HttpStatus status = statuses[Math.min(execution, statuses.length - 1)];
+                    return new MockClientHttpResponse((hedge ? "hedge" : "primary").getBytes(), status);
+                }
+            };
+        }
+
+        private static void sleep(long millis) throws IOException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.github.lushstar.ladder.web.spring.boot.autoconfigure;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * <p>description : StreamingTransferUtilsTest
+ *
+ * <p>blog : https://blog.csdn.net/masteryourself
+ *
+ * @author : masteryourself
+ * @version : 1.0.0
+ * @date : 2020/8/5 15:00
+ */
+public class StreamingTransferUtilsTest {
+
+    /**
+     * 超过 StreamUtils、Files.copy 缓冲区的大小, 覆盖多次分块复制
+     */
+    private static final byte[] CONTENT = new byte[3 * 1024 * 1024 + 17];
+
+    static {
+        new Random(42).nextBytes(CONTENT);
+    }
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpStubServer server;
+
+    private HttpClientRestTemplateFactory factory;
+
+    private RestTemplate restTemplate;
+
+    private volatile HttpHeaders receivedHeaders;
+
+    private volatile byte[] receivedBody;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new HttpStubServer()
+                .handle("/upload", exchange -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.putAll(exchange.getRequestHeaders());
+                    receivedHeaders = headers;
+                    try (InputStream in = exchange.getRequestBody()) {
+                        receivedBody = StreamUtils.copyToByteArray(in);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                })
+                .handle("/download", exchange -> {
+                    try (InputStream ignored = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+                        exchange.sendResponseHeaders(200, CONTENT.length);
+                        out.write(CONTENT);
+                    }
+                });
+        factory = new HttpClientRestTemplateFactory(new RestTemplateProperties(), new KeyStoreProperties());
+        restTemplate = factory.createStreamingRestTemplate();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        factory.close();
+        server.close();
+    }
+
+    @Test
+    public void testUploadPath() throws IOException {
+        Path path = folder.newFile("upload.bin").toPath();
+        Files.write(path, CONTENT);
+        restTemplate.execute(server.url("/upload"), HttpMethod.PUT,
+                StreamingTransferUtils.upload(path, MediaType.APPLICATION_OCTET_STREAM), null);
+        Assert.assertEquals(CONTENT.length, receivedHeaders.getContentLength());
+        Assert.assertEquals(MediaType.APPLICATION_OCTET_STREAM, receivedHeaders.getContentType());
+        Assert.assertArrayEquals(CONTENT, receivedBody);
+    }
+
+    @Test
+    public void testUploadInputStream() {
+        restTemplate.execute(server.url("/upload"), HttpMethod.PUT,
+                StreamingTransferUtils.upload(new ByteArrayInputStream(CONTENT), MediaType.APPLICATION_OCTET_STREAM), null);
+        // 长度未知时使用 chunked 传输
+        Assert.assertEquals("chunked", receivedHeaders.getFirst(HttpHeaders.TRANSFER_ENCODING));
+        Assert.assertArrayEquals(CONTENT, receivedBody);
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        Path path = folder.newFile("download.bin").toPath();
+        // 已存在的文件被覆盖
+        Files.write(path, new byte[CONTENT.length * 2]);
+        Long size = restTemplate.execute(server.url("/download"), HttpMethod.GET, null, StreamingTransferUtils.download(path));
+        Assert.assertEquals(Long.valueOf(CONTENT.length), size);
+        Assert.assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    }
+
+}